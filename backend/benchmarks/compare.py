@@ -0,0 +1,50 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files, e.g. results/abc1234.json results/def5678.json.
+
+Prints each benchmark and parameter combination present in both files with its score, error and the
+relative change. A change smaller than the combined error is marked as noise.
+"""
+import json
+import math
+import sys
+
+
+def load(path):
+    with open(path, encoding="utf-8") as f:
+        runs = json.load(f)
+    results = {}
+    for run in runs:
+        params = ",".join(f"{k}={v}" for k, v in sorted(run.get("params", {}).items()))
+        name = run["benchmark"].removeprefix("com.subsentry.")
+        metric = run["primaryMetric"]
+        # scoreError is "NaN" when a run had a single measurement iteration
+        error = float(metric["scoreError"])
+        results[(name, params)] = (metric["score"], 0.0 if math.isnan(error) else error, metric["scoreUnit"])
+    return results
+
+
+def main():
+    if len(sys.argv) != 3:
+        sys.exit("usage: compare.py BASELINE.json CANDIDATE.json")
+    baseline, candidate = load(sys.argv[1]), load(sys.argv[2])
+    rows = []
+    for key in sorted(baseline.keys() & candidate.keys()):
+        base_score, base_error, unit = baseline[key]
+        new_score, new_error, _ = candidate[key]
+        change = (new_score - base_score) / base_score * 100 if base_score else 0.0
+        noise = abs(new_score - base_score) <= base_error + new_error
+        rows.append((key[0], key[1], f"{base_score:.3f}", f"{new_score:.3f}", unit,
+                     f"{change:+.1f}%" + (" ~" if noise else "")))
+
+    header = ("benchmark", "params", "baseline", "candidate", "unit", "change")
+    widths = [max(len(str(r[i])) for r in rows + [header]) for i in range(len(header))]
+    for row in [header] + rows:
+        print("  ".join(str(col).ljust(width) for col, width in zip(row, widths)))
+
+    missing = baseline.keys() ^ candidate.keys()
+    if missing:
+        print(f"\n{len(missing)} benchmark(s) only present in one file were skipped")
+
+
+if __name__ == "__main__":
+    main()
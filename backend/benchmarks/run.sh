@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+# Builds the backend and the benchmarks, then runs JMH and writes the results as JSON to
+# results/<commit>.json. Extra arguments go to JMH, e.g. a benchmark regex or "-p subscriptions=1000".
+set -euo pipefail
+
+cd "$(dirname "$0")"
+commit="$(git rev-parse --short HEAD)"
+if ! git diff --quiet HEAD -- ..; then
+    commit="${commit}-dirty"
+fi
+
+mvn -B -q -f ../pom.xml install -DskipTests
+mvn -B -q package
+
+mkdir -p results
+java -jar target/benchmarks.jar -rf json -rff "results/${commit}.json" "$@"
+echo "Results written to benchmarks/results/${commit}.json"
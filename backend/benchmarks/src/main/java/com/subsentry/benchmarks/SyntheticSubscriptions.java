@@ -0,0 +1,53 @@
+package com.subsentry.benchmarks;
+
+import com.subsentry.model.Subscription;
+import com.subsentry.util.UuidV7;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds a reproducible synthetic subscription list for one user. The same count always yields the
+ * same data, so results stay comparable between runs and commits.
+ */
+public final class SyntheticSubscriptions {
+
+    public static final String[] CATEGORIES = {
+            "Streaming", "Music", "Software", "Cloud Storage", "News", "Fitness", "Gaming", "Education"
+    };
+    public static final String[] BILLING_CYCLES = {
+            "monthly", "monthly", "monthly", "annual", "quarterly", "semi-annual", "weekly"
+    };
+
+    private SyntheticSubscriptions() {
+    }
+
+    public static List<Subscription> forUser(String userId, int count) {
+        SplittableRandom random = new SplittableRandom(count);
+        LocalDateTime now = LocalDateTime.now();
+        List<Subscription> subscriptions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Subscription subscription = new Subscription();
+            subscription.setId(UuidV7.generate());
+            subscription.setUserId(userId);
+            subscription.setName("Service " + i);
+            subscription.setAmount(random.nextInt(99, 25_000) / 100.0);
+            subscription.setCurrency("USD");
+            subscription.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            subscription.setBillingCycle(BILLING_CYCLES[random.nextInt(BILLING_CYCLES.length)]);
+            subscription.setStartDate(now.minusDays(random.nextInt(1, 730)));
+            subscription.setNextRenewalDate(now.plusDays(random.nextInt(-5, 365)));
+            subscription.setStatus(random.nextInt(10) == 0 ? "cancelled" : "active");
+            subscription.setAutoRenewal(random.nextBoolean());
+            subscription.setPaymentMethod("Visa **** " + (1000 + random.nextInt(9000)));
+            subscription.setPortalLink("https://example.com/account/" + i);
+            subscription.setNotes(random.nextInt(4) == 0 ? "Shared with family" : null);
+            subscription.setCreatedAt(subscription.getStartDate());
+            subscription.setUpdatedAt(now);
+            subscriptions.add(subscription);
+        }
+        return subscriptions;
+    }
+}
@@ -0,0 +1,125 @@
+package com.subsentry.dao;
+
+import com.subsentry.benchmarks.SyntheticSubscriptions;
+import com.subsentry.config.DatabaseConfig;
+import com.subsentry.model.Subscription;
+import com.subsentry.model.User;
+import com.subsentry.util.DatabaseConnection;
+import com.subsentry.util.UuidCodec;
+import com.subsentry.util.UuidV7;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot {@link SubscriptionDAO} and {@link UserDAO} lookups against a real MySQL server, once per statement
+ * setting. Each call borrows a pooled connection and prepares its SQL again, as the DAOs do:
+ *
+ * {@code none} re-parses the SQL in the driver and the statement on the server every time,
+ * {@code client-cache} keeps the driver's parse in the connection's statement cache, and
+ * {@code server-cache} is the application default, where the server parses each statement once per
+ * connection and later calls only send the parameters.
+ *
+ * Needs a migrated {@code subsentry} schema. The connection is taken from {@code -Dbenchmark.db.url},
+ * {@code -Dbenchmark.db.username} and {@code -Dbenchmark.db.password} (defaults match
+ * application.properties). One user with a few subscriptions is created and removed again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementCacheBenchmark {
+
+    @Param({"none", "client-cache", "server-cache"})
+    public String statements;
+
+    private final SubscriptionDAO subscriptionDAO = new SubscriptionDAO();
+    private final UserDAO userDAO = new UserDAO();
+    private HikariDataSource pool;
+    private User user;
+    private String subscriptionId;
+
+    @Setup
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("statement-cache-benchmark");
+        config.setJdbcUrl(System.getProperty("benchmark.db.url", "jdbc:mysql://127.0.0.1:3306/subsentry"));
+        config.setUsername(System.getProperty("benchmark.db.username", "root"));
+        config.setPassword(System.getProperty("benchmark.db.password", "password"));
+        // One connection, so every call reuses the same statement cache
+        config.setMaximumPoolSize(1);
+        switch (statements) {
+            case "none" -> DatabaseConfig.configureStatements(config, false, 0, 2048);
+            case "client-cache" -> DatabaseConfig.configureStatements(config, false, 250, 2048);
+            case "server-cache" -> DatabaseConfig.configureStatements(config, true, 250, 2048);
+            default -> throw new IllegalArgumentException("Unknown statement setting: " + statements);
+        }
+        pool = new HikariDataSource(config);
+        new DatabaseConnection(pool, null, new SimpleMeterRegistry());
+
+        user = new User();
+        user.setName("Statement Cache Benchmark");
+        user.setEmail("statement-cache-" + UuidV7.generate() + "@subsentry.test");
+        user.setPassword("not-a-real-hash");
+        user.setDefaultCurrency("USD");
+        user.setTimezone("UTC");
+        if (!userDAO.createUser(user)) {
+            throw new IllegalStateException("Failed to create the benchmark user; is the schema migrated?");
+        }
+        List<Subscription> subscriptions = SyntheticSubscriptions.forUser(user.getId(), 20);
+        subscriptions.forEach(subscriptionDAO::create);
+        subscriptionId = subscriptions.get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM users WHERE id = ?")) {
+            UuidCodec.bind(ps, 1, user.getId());
+            ps.executeUpdate();
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Benchmark
+    public Optional<Subscription> subscriptionById() {
+        return subscriptionDAO.findById(user.getId(), subscriptionId);
+    }
+
+    @Benchmark
+    public List<Subscription> subscriptionsForUser() {
+        return subscriptionDAO.findAll(user.getId(), null, null);
+    }
+
+    @Benchmark
+    public User userByEmail() {
+        return userDAO.getUserByEmail(user.getEmail());
+    }
+
+    @Benchmark
+    public User userById() {
+        return userDAO.getUserById(user.getId());
+    }
+}
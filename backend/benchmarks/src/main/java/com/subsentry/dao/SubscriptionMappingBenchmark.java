@@ -0,0 +1,136 @@
+package com.subsentry.dao;
+
+import com.subsentry.benchmarks.SyntheticSubscriptions;
+import com.subsentry.model.Subscription;
+import com.subsentry.model.SubscriptionColumns;
+import com.subsentry.util.UuidCodec;
+import com.subsentry.util.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SubscriptionDAO#mapRow} and {@link SubscriptionDAO#readColumns} over a scrollable H2 result set
+ * holding one user's subscriptions. The query runs once in setup, so the measurement covers column reads
+ * and mapping only. Run with {@code -prof gc} to compare what each allocates per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriptionMappingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int subscriptions;
+
+    private final SubscriptionDAO subscriptionDAO = new SubscriptionDAO();
+    private Connection connection;
+    private Statement statement;
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:subscription_mapping;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS subscriptions");
+            ddl.execute("""
+                    CREATE TABLE subscriptions (
+                        id BINARY(16) PRIMARY KEY,
+                        user_id BINARY(16) NOT NULL,
+                        name VARCHAR(150) NOT NULL,
+                        amount DECIMAL(10,2) NOT NULL,
+                        currency VARCHAR(10),
+                        category VARCHAR(60),
+                        billing_cycle VARCHAR(20),
+                        start_date TIMESTAMP,
+                        next_renewal_date TIMESTAMP,
+                        status VARCHAR(30),
+                        auto_renewal TINYINT,
+                        payment_method VARCHAR(120),
+                        portal_link VARCHAR(255),
+                        notes TEXT,
+                        created_at TIMESTAMP,
+                        updated_at TIMESTAMP
+                    )
+                    """);
+        }
+        insert(SyntheticSubscriptions.forUser(UuidV7.generate(), subscriptions));
+
+        statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        resultSet = statement.executeQuery("SELECT * FROM subscriptions ORDER BY created_at DESC");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        resultSet.close();
+        statement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public void mapAllRows(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        while (resultSet.next()) {
+            blackhole.consume(subscriptionDAO.mapRow(resultSet));
+        }
+    }
+
+    @Benchmark
+    public SubscriptionColumns readAllColumns() throws SQLException {
+        resultSet.beforeFirst();
+        return subscriptionDAO.readColumns(resultSet);
+    }
+
+    private void insert(List<Subscription> data) throws SQLException {
+        String sql = """
+                INSERT INTO subscriptions (id, user_id, name, amount, currency, category, billing_cycle, start_date,
+                    next_renewal_date, status, auto_renewal, payment_method, portal_link, notes, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (Subscription sub : data) {
+                ps.setBytes(1, UuidCodec.toBytes(sub.getId()));
+                ps.setBytes(2, UuidCodec.toBytes(sub.getUserId()));
+                ps.setString(3, sub.getName());
+                ps.setBigDecimal(4, BigDecimal.valueOf(sub.getAmount()));
+                ps.setString(5, sub.getCurrency());
+                ps.setString(6, sub.getCategory());
+                ps.setString(7, sub.getBillingCycle());
+                ps.setTimestamp(8, Timestamp.valueOf(sub.getStartDate()));
+                ps.setTimestamp(9, Timestamp.valueOf(sub.getNextRenewalDate()));
+                ps.setString(10, sub.getStatus());
+                ps.setBoolean(11, sub.isAutoRenewal());
+                ps.setString(12, sub.getPaymentMethod());
+                ps.setString(13, sub.getPortalLink());
+                ps.setString(14, sub.getNotes());
+                ps.setTimestamp(15, Timestamp.valueOf(sub.getCreatedAt()));
+                ps.setTimestamp(16, Timestamp.valueOf(sub.getUpdatedAt()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
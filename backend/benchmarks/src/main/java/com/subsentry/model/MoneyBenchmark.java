@@ -0,0 +1,103 @@
+package com.subsentry.model;
+
+import com.subsentry.benchmarks.SyntheticSubscriptions;
+import com.subsentry.util.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monthly spend of a user's subscriptions computed the way analytics used to, summing {@code double}
+ * amounts divided by a per-cycle factor and rounding with {@code Math.round(x * 100) / 100}, against the
+ * exact {@link Money} path: whole cents times {@link BillingCycle#periodsPerYear()} summed in a
+ * {@code long} and divided by twelve once. Both run over the columnar table (the analytics endpoints) and
+ * over loaded {@link Subscription} objects (report generation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"100", "100000"})
+    public int subscriptions;
+
+    private List<Subscription> data;
+    private SubscriptionColumns columns;
+    private double[] monthlyDivisors;
+    private long[] periodsPerYear;
+
+    @Setup
+    public void setUp() {
+        data = SyntheticSubscriptions.forUser(UuidV7.generate(), subscriptions);
+        columns = SubscriptionColumns.of(data);
+        monthlyDivisors = columns.cycles().stream().mapToDouble(MoneyBenchmark::monthlyDivisor).toArray();
+        periodsPerYear = columns.cycles().stream().mapToLong(cycle -> BillingCycle.of(cycle).periodsPerYear()).toArray();
+    }
+
+    @Benchmark
+    public double columnsDouble() {
+        double monthlyCents = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            monthlyCents += columns.amountCents(i) / monthlyDivisors[columns.cycleCode(i)];
+        }
+        return Math.round(monthlyCents / 100 * 100.0) / 100.0;
+    }
+
+    @Benchmark
+    public double columnsExact() {
+        long annualCents = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            annualCents += columns.amountCents(i) * periodsPerYear[columns.cycleCode(i)];
+        }
+        return Money.ofMinor(annualCents, Money.STORAGE_SCALE).dividedBy(BillingCycle.MONTHS_PER_YEAR).toDouble();
+    }
+
+    @Benchmark
+    public double objectsDouble() {
+        double monthly = 0;
+        for (Subscription sub : data) {
+            monthly += sub.getAmount() / monthlyDivisor(sub.getBillingCycle());
+        }
+        return Math.round(monthly * 100.0) / 100.0;
+    }
+
+    @Benchmark
+    public double objectsExact() {
+        long annualCents = 0;
+        for (Subscription sub : data) {
+            annualCents += Money.of(sub.getAmount(), Money.STORAGE_SCALE).minorUnits()
+                    * BillingCycle.of(sub.getBillingCycle()).periodsPerYear();
+        }
+        return Money.ofMinor(annualCents, Money.STORAGE_SCALE).dividedBy(BillingCycle.MONTHS_PER_YEAR).toDouble();
+    }
+
+    /**
+     * The factors analytics divided by before the shared table, weekly included.
+     */
+    private static double monthlyDivisor(String cycle) {
+        if (cycle == null) {
+            return 1;
+        }
+        return switch (cycle.toLowerCase()) {
+            case "annual", "yearly" -> 12;
+            case "semi-annual" -> 6;
+            case "quarterly" -> 3;
+            case "weekly" -> 0.25;
+            default -> 1;
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.subsentry.service;
+
+import com.subsentry.benchmarks.SyntheticSubscriptions;
+import com.subsentry.model.Subscription;
+import com.subsentry.model.SubscriptionColumns;
+import com.subsentry.util.UuidV7;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each {@link AnalyticsService} aggregation over already loaded subscriptions in columnar form, the way
+ * the analytics endpoints and the AI report context call them. {@code upcoming} still takes the list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyticsBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int subscriptions;
+
+    @Param({"all", "6months"})
+    public String dateRange;
+
+    private final AnalyticsService analyticsService = new AnalyticsService(null, new SimpleMeterRegistry());
+    private List<Subscription> data;
+    private SubscriptionColumns columns;
+
+    @Setup
+    public void setUp() {
+        data = SyntheticSubscriptions.forUser(UuidV7.generate(), subscriptions);
+        columns = SubscriptionColumns.of(data);
+    }
+
+    @Benchmark
+    public Map<String, Object> overview() {
+        return analyticsService.overview(columns, dateRange);
+    }
+
+    @Benchmark
+    public Map<String, Object> spendingTrend() {
+        return analyticsService.spendingTrend(columns, dateRange);
+    }
+
+    @Benchmark
+    public Map<String, Object> categoryBreakdown() {
+        return analyticsService.categoryBreakdown(columns, dateRange);
+    }
+
+    @Benchmark
+    public Map<String, Object> billingCycleAnalysis() {
+        return analyticsService.billingCycleAnalysis(columns, dateRange);
+    }
+
+    @Benchmark
+    public Map<String, Object> topSubscriptions() {
+        return analyticsService.topSubscriptions(columns, dateRange);
+    }
+
+    @Benchmark
+    public Map<String, Object> projections() {
+        return analyticsService.projections(columns);
+    }
+
+    @Benchmark
+    public Map<String, Object> insights() {
+        return analyticsService.insights(columns);
+    }
+
+    @Benchmark
+    public List<Subscription> upcoming() {
+        return analyticsService.upcoming(data, 30);
+    }
+}
@@ -0,0 +1,80 @@
+package com.subsentry.service;
+
+import com.lowagie.text.DocumentException;
+import com.subsentry.benchmarks.SyntheticSubscriptions;
+import com.subsentry.model.GeneratedReport;
+import com.subsentry.model.Subscription;
+import com.subsentry.util.JsonCodec;
+import com.subsentry.util.UuidV7;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ReportService#buildPdfDocument} for a report whose content lists every subscription, so the
+ * document grows with the subscription count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportPdfBenchmark {
+
+    @Param({"10", "1000"})
+    public int subscriptions;
+
+    private ReportService reportService;
+    private GeneratedReport report;
+
+    @Setup
+    public void setUp() {
+        reportService = new ReportService(null, null, null, null, null, null, Runnable::run, new JsonCodec(), null);
+        AnalyticsService analyticsService = new AnalyticsService(null, new SimpleMeterRegistry());
+        String userId = UuidV7.generate();
+        List<Subscription> data = SyntheticSubscriptions.forUser(userId, subscriptions);
+
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("overview", analyticsService.overview(data, "all"));
+        content.put("categories", analyticsService.categoryBreakdown(data, "all"));
+        content.put("subscriptions", data.stream()
+                .map(sub -> Map.of(
+                        "name", sub.getName(),
+                        "amount", sub.getAmount(),
+                        "category", sub.getCategory(),
+                        "billingCycle", sub.getBillingCycle()))
+                .toList());
+
+        report = new GeneratedReport();
+        report.setId(UuidV7.generate());
+        report.setUserId(userId);
+        report.setName("Benchmark Report");
+        report.setType("summary");
+        report.setFormat("pdf");
+        report.setStatus("completed");
+        report.setContent(content);
+        report.setCreatedAt(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public byte[] buildPdfDocument() throws DocumentException, IOException {
+        return reportService.buildPdfDocument(report);
+    }
+}
@@ -0,0 +1,135 @@
+package com.subsentry.loadtest;
+
+import com.subsentry.model.Subscription;
+import com.subsentry.model.User;
+import com.subsentry.util.UuidCodec;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the synthetic data set straight into MySQL with batched inserts, replacing the users of any
+ * earlier run. Only rows owned by {@code loadtest-*@subsentry.test} users are touched.
+ */
+class DataSeeder {
+
+    static final String PASSWORD = "loadtest-password";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String USER_FILTER = "SELECT id FROM users WHERE email LIKE '"
+            + SyntheticDataGenerator.EMAIL_PREFIX + "%" + SyntheticDataGenerator.EMAIL_DOMAIN + "'";
+
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+
+    DataSeeder(String jdbcUrl, String user, String password) {
+        // Lets Connector/J send each batch as one multi-row INSERT
+        this.jdbcUrl = jdbcUrl + (jdbcUrl.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        this.user = user;
+        this.password = password;
+    }
+
+    List<SeededUser> seed(int users, int subscriptionsPerUser) throws SQLException {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(42);
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        List<SeededUser> seeded = new ArrayList<>(users);
+        try (Connection conn = DriverManager.getConnection(jdbcUrl, user, password)) {
+            conn.setAutoCommit(false);
+            deletePrevious(conn);
+            try (PreparedStatement insertUser = conn.prepareStatement(
+                         "INSERT INTO users (id, name, email, password, email_verified) VALUES (?, ?, ?, ?, ?)");
+                 PreparedStatement insertSubscription = conn.prepareStatement("""
+                         INSERT INTO subscriptions (id, user_id, name, amount, currency, category, billing_cycle,
+                             start_date, next_renewal_date, status, auto_renewal, payment_method, portal_link, notes)
+                         VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                         """)) {
+                int pending = 0;
+                for (int i = 0; i < users; i++) {
+                    User u = generator.user(i, passwordHash);
+                    UuidCodec.bind(insertUser, 1, u.getId());
+                    insertUser.setString(2, u.getName());
+                    insertUser.setString(3, u.getEmail());
+                    insertUser.setString(4, u.getPassword());
+                    insertUser.setBoolean(5, u.isEmailVerified());
+                    insertUser.addBatch();
+                    seeded.add(new SeededUser(u.getId(), u.getEmail()));
+
+                    for (Subscription s : generator.subscriptions(u.getId(), subscriptionsPerUser)) {
+                        bindSubscription(insertSubscription, s);
+                        insertSubscription.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            flush(conn, insertUser, insertSubscription);
+                            pending = 0;
+                        }
+                    }
+                }
+                flush(conn, insertUser, insertSubscription);
+            }
+        }
+        return seeded;
+    }
+
+    /**
+     * Users left behind by an earlier run, for {@code --seed=false}.
+     */
+    List<SeededUser> existing() throws SQLException {
+        List<SeededUser> users = new ArrayList<>();
+        String sql = "SELECT id, email FROM users WHERE id IN (" + USER_FILTER + ") ORDER BY email";
+        try (Connection conn = DriverManager.getConnection(jdbcUrl, user, password);
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                users.add(new SeededUser(UuidCodec.read(rs, "id"), rs.getString("email")));
+            }
+        }
+        return users;
+    }
+
+    private void deletePrevious(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // Partitioned tables have no foreign key to users, so they are cleared explicitly
+            st.executeUpdate("DELETE c FROM generated_report_contents c JOIN generated_reports r "
+                    + "ON r.id = c.report_id AND r.created_at = c.created_at WHERE r.user_id IN (" + USER_FILTER + ")");
+            st.executeUpdate("DELETE FROM generated_reports WHERE user_id IN (" + USER_FILTER + ")");
+            st.executeUpdate("DELETE FROM notifications WHERE user_id IN (" + USER_FILTER + ")");
+            st.executeUpdate("DELETE FROM users WHERE id IN (SELECT id FROM (" + USER_FILTER + ") AS previous)");
+        }
+        conn.commit();
+    }
+
+    private static void bindSubscription(PreparedStatement ps, Subscription s) throws SQLException {
+        UuidCodec.bind(ps, 1, s.getId());
+        UuidCodec.bind(ps, 2, s.getUserId());
+        ps.setString(3, s.getName());
+        ps.setDouble(4, s.getAmount());
+        ps.setString(5, s.getCurrency());
+        ps.setString(6, s.getCategory());
+        ps.setString(7, s.getBillingCycle());
+        ps.setTimestamp(8, Timestamp.valueOf(s.getStartDate()));
+        ps.setTimestamp(9, Timestamp.valueOf(s.getNextRenewalDate()));
+        ps.setString(10, s.getStatus());
+        ps.setBoolean(11, s.isAutoRenewal());
+        ps.setString(12, s.getPaymentMethod());
+        ps.setString(13, s.getPortalLink());
+        ps.setString(14, s.getNotes());
+    }
+
+    private static void flush(Connection conn, PreparedStatement users, PreparedStatement subscriptions)
+            throws SQLException {
+        users.executeBatch();
+        subscriptions.executeBatch();
+        conn.commit();
+    }
+
+    record SeededUser(String id, String email) {
+    }
+}
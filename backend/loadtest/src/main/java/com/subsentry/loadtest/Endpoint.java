@@ -0,0 +1,54 @@
+package com.subsentry.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One API call the driver can make. {@code group} is what {@code --mix} weights; the group's weight is
+ * split evenly over its endpoints.
+ */
+record Endpoint(String name, String group, String method, String path, String body) {
+
+    static final List<Endpoint> ALL = List.of(
+            get("subscriptions.list", "subscriptions", "/api/subscriptions"),
+            get("subscriptions.upcoming", "subscriptions", "/api/subscriptions/upcoming?days=30"),
+            get("analytics.overview", "analytics", "/api/analytics/overview?dateRange=6months"),
+            get("analytics.spending-trend", "analytics", "/api/analytics/spending-trend?dateRange=1year"),
+            get("analytics.category-breakdown", "analytics", "/api/analytics/category-breakdown"),
+            get("analytics.billing-cycle", "analytics", "/api/analytics/billing-cycle"),
+            get("analytics.top-subscriptions", "analytics", "/api/analytics/top-subscriptions"),
+            get("analytics.projections", "analytics", "/api/analytics/projections"),
+            get("analytics.insights", "analytics", "/api/analytics/insights"),
+            new Endpoint("reports.generate", "reports", "POST", "/api/reports/generate",
+                    "{\"type\":\"summary\",\"name\":\"Load test report\",\"format\":\"json\"}")
+    );
+
+    /**
+     * Endpoints of the weighted groups, each repeated in proportion to its share of the mix.
+     */
+    static List<WeightedEndpoint> weighted(Map<String, Integer> mix) {
+        List<WeightedEndpoint> weighted = new ArrayList<>();
+        for (Map.Entry<String, Integer> group : mix.entrySet()) {
+            List<Endpoint> members = ALL.stream().filter(e -> e.group().equals(group.getKey())).toList();
+            if (members.isEmpty()) {
+                throw new IllegalArgumentException("Unknown endpoint group in --mix: " + group.getKey());
+            }
+            for (Endpoint endpoint : members) {
+                weighted.add(new WeightedEndpoint(endpoint, (double) group.getValue() / members.size()));
+            }
+        }
+        return weighted;
+    }
+
+    String uri(String baseUrl, String userId) {
+        return baseUrl + path + (path.contains("?") ? "&" : "?") + "userId=" + userId;
+    }
+
+    private static Endpoint get(String name, String group, String path) {
+        return new Endpoint(name, group, "GET", path, null);
+    }
+
+    record WeightedEndpoint(Endpoint endpoint, double weight) {
+    }
+}
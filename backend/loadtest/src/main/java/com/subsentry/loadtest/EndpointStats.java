@@ -0,0 +1,84 @@
+package com.subsentry.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and outcomes of one endpoint. In the open workload latency runs from when the request was
+ * due to be sent, not when it was actually sent, so a stalled server shows up in the percentiles
+ * instead of lowering the request rate. In the closed workload it runs from the send.
+ */
+class EndpointStats {
+
+    private final String name;
+    private long[] latencies = new long[1024];
+    private int count;
+    private long ok;
+    private long throttled;
+    private long clientErrors;
+    private long serverErrors;
+    private long failures;
+    private long dropped;
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    synchronized void recordResponse(int status, long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (status >= 200 && status < 300) {
+            ok++;
+        } else if (status == 429) {
+            throttled++;
+        } else if (status < 500) {
+            clientErrors++;
+        } else {
+            serverErrors++;
+        }
+    }
+
+    synchronized void recordFailure(long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        failures++;
+    }
+
+    synchronized void recordDropped() {
+        dropped++;
+    }
+
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        long requests = count + dropped;
+        long errors = requests - ok;
+        return new Summary(name, requests, ok, throttled, clientErrors, serverErrors, failures, dropped,
+                requests == 0 ? 0 : (double) errors / requests,
+                count / seconds,
+                millis(percentile(sorted, 0.50)),
+                millis(percentile(sorted, 0.90)),
+                millis(percentile(sorted, 0.99)),
+                millis(count == 0 ? 0 : sorted[count - 1]));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    record Summary(String endpoint, long requests, long ok, long throttled, long clientErrors,
+                   long serverErrors, long failures, long dropped, double errorRate, double throughput,
+                   double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+    }
+}
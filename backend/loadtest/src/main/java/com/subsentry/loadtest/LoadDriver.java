@@ -0,0 +1,173 @@
+package com.subsentry.loadtest;
+
+import com.subsentry.loadtest.DataSeeder.SeededUser;
+import com.subsentry.loadtest.Endpoint.WeightedEndpoint;
+import com.subsentry.util.JwtUtil;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests on a fixed schedule (an open workload): request {@code n} is due at
+ * {@code start + n / rps} whatever happened to earlier ones, each going to a weighted random endpoint
+ * on behalf of a random seeded user. Responses are awaited asynchronously, so a slow server piles up
+ * in-flight requests rather than slowing the sender down.
+ *
+ * {@link #runClosed} instead keeps a fixed number of users busy (a closed workload), which measures how
+ * much concurrency the server sustains rather than how it copes with a given arrival rate.
+ */
+class LoadDriver {
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final List<WeightedEndpoint> endpoints;
+    private final double totalWeight;
+    private final List<SeededUser> users;
+    private final Map<String, String> tokens = new LinkedHashMap<>();
+    private final Duration timeout;
+    private final int maxInFlight;
+
+    LoadDriver(LoadTestOptions options, List<SeededUser> users) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = options.baseUrl().replaceAll("/+$", "");
+        this.endpoints = Endpoint.weighted(options.mix());
+        this.totalWeight = endpoints.stream().mapToDouble(WeightedEndpoint::weight).sum();
+        this.users = users;
+        this.timeout = options.timeout();
+        this.maxInFlight = options.maxInFlight();
+
+        JwtUtil jwtUtil = new JwtUtil();
+        for (SeededUser user : users) {
+            tokens.put(user.id(), jwtUtil.generateToken(user.email()));
+        }
+    }
+
+    /**
+     * Runs for {@code duration} at {@code rps} and returns per-endpoint statistics, in endpoint order.
+     */
+    Map<String, EndpointStats> run(double rps, Duration duration) throws InterruptedException {
+        Map<String, EndpointStats> stats = newStats();
+        SplittableRandom random = new SplittableRandom(7);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = (long) (1_000_000_000L / rps);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long n = 0; ; n++) {
+            long due = start + n * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = pick(random.nextDouble() * totalWeight);
+            SeededUser user = users.get(random.nextInt(users.size()));
+            EndpointStats endpointStats = stats.get(endpoint.name());
+            if (!inFlight.tryAcquire()) {
+                endpointStats.recordDropped();
+                continue;
+            }
+            client.sendAsync(request(endpoint, user), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - due;
+                        if (error != null) {
+                            endpointStats.recordFailure(latency);
+                        } else {
+                            endpointStats.recordResponse(response.statusCode(), latency);
+                        }
+                        inFlight.release();
+                    });
+        }
+
+        // Let outstanding requests finish or time out before the statistics are read
+        if (inFlight.tryAcquire(maxInFlight, timeout.toMillis() + 1000, TimeUnit.MILLISECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+        return stats;
+    }
+
+    /**
+     * Runs {@code concurrency} users for {@code duration}, each on its own virtual thread sending its next
+     * request as soon as the previous one completes. Throughput levels off once the server is at
+     * capacity; beyond that only latency grows.
+     */
+    Map<String, EndpointStats> runClosed(int concurrency, Duration duration) {
+        Map<String, EndpointStats> stats = newStats();
+        long end = System.nanoTime() + duration.toNanos();
+        try (ExecutorService userThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < concurrency; u++) {
+                SplittableRandom random = new SplittableRandom(7 + u);
+                userThreads.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        Endpoint endpoint = pick(random.nextDouble() * totalWeight);
+                        SeededUser user = users.get(random.nextInt(users.size()));
+                        EndpointStats endpointStats = stats.get(endpoint.name());
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request(endpoint, user),
+                                    HttpResponse.BodyHandlers.discarding());
+                            endpointStats.recordResponse(response.statusCode(), System.nanoTime() - sent);
+                        } catch (IOException e) {
+                            endpointStats.recordFailure(System.nanoTime() - sent);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                });
+            }
+        }
+        return stats;
+    }
+
+    private Map<String, EndpointStats> newStats() {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        for (WeightedEndpoint weighted : endpoints) {
+            stats.put(weighted.endpoint().name(), new EndpointStats(weighted.endpoint().name()));
+        }
+        return stats;
+    }
+
+    private Endpoint pick(double point) {
+        double cumulative = 0;
+        for (WeightedEndpoint weighted : endpoints) {
+            cumulative += weighted.weight();
+            if (point < cumulative) {
+                return weighted.endpoint();
+            }
+        }
+        return endpoints.get(endpoints.size() - 1).endpoint();
+    }
+
+    private HttpRequest request(Endpoint endpoint, SeededUser user) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(endpoint.uri(baseUrl, user.id())))
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + tokens.get(user.id()))
+                .header("Accept", "application/json");
+        if (endpoint.body() != null) {
+            builder.header("Content-Type", "application/json")
+                    .method(endpoint.method(), HttpRequest.BodyPublishers.ofString(endpoint.body()));
+        } else {
+            builder.method(endpoint.method(), HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+}
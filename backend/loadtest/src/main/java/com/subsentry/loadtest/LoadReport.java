@@ -0,0 +1,49 @@
+package com.subsentry.loadtest;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Prints endpoint summaries as a fixed-width table with a total row.
+ */
+final class LoadReport {
+
+    private static final String ROW = "%-30s %9s %8s %8s %9s %9s %9s %9s %9s%n";
+
+    private LoadReport() {
+    }
+
+    static void print(List<EndpointStats.Summary> summaries, PrintStream out) {
+        out.println();
+        out.printf(ROW, "endpoint", "requests", "errors", "error%", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        long requests = 0;
+        long errors = 0;
+        double throughput = 0;
+        for (EndpointStats.Summary s : summaries) {
+            long endpointErrors = s.requests() - s.ok();
+            out.printf(ROW, s.endpoint(), s.requests(), endpointErrors, percent(s.errorRate()),
+                    decimal(s.throughput()), decimal(s.p50Ms()), decimal(s.p90Ms()), decimal(s.p99Ms()),
+                    decimal(s.maxMs()));
+            requests += s.requests();
+            errors += endpointErrors;
+            throughput += s.throughput();
+        }
+        out.printf(ROW, "total", requests, errors, percent(requests == 0 ? 0 : (double) errors / requests),
+                decimal(throughput), "", "", "", "");
+
+        for (EndpointStats.Summary s : summaries) {
+            if (s.requests() != s.ok()) {
+                out.printf("  %s: %d throttled (429), %d other 4xx, %d 5xx, %d failed, %d dropped%n",
+                        s.endpoint(), s.throttled(), s.clientErrors(), s.serverErrors(), s.failures(), s.dropped());
+            }
+        }
+    }
+
+    private static String percent(double rate) {
+        return String.format("%.2f", rate * 100);
+    }
+
+    private static String decimal(double value) {
+        return String.format("%.1f", value);
+    }
+}
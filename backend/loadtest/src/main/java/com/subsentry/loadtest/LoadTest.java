@@ -0,0 +1,131 @@
+package com.subsentry.loadtest;
+
+import com.subsentry.loadtest.DataSeeder.SeededUser;
+import com.subsentry.util.JsonCodec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entry point: seeds (or reuses) the synthetic users, warms the API up, then drives it at the target
+ * rate and prints p50/p90/p99 latency, throughput and error rate per endpoint. With
+ * {@code --concurrency} it instead runs one closed-workload step per level, to find the server's capacity.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1 && ("--help".equals(args[0]) || "-h".equals(args[0]))) {
+            System.out.print(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        DataSeeder seeder = new DataSeeder(options.jdbcUrl(), options.dbUser(), options.dbPassword());
+        List<SeededUser> users;
+        if (options.seed()) {
+            long started = System.nanoTime();
+            users = seeder.seed(options.users(), options.subscriptionsPerUser());
+            System.out.printf("Seeded %d users with %d subscriptions each in %.1f s%n", users.size(),
+                    options.subscriptionsPerUser(), (System.nanoTime() - started) / 1e9);
+        } else {
+            users = seeder.existing();
+            System.out.printf("Reusing %d seeded users%n", users.size());
+        }
+        if (users.isEmpty()) {
+            throw new IllegalStateException("No load-test users found; run with --seed=true first");
+        }
+
+        LoadDriver driver = new LoadDriver(options, users);
+        if (options.closedWorkload()) {
+            runCapacitySteps(driver, options, users.size());
+            return;
+        }
+        if (!options.warmup().isZero()) {
+            System.out.printf("Warming up for %d s at %.0f rps%n", options.warmup().toSeconds(), options.rps());
+            driver.run(options.rps(), options.warmup());
+        }
+        System.out.printf("Running for %d s at %.0f rps against %s%n",
+                options.duration().toSeconds(), options.rps(), options.baseUrl());
+        Map<String, EndpointStats> stats = driver.run(options.rps(), options.duration());
+
+        double seconds = options.duration().toNanos() / 1e9;
+        List<EndpointStats.Summary> summaries = stats.values().stream()
+                .map(s -> s.summarize(seconds))
+                .filter(s -> s.requests() > 0)
+                .toList();
+        LoadReport.print(summaries, System.out);
+
+        if (options.report() != null) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("options", Map.of(
+                    "baseUrl", options.baseUrl(),
+                    "users", users.size(),
+                    "subscriptionsPerUser", options.subscriptionsPerUser(),
+                    "rps", options.rps(),
+                    "durationSeconds", options.duration().toSeconds(),
+                    "mix", options.mix()));
+            report.put("endpoints", summaries);
+            Files.write(Path.of(options.report()), new JsonCodec().writePrettyBytes(report));
+            System.out.println("Results written to " + options.report());
+        }
+    }
+
+    private static void runCapacitySteps(LoadDriver driver, LoadTestOptions options, int userCount) throws Exception {
+        double seconds = options.duration().toNanos() / 1e9;
+        List<Map<String, Object>> steps = new ArrayList<>();
+        for (int level : options.concurrency()) {
+            if (!options.warmup().isZero()) {
+                System.out.printf("Warming up for %d s with %d concurrent users%n", options.warmup().toSeconds(), level);
+                driver.runClosed(level, options.warmup());
+            }
+            System.out.printf("Running for %d s with %d concurrent users against %s%n",
+                    options.duration().toSeconds(), level, options.baseUrl());
+            List<EndpointStats.Summary> summaries = driver.runClosed(level, options.duration()).values().stream()
+                    .map(s -> s.summarize(seconds))
+                    .filter(s -> s.requests() > 0)
+                    .toList();
+            LoadReport.print(summaries, System.out);
+
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("concurrency", level);
+            step.put("throughput", summaries.stream().mapToDouble(EndpointStats.Summary::throughput).sum());
+            step.put("endpoints", summaries);
+            steps.add(step);
+        }
+
+        System.out.println();
+        System.out.printf("%12s %10s%n", "concurrency", "req/s");
+        for (Map<String, Object> step : steps) {
+            System.out.printf("%12d %10.1f%n", (Integer) step.get("concurrency"), (Double) step.get("throughput"));
+        }
+
+        if (options.report() != null) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("options", Map.of(
+                    "baseUrl", options.baseUrl(),
+                    "users", userCount,
+                    "subscriptionsPerUser", options.subscriptionsPerUser(),
+                    "concurrency", options.concurrency(),
+                    "durationSeconds", options.duration().toSeconds(),
+                    "mix", options.mix()));
+            report.put("steps", steps);
+            Files.write(Path.of(options.report()), new JsonCodec().writePrettyBytes(report));
+            System.out.println("Results written to " + options.report());
+        }
+    }
+}
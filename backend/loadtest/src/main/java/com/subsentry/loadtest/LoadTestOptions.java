@@ -0,0 +1,131 @@
+package com.subsentry.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options, given as {@code --name=value}. Every option has a default that works against a
+ * local backend and the database from application.properties.
+ */
+record LoadTestOptions(
+        String baseUrl,
+        String jdbcUrl,
+        String dbUser,
+        String dbPassword,
+        boolean seed,
+        int users,
+        int subscriptionsPerUser,
+        double rps,
+        List<Integer> concurrency,
+        Duration duration,
+        Duration warmup,
+        Duration timeout,
+        int maxInFlight,
+        Map<String, Integer> mix,
+        String report) {
+
+    static final String USAGE = """
+            Usage: java -jar loadtest.jar [--name=value ...]
+
+              --base-url=http://localhost:8080                  API under test
+              --jdbc-url=jdbc:mysql://127.0.0.1:3306/subsentry  database to seed
+              --db-user=root --db-password=password
+              --seed=true                                       false reuses users from an earlier run
+              --users=100 --subscriptions-per-user=25           size of the synthetic data set
+              --rps=50                                          target request rate across all endpoints
+              --concurrency=100,400,1000                        closed workload instead of --rps: that many users
+                                                                send back to back, one measured run per level
+              --duration=60s --warmup=10s                       measured run, preceded by an unmeasured warmup
+              --timeout=10s                                     per request
+              --max-in-flight=1000                              requests beyond this are counted as dropped
+              --mix=subscriptions:40,analytics:55,reports:5     relative weight of each endpoint group
+              --report=results.json                             also write the results as JSON
+            """;
+
+    private static final Set<String> KNOWN = Set.of(
+            "base-url", "jdbc-url", "db-user", "db-password", "seed", "users", "subscriptions-per-user",
+            "rps", "concurrency", "duration", "warmup", "timeout", "max-in-flight", "mix", "report");
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Unrecognised argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                values.getOrDefault("base-url", "http://localhost:8080"),
+                values.getOrDefault("jdbc-url", "jdbc:mysql://127.0.0.1:3306/subsentry"),
+                values.getOrDefault("db-user", "root"),
+                values.getOrDefault("db-password", "password"),
+                Boolean.parseBoolean(values.getOrDefault("seed", "true")),
+                Integer.parseInt(values.getOrDefault("users", "100")),
+                Integer.parseInt(values.getOrDefault("subscriptions-per-user", "25")),
+                Double.parseDouble(values.getOrDefault("rps", "50")),
+                parseLevels(values.getOrDefault("concurrency", "")),
+                parseDuration(values.getOrDefault("duration", "60s")),
+                parseDuration(values.getOrDefault("warmup", "10s")),
+                parseDuration(values.getOrDefault("timeout", "10s")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+                parseMix(values.getOrDefault("mix", "subscriptions:40,analytics:55,reports:5")),
+                values.get("report"));
+        values.keySet().removeAll(KNOWN);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option(s): " + values.keySet());
+        }
+        if (options.users() <= 0 || options.rps() <= 0) {
+            throw new IllegalArgumentException("--users and --rps must be positive");
+        }
+        if (options.concurrency().stream().anyMatch(level -> level <= 0)) {
+            throw new IllegalArgumentException("--concurrency levels must be positive");
+        }
+        return options;
+    }
+
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+
+    boolean closedWorkload() {
+        return !concurrency.isEmpty();
+    }
+
+    private static List<Integer> parseLevels(String value) {
+        List<Integer> levels = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                levels.add(Integer.parseInt(part.trim()));
+            }
+        }
+        return levels;
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] pair = part.split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("--mix entries look like group:weight, got " + part);
+            }
+            mix.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+}
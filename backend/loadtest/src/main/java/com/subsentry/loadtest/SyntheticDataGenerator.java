@@ -0,0 +1,64 @@
+package com.subsentry.loadtest;
+
+import com.subsentry.model.Subscription;
+import com.subsentry.model.User;
+import com.subsentry.util.UuidV7;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates load-test users and their subscriptions. A fixed seed makes every run produce the same
+ * spread of categories, billing cycles, amounts and renewal dates.
+ */
+class SyntheticDataGenerator {
+
+    static final String EMAIL_PREFIX = "loadtest-";
+    static final String EMAIL_DOMAIN = "@subsentry.test";
+
+    private static final String[] CATEGORIES = {
+            "Streaming", "Music", "Software", "Cloud Storage", "News", "Fitness", "Gaming", "Education"
+    };
+    private static final String[] BILLING_CYCLES = {
+            "monthly", "monthly", "monthly", "annual", "quarterly", "semi-annual", "weekly"
+    };
+
+    private final SplittableRandom random;
+
+    SyntheticDataGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    User user(int index, String passwordHash) {
+        User user = new User("Load Test User " + index, EMAIL_PREFIX + index + EMAIL_DOMAIN, passwordHash);
+        user.setId(UuidV7.generate());
+        user.setEmailVerified(true);
+        return user;
+    }
+
+    List<Subscription> subscriptions(String userId, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Subscription> subscriptions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Subscription subscription = new Subscription();
+            subscription.setId(UuidV7.generate());
+            subscription.setUserId(userId);
+            subscription.setName("Service " + i);
+            subscription.setAmount(random.nextInt(99, 25_000) / 100.0);
+            subscription.setCurrency("USD");
+            subscription.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            subscription.setBillingCycle(BILLING_CYCLES[random.nextInt(BILLING_CYCLES.length)]);
+            subscription.setStartDate(now.minusDays(random.nextInt(1, 730)));
+            subscription.setNextRenewalDate(now.plusDays(random.nextInt(-5, 365)));
+            subscription.setStatus(random.nextInt(10) == 0 ? "cancelled" : "active");
+            subscription.setAutoRenewal(random.nextBoolean());
+            subscription.setPaymentMethod("Visa **** " + random.nextInt(1000, 10_000));
+            subscription.setPortalLink("https://example.com/account/" + i);
+            subscription.setNotes(random.nextInt(4) == 0 ? "Shared with family" : null);
+            subscriptions.add(subscription);
+        }
+        return subscriptions;
+    }
+}
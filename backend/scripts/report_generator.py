@@ -11,7 +11,9 @@ import datetime
 import json
 import logging
 import os
+import uuid
 from collections import defaultdict
+from decimal import Decimal, ROUND_HALF_UP
 from pathlib import Path
 from typing import Any, Dict, List, Optional
 
@@ -37,10 +39,37 @@ from reportlab.platypus import (  # noqa: E402
 )
 from reportlab.pdfgen import canvas  # noqa: E402
 
+
+def _trace_id_from_env() -> Optional[str]:
+    """Trace id of the calling request, from the W3C TRACEPARENT set by the backend."""
+    parts = os.environ.get("TRACEPARENT", "").split("-")
+    return parts[1] if len(parts) == 4 else None
+
+
+TRACE_ID = _trace_id_from_env()
 LOGGER = logging.getLogger("python-report-generator")
-logging.basicConfig(level=logging.INFO, format="%(message)s")
+logging.basicConfig(level=logging.INFO, format=f"[{TRACE_ID}] %(message)s" if TRACE_ID else "%(message)s")
 
 DB_CONFIG: Dict[str, Any] = {}
+
+# Keys are BINARY(16); report tables carry them as UUID strings
+SUBSCRIPTION_COLUMNS = """
+    BIN_TO_UUID(id) AS id, BIN_TO_UUID(user_id) AS user_id, name, amount, currency, category,
+    billing_cycle, start_date, next_renewal_date, status
+"""
+
+
+def _periods_per_year_from_env() -> Dict[str, int]:
+    """Billing cycle table of com.subsentry.model.BillingCycle, passed by the backend in SUBSENTRY_BILLING_CYCLES."""
+    table = {"weekly": 52, "monthly": 12, "quarterly": 4, "semi-annual": 2, "annual": 1, "yearly": 1}
+    for entry in filter(None, os.environ.get("SUBSENTRY_BILLING_CYCLES", "").split(",")):
+        cycle, _, periods = entry.partition("=")
+        table[cycle.strip().lower()] = int(periods)
+    return table
+
+
+PERIODS_PER_YEAR = _periods_per_year_from_env()
+MONTHS_PER_YEAR = 12
 OUTPUT_DIR: Path = Path("./python-reports")
 
 
@@ -57,23 +86,25 @@ def get_db_connection():
 def _json_default(value: Any):
     if isinstance(value, (datetime.datetime, datetime.date)):
         return value.isoformat()
+    if isinstance(value, (bytes, bytearray)) and len(value) == 16:
+        # BINARY(16) keys that were not converted with BIN_TO_UUID in the query
+        return str(uuid.UUID(bytes=bytes(value)))
     return str(value)
 
 
-def _normalize_monthly_cost(row: pd.Series) -> float:
-    cycle = row.get("billing_cycle", "monthly")
-    amount = float(row.get("amount", 0))
-    if cycle == "monthly":
-        return amount
-    if cycle in {"annual", "yearly"}:
-        return amount / 12
-    if cycle == "quarterly":
-        return amount / 3
-    if cycle == "semi-annual":
-        return amount / 6
-    if cycle == "weekly":
-        return amount * (52 / 12)
-    return amount
+def _annual_cents(row: pd.Series) -> int:
+    """Exact yearly cost of a subscription row in cents; unknown cycles bill monthly, as in the backend."""
+    cycle = str(row.get("billing_cycle") or "monthly").lower()
+    cents = int((Decimal(str(row.get("amount", 0))) * 100).to_integral_value(ROUND_HALF_UP))
+    return cents * PERIODS_PER_YEAR.get(cycle, PERIODS_PER_YEAR["monthly"])
+
+
+def _monthly_amount(annual_cents: int) -> float:
+    """A twelfth of an exact yearly total, rounded once to the cent half away from zero like Money.dividedBy."""
+    cents, remainder = divmod(abs(int(annual_cents)), MONTHS_PER_YEAR)
+    if remainder * 2 >= MONTHS_PER_YEAR:
+        cents += 1
+    return float(Decimal(-cents if annual_cents < 0 else cents) / 100)
 
 
 def _graph_path(user_id: str, slug: str) -> Path:
@@ -91,9 +122,9 @@ def _serialize_table(table: Any) -> Any:
 
 def _generate_monthly_summary(user_id: str, conn) -> Dict[str, Any]:
     LOGGER.info("Generating Monthly Summary for user %s", user_id)
-    query = """
-        SELECT * FROM subscriptions
-        WHERE user_id = %s AND status = 'active'
+    query = f"""
+        SELECT {SUBSCRIPTION_COLUMNS} FROM subscriptions
+        WHERE user_id = UUID_TO_BIN(%s) AND status = 'active'
     """
     df = pd.read_sql(query, conn, params=(user_id,))
     if df.empty:
@@ -103,10 +134,11 @@ def _generate_monthly_summary(user_id: str, conn) -> Dict[str, Any]:
     start_of_month = today.replace(day=1)
     end_of_month = (start_of_month + relativedelta(months=1)) - relativedelta(days=1)
 
-    df["monthly_cost"] = df.apply(_normalize_monthly_cost, axis=1)
+    df["annual_cents"] = df.apply(_annual_cents, axis=1)
+    df["monthly_cost"] = df["annual_cents"] / (MONTHS_PER_YEAR * 100)
     df["next_renewal_date"] = pd.to_datetime(df["next_renewal_date"]).dt.date
 
-    total_mrr = float(df["monthly_cost"].sum())
+    total_mrr = _monthly_amount(df["annual_cents"].sum())
     active_subs = len(df)
 
     renewals_df = df[
@@ -148,24 +180,25 @@ def _generate_monthly_summary(user_id: str, conn) -> Dict[str, Any]:
 
 def _generate_category_breakdown(user_id: str, conn) -> Dict[str, Any]:
     LOGGER.info("Generating Category Breakdown for user %s", user_id)
-    query = """
-        SELECT * FROM subscriptions
-        WHERE user_id = %s AND status = 'active'
+    query = f"""
+        SELECT {SUBSCRIPTION_COLUMNS} FROM subscriptions
+        WHERE user_id = UUID_TO_BIN(%s) AND status = 'active'
     """
     df = pd.read_sql(query, conn, params=(user_id,))
     if df.empty:
         return {"kpis": {}, "graphs": [], "tables": {}}
 
-    df["monthly_cost"] = df.apply(_normalize_monthly_cost, axis=1)
+    df["annual_cents"] = df.apply(_annual_cents, axis=1)
     grouped_df = (
         df.groupby("category")
         .agg(
-            total_monthly_spend=("monthly_cost", "sum"),
+            annual_cents=("annual_cents", "sum"),
             subscription_count=("id", "count"),
         )
         .reset_index()
-        .sort_values(by="total_monthly_spend", ascending=False)
     )
+    grouped_df["total_monthly_spend"] = grouped_df["annual_cents"].map(_monthly_amount)
+    grouped_df = grouped_df.drop(columns="annual_cents").sort_values(by="total_monthly_spend", ascending=False)
 
     top_category = grouped_df.iloc[0] if not grouped_df.empty else None
     kpis = {
@@ -207,7 +240,7 @@ def _generate_annual_projection(user_id: str, conn) -> Dict[str, Any]:
     query = """
         SELECT name, amount, billing_cycle, next_renewal_date
         FROM subscriptions
-        WHERE user_id = %s AND status = 'active'
+        WHERE user_id = UUID_TO_BIN(%s) AND status = 'active'
     """
     df = pd.read_sql(query, conn, params=(user_id,))
     if df.empty:
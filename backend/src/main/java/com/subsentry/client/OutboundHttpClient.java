@@ -0,0 +1,263 @@
+package com.subsentry.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Outbound HTTP client for third-party APIs.
+ *
+ * One JDK {@link HttpClient} is shared per upstream so connections (HTTP/2 where offered) are reused.
+ * Every call is bounded by a connect timeout and an overall response deadline, limited by a bulkhead
+ * of concurrent calls, and guarded by a {@link CircuitBreaker} that trips on timeouts, I/O errors and
+ * 5xx responses. Latencies are recorded as a histogram per upstream and outcome, and each call is a
+ * span in the caller's trace. Trace headers are not sent upstream.
+ *
+ * Streaming calls hand each response line to the caller as it arrives and are bounded by a separate,
+ * longer stream deadline; the bulkhead permit is held until the stream ends.
+ */
+public class OutboundHttpClient {
+
+    private final String name;
+    private final HttpClient httpClient;
+    private final Duration responseTimeout;
+    private final Duration streamTimeout;
+    private final Semaphore bulkhead;
+    private final long bulkheadWaitMs;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    private final Counter bulkheadRejections;
+    private final Counter circuitRejections;
+
+    public OutboundHttpClient(String name,
+                              long connectTimeoutMs,
+                              long responseTimeoutMs,
+                              long streamTimeoutMs,
+                              int maxConcurrentCalls,
+                              long bulkheadWaitMs,
+                              CircuitBreaker circuitBreaker,
+                              MeterRegistry meterRegistry,
+                              Tracer tracer,
+                              boolean virtualThreads) {
+        this.name = name;
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (virtualThreads) {
+            // Response handling and streamed body delivery then run on virtual threads too
+            builder.executor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-http-", 1).factory()));
+        }
+        this.httpClient = builder.build();
+        this.responseTimeout = Duration.ofMillis(responseTimeoutMs);
+        this.streamTimeout = Duration.ofMillis(streamTimeoutMs);
+        this.bulkhead = new Semaphore(maxConcurrentCalls, true);
+        this.bulkheadWaitMs = bulkheadWaitMs;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+        this.bulkheadRejections = rejectionCounter("bulkhead_full");
+        this.circuitRejections = rejectionCounter("circuit_open");
+        meterRegistry.gauge("subsentry.http.client.circuit.open", Tags.of("client", name),
+                circuitBreaker, breaker -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1);
+        meterRegistry.gauge("subsentry.http.client.in_flight", Tags.of("client", name),
+                bulkhead, permits -> maxConcurrentCalls - permits.availablePermits());
+    }
+
+    /**
+     * Sends a JSON POST and returns the response whatever its status code.
+     *
+     * @throws IllegalStateException when the call is refused by the bulkhead or the open circuit,
+     *                               times out, or fails at the transport level
+     */
+    public HttpResponse<String> postJson(URI uri, String body) {
+        return send(jsonPost(uri, body), HttpResponse.BodyHandlers.ofString(), responseTimeout);
+    }
+
+    /**
+     * Sends a JSON POST and passes each line of a successful response to {@code onLine} as soon as it
+     * arrives. For 4xx/5xx responses nothing is streamed and the error body is returned instead; for
+     * successful ones the returned body is empty.
+     */
+    public HttpResponse<String> postJsonStreaming(URI uri, String body, Consumer<String> onLine) {
+        LineForwarder forwarder = new LineForwarder(onLine);
+        HttpResponse.BodyHandler<String> handler = info -> info.statusCode() >= 400
+                ? HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8)
+                : HttpResponse.BodySubscribers.fromLineSubscriber(forwarder, subscriber -> "", StandardCharsets.UTF_8, null);
+        HttpResponse<String> response = send(jsonPost(uri, body), handler, streamTimeout);
+        if (forwarder.failure != null) {
+            throw forwarder.failure;
+        }
+        return response;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private HttpRequest jsonPost(URI uri, String body) {
+        // The request timeout bounds the wait for response headers
+        return HttpRequest.newBuilder(uri)
+                .timeout(responseTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request, HttpResponse.BodyHandler<String> handler, Duration deadline) {
+        acquireBulkhead();
+        try {
+            if (!circuitBreaker.tryAcquire(System.nanoTime())) {
+                circuitRejections.increment();
+                throw new IllegalStateException(name + " is unavailable (circuit open)");
+            }
+            return execute(request, handler, deadline);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private HttpResponse<String> execute(HttpRequest request, HttpResponse.BodyHandler<String> handler, Duration deadline) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        Span span = tracer.nextSpan().name(name + " " + request.method())
+                .tag("http.host", request.uri().getHost())
+                .start();
+        CompletableFuture<HttpResponse<String>> call = httpClient.sendAsync(request, handler);
+        try {
+            // Bounds the whole exchange including the body, which the request timeout does not cover
+            HttpResponse<String> response = call.get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+            span.tag("http.status_code", String.valueOf(response.statusCode()));
+            outcome = outcomeOf(response.statusCode());
+            if (response.statusCode() >= 500) {
+                circuitBreaker.onFailure(System.nanoTime());
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            return response;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            outcome = "timeout";
+            circuitBreaker.onFailure(System.nanoTime());
+            throw new IllegalStateException(name + " did not respond within " + deadline.toMillis() + " ms", e);
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            circuitBreaker.onFailure(System.nanoTime());
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling " + name, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof HttpTimeoutException) {
+                outcome = "timeout";
+            }
+            circuitBreaker.onFailure(System.nanoTime());
+            throw new IllegalStateException(name + " request failed: " + describe(e.getCause()), e.getCause());
+        } finally {
+            span.tag("outcome", outcome);
+            span.end();
+            Timer.builder("subsentry.http.client.requests")
+                    .description("Outbound HTTP call latency")
+                    .tag("client", name)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void acquireBulkhead() {
+        try {
+            if (!bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS)) {
+                bulkheadRejections.increment();
+                throw new IllegalStateException(name + " is busy; too many concurrent requests");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to call " + name, e);
+        }
+    }
+
+    private String outcomeOf(int status) {
+        if (status >= 500) {
+            return "server_error";
+        }
+        if (status >= 400) {
+            return "client_error";
+        }
+        return "success";
+    }
+
+    private String describe(Throwable cause) {
+        if (cause instanceof IOException && cause.getMessage() == null) {
+            return cause.getClass().getSimpleName();
+        }
+        return String.valueOf(cause);
+    }
+
+    private Counter rejectionCounter(String reason) {
+        return Counter.builder("subsentry.http.client.rejections")
+                .description("Outbound HTTP calls refused before reaching the network")
+                .tag("client", name)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hands response lines to the caller. If the handler throws, the remaining lines are drained without
+     * being forwarded and the failure is rethrown once the exchange has finished.
+     */
+    private static class LineForwarder implements Flow.Subscriber<String> {
+
+        private final Consumer<String> onLine;
+        private volatile RuntimeException failure;
+
+        LineForwarder(Consumer<String> onLine) {
+            this.onLine = onLine;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                onLine.accept(line);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
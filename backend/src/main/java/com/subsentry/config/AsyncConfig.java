@@ -0,0 +1,122 @@
+package com.subsentry.config;
+
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Every executor carries the submitting thread's trace context into its tasks, so work handed off from
+ * a request stays in that request's trace.
+ *
+ * With {@code spring.threads.virtual.enabled} the executors whose tasks block on I/O run them on
+ * virtual threads. Pool sizes and queue capacities still apply, since they bound work on the Python
+ * renderer and on Gemini rather than thread usage.
+ */
+@Configuration
+public class AsyncConfig {
+
+    private final boolean virtualThreads;
+
+    public AsyncConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Workers that render queued reports. The queue is bounded so a burst of submissions is
+     * rejected up front instead of piling up unbounded work behind the Python renderer.
+     */
+    @Bean(name = "reportJobExecutor")
+    public ThreadPoolTaskExecutor reportJobExecutor(
+            @Value("${reports.jobs.pool-size:4}") int poolSize,
+            @Value("${reports.jobs.queue-capacity:100}") int queueCapacity,
+            Tracer tracer) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("report-job-");
+        useVirtualThreads(executor, "report-job-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setTaskDecorator(tracer.currentTraceContext()::wrap);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Drains per-connection notification stream buffers so slow clients never block publishers. A send
+     * to a stalled client blocks its drain, so on virtual threads every drain gets its own thread and
+     * one stalled client cannot hold up the others. On platform threads the pool is shared, and a
+     * stalled send is bounded by Tomcat's write timeout and {@code notification.stream.send-timeout-ms}.
+     */
+    @Bean(name = "notificationStreamExecutor")
+    public TaskExecutor notificationStreamExecutor(
+            @Value("${notification.stream.pool-size:4}") int poolSize,
+            Tracer tracer) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("notification-stream-");
+            executor.setVirtualThreads(true);
+            executor.setTaskDecorator(tracer.currentTraceContext()::wrap);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("notification-stream-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(10_000);
+        executor.setTaskDecorator(tracer.currentTraceContext()::wrap);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Runs streamed AI report generations. Each task holds a Gemini stream open for its whole duration,
+     * so the pool matches the Gemini bulkhead and excess requests are refused rather than queued for long.
+     */
+    @Bean(name = "aiReportStreamExecutor")
+    public ThreadPoolTaskExecutor aiReportStreamExecutor(
+            @Value("${reports.ai.stream.pool-size:8}") int poolSize,
+            @Value("${reports.ai.stream.queue-capacity:16}") int queueCapacity,
+            Tracer tracer) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ai-report-stream-");
+        useVirtualThreads(executor, "ai-report-stream-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setTaskDecorator(tracer.currentTraceContext()::wrap);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Computes the sections of the AI analytics context in parallel. The work is CPU-only over an
+     * in-memory snapshot, so it stays on platform threads and the pool is sized to the cores; when it
+     * is saturated the submitting thread computes the section itself instead of failing the report.
+     */
+    @Bean(name = "analyticsContextExecutor")
+    public ThreadPoolTaskExecutor analyticsContextExecutor(
+            @Value("${reports.ai.context.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize,
+            Tracer tracer) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("analytics-context-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(256);
+        executor.setTaskDecorator(tracer.currentTraceContext()::wrap);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    private void useVirtualThreads(ThreadPoolTaskExecutor executor, String namePrefix) {
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name(namePrefix, 1).factory());
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package com.subsentry.config;
 
+import com.subsentry.jdbc.QueryLog;
+import com.subsentry.jdbc.QueryTrackingDataSource;
+import com.subsentry.jdbc.ReplicaRouter;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class DatabaseConfig {
     
@@ -17,15 +26,98 @@ public class DatabaseConfig {
     
     @Value("${spring.datasource.password}")
     private String password;
+
+    @Value("${db.pool.maximum-size:10}")
+    private int maximumPoolSize;
+
+    @Value("${db.pool.minimum-idle:2}")
+    private int minimumIdle;
+
+    @Value("${db.pool.connection-timeout-ms:5000}")
+    private long connectionTimeoutMs;
+
+    @Value("${db.statements.server-prepare:true}")
+    private boolean serverPrepare;
+
+    @Value("${db.statements.cache-size:250}")
+    private int statementCacheSize;
+
+    @Value("${db.statements.cache-sql-limit:2048}")
+    private int statementCacheSqlLimit;
+
     
-    
+    /**
+     * Pooled connections for the DAOs, wrapped so every statement is timed, counted
+     * against the current request and traced.
+     */
+    @Bean
+    public DataSource dataSource(QueryLog queryLog, Tracer tracer) {
+        return new QueryTrackingDataSource(pool("subsentry", url, username, password, false), queryLog, tracer);
+    }
+
+    /**
+     * Read replicas from {@code db.replicas.urls}, pooled and tracked like the primary. With no replicas
+     * configured every read goes to the primary.
+     */
     @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl(url);
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
-        return dataSource;
+    public ReplicaRouter replicaRouter(DataSource dataSource,
+                                       QueryLog queryLog,
+                                       Tracer tracer,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${db.replicas.urls:}") String[] replicaUrls,
+                                       @Value("${db.replicas.username:${spring.datasource.username}}") String replicaUsername,
+                                       @Value("${db.replicas.password:${spring.datasource.password}}") String replicaPassword,
+                                       @Value("${db.replicas.max-lag-seconds:5}") double maxLagSeconds,
+                                       @Value("${db.replicas.allow-standalone:false}") boolean allowStandalone,
+                                       @Value("${db.replicas.sticky-ms:10000}") long stickyMs) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls) {
+            if (!replicaUrl.isBlank()) {
+                HikariDataSource pool = pool("subsentry-replica-" + (replicas.size() + 1),
+                        replicaUrl.trim(), replicaUsername, replicaPassword, true);
+                replicas.add(new QueryTrackingDataSource(pool, queryLog, tracer));
+            }
+        }
+        return new ReplicaRouter(dataSource, replicas, maxLagSeconds, allowStandalone, stickyMs, meterRegistry);
+    }
+
+    private HikariDataSource pool(String name, String jdbcUrl, String user, String pass, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(user);
+        config.setPassword(pass);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(minimumIdle);
+        config.setConnectionTimeout(connectionTimeoutMs);
+        config.setReadOnly(readOnly);
+        configureStatements(config, serverPrepare, statementCacheSize, statementCacheSqlLimit);
+        // Let the app start and report errors per request while the database is down
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Connector/J settings that let a pooled connection keep its prepared statements. Each connection
+     * caches up to {@code cacheSize} statements, keyed by SQL text and no longer than
+     * {@code cacheSqlLimit} characters, so a DAO preparing the same SQL again on a later borrow reuses
+     * the parsed statement. With {@code serverPrepare} the cached statements are also prepared on the
+     * server, which then parses each one once per connection rather than once per execution.
+     *
+     * Batches of one-row INSERTs are sent as a single multi-row INSERT. The remaining settings stop the
+     * driver from re-reading session state it already knows.
+     */
+    public static void configureStatements(HikariConfig config, boolean serverPrepare, int cacheSize, int cacheSqlLimit) {
+        config.addDataSourceProperty("cachePrepStmts", String.valueOf(cacheSize > 0));
+        config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(cacheSize));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(cacheSqlLimit));
+        config.addDataSourceProperty("useServerPrepStmts", String.valueOf(serverPrepare));
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "true");
+        config.addDataSourceProperty("maintainTimeStats", "false");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package com.subsentry.config;
+
+import com.subsentry.client.CircuitBreaker;
+import com.subsentry.client.OutboundHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Client for the Gemini API. Report generation is the only caller, so the bulkhead is kept small
+     * enough that a slow upstream cannot tie up more than a handful of request threads.
+     */
+    @Bean
+    public OutboundHttpClient geminiHttpClient(
+            @Value("${gemini.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+            @Value("${gemini.http.response-timeout-ms:30000}") long responseTimeoutMs,
+            @Value("${gemini.http.stream-timeout-ms:120000}") long streamTimeoutMs,
+            @Value("${gemini.http.max-concurrent:8}") int maxConcurrent,
+            @Value("${gemini.http.bulkhead-wait-ms:500}") long bulkheadWaitMs,
+            @Value("${gemini.http.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${gemini.http.breaker.open-ms:30000}") long openMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry,
+            Tracer tracer) {
+        return new OutboundHttpClient("gemini", connectTimeoutMs, responseTimeoutMs, streamTimeoutMs, maxConcurrent, bulkheadWaitMs,
+                new CircuitBreaker(failureThreshold, openMs), meterRegistry, tracer, virtualThreads);
+    }
+}
@@ -0,0 +1,27 @@
+package com.subsentry.config;
+
+import com.subsentry.tracing.FileSpanExporter;
+import com.subsentry.util.JsonCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Local span export that works offline. Spring Boot hands every exporter bean to the tracer, so this
+     * runs alongside OTLP export when {@code management.otlp.tracing.endpoint} is set.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tracing.file.enabled", havingValue = "true")
+    public FileSpanExporter fileSpanExporter(
+            @Value("${tracing.file.path:${java.io.tmpdir}/subsentry-traces.jsonl}") String path,
+            @Value("${tracing.file.max-size-mb:100}") long maxSizeMb,
+            JsonCodec jsonCodec) {
+        return new FileSpanExporter(Path.of(path), maxSizeMb * 1024 * 1024, jsonCodec);
+    }
+}
@@ -1,10 +1,16 @@
 package com.subsentry.controller;
 
+import com.subsentry.model.Notification;
 import com.subsentry.service.NotificationService;
+import com.subsentry.service.NotificationStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -15,15 +21,40 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+    
     @GetMapping
-    public ResponseEntity<?> getNotifications(@RequestParam String userId) {
+    public ResponseEntity<?> getNotifications(@RequestParam String userId,
+                                              @RequestParam(required = false) String before,
+                                              @RequestParam(defaultValue = "50") int limit) {
         try {
-            return ResponseEntity.ok(Map.of("data", notificationService.getNotifications(userId)));
+            List<Notification> page = notificationService.getNotifications(userId, before, limit);
+            Map<String, Object> body = new HashMap<>();
+            body.put("data", page);
+            boolean hasMore = !page.isEmpty() && page.size() >= NotificationService.pageSize(limit);
+            body.put("nextCursor", hasMore ? page.get(page.size() - 1).getId() : null);
+            return ResponseEntity.ok(body);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to fetch notifications"));
         }
     }
     
+    @GetMapping("/unread-count")
+    public ResponseEntity<?> getUnreadCount(@RequestParam String userId) {
+        try {
+            return ResponseEntity.ok(Map.of("data", Map.of("count", notificationService.getUnreadCount(userId))));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to fetch unread count"));
+        }
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(@RequestParam String userId,
+                                          @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return notificationStreamService.subscribe(userId, lastEventId);
+    }
+    
     @PutMapping("/{id}/read")
     public ResponseEntity<?> markAsRead(@PathVariable String id, @RequestParam String userId) {
         try {
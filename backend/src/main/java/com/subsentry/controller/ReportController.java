@@ -1,12 +1,16 @@
 package com.subsentry.controller;
 
 import com.subsentry.model.GeneratedReport;
+import com.subsentry.service.AiReportStreamService;
+import com.subsentry.service.ReportJobService;
 import com.subsentry.service.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
@@ -19,6 +23,12 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
     
+    @Autowired
+    private ReportJobService reportJobService;
+    
+    @Autowired
+    private AiReportStreamService aiReportStreamService;
+    
     @GetMapping
     public ResponseEntity<?> getReports(@RequestParam String userId) {
         try {
@@ -32,8 +42,12 @@ public class ReportController {
                                             @RequestBody Map<String, Object> reportData) {
         try {
             System.out.println("ReportController.generateReport: userId=" + userId + ", payload=" + reportData);
-            GeneratedReport report = reportService.generateReport(userId, reportData);
-            return ResponseEntity.ok(Map.of("data", report));
+            GeneratedReport report = reportJobService.submit(userId, reportData);
+            return ResponseEntity.accepted().body(Map.of("data", report));
+        } catch (ReportJobService.QueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             System.out.println("ReportController.generateReport error: " + e.getMessage());
             e.printStackTrace();
@@ -54,6 +68,12 @@ public class ReportController {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+
+    @PostMapping(value = "/ai/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAiReport(@RequestParam String userId,
+                                     @RequestBody Map<String, Object> reportData) {
+        return aiReportStreamService.stream(userId, reportData);
+    }
     @GetMapping("/scheduled")
     public ResponseEntity<?> getScheduledReports(@RequestParam String userId) {
         try {
@@ -92,6 +112,15 @@ public class ReportController {
         }
     }
     
+    @GetMapping("/{id}/status")
+    public ResponseEntity<?> getReportStatus(@RequestParam String userId, @PathVariable String id) {
+        try {
+            return ResponseEntity.ok(Map.of("data", reportJobService.getStatus(userId, id)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to fetch report status"));
+        }
+    }
+    
     @GetMapping("/{id}/download")
     public ResponseEntity<byte[]> downloadReport(@RequestParam String userId,
                                                  @PathVariable String id,
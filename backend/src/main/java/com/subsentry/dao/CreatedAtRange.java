@@ -0,0 +1,48 @@
+package com.subsentry.dao;
+
+import com.subsentry.util.UuidV7;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.OptionalLong;
+
+/**
+ * A {@code created_at >= ? AND created_at < ?} window for the month-partitioned tables. Binding one on
+ * every query lets MySQL prune the partitions outside it.
+ *
+ * For lookups by id the window comes from the creation time embedded in UUIDv7 ids; rows are stored
+ * within moments of their id being generated, and the slack absorbs clock and time zone differences.
+ * Older random ids carry no time, so they get an unbounded window and a full partition scan.
+ */
+record CreatedAtRange(LocalDateTime from, LocalDateTime to) {
+
+    private static final long ID_SLACK_DAYS = 1;
+    private static final LocalDateTime MIN = LocalDateTime.of(1970, 1, 2, 0, 0);
+    private static final LocalDateTime MAX = LocalDateTime.of(2038, 1, 1, 0, 0);
+
+    static CreatedAtRange since(LocalDateTime from) {
+        return new CreatedAtRange(from, MAX);
+    }
+
+    static CreatedAtRange aroundId(String id) {
+        OptionalLong millis = UuidV7.timestampOf(id);
+        if (millis.isEmpty()) {
+            return new CreatedAtRange(MIN, MAX);
+        }
+        LocalDateTime created = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis.getAsLong()), ZoneId.systemDefault());
+        return new CreatedAtRange(created.minusDays(ID_SLACK_DAYS), created.plusDays(ID_SLACK_DAYS));
+    }
+
+    /**
+     * Binds {@code from} and {@code to} at {@code index} and {@code index + 1}; returns the next free index.
+     */
+    int bind(PreparedStatement ps, int index) throws SQLException {
+        ps.setTimestamp(index, Timestamp.valueOf(from));
+        ps.setTimestamp(index + 1, Timestamp.valueOf(to));
+        return index + 2;
+    }
+}
@@ -2,27 +2,67 @@ package com.subsentry.dao;
 
 import com.subsentry.model.Notification;
 import com.subsentry.util.DatabaseConnection;
+import com.subsentry.util.UuidCodec;
+import com.subsentry.util.UuidV7;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 @Repository
 public class NotificationDAO {
 
-    public List<Notification> findByUserId(String userId) {
-        String sql = """
+    // Rows per JDBC batch, each sent as one multi-row INSERT (rewriteBatchedStatements). 500 rows x 8
+    // columns stays well below MySQL's 65535 placeholder limit, which Connector/J does not check when
+    // it rewrites a server-side prepared batch, and below the default max_allowed_packet
+    private static final int INSERT_CHUNK_SIZE = 500;
+
+    private final int retentionDays;
+
+    public NotificationDAO(@Value("${notification.retention-days:90}") int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Returns one page of a user's notifications, newest first. {@code beforeId} is the id of the last
+     * notification of the previous page (keyset pagination), or null for the first page. Only the
+     * partitions inside the retention window (and, for later pages, up to the cursor) are read.
+     */
+    public List<Notification> findPage(String userId, String beforeId, int limit) {
+        String sql = beforeId == null ? """
                 SELECT * FROM notifications
                 WHERE user_id = ?
-                ORDER BY created_at DESC
+                  AND created_at >= ? AND created_at < ?
+                ORDER BY created_at DESC, id DESC
+                LIMIT ?
+                """ : """
+                SELECT n.* FROM notifications n
+                JOIN notifications cursor_row ON cursor_row.id = ? AND cursor_row.user_id = n.user_id
+                    AND cursor_row.created_at >= ? AND cursor_row.created_at < ?
+                WHERE n.user_id = ?
+                  AND n.created_at >= ? AND n.created_at < ?
+                  AND (n.created_at < cursor_row.created_at
+                       OR (n.created_at = cursor_row.created_at AND n.id < cursor_row.id))
+                ORDER BY n.created_at DESC, n.id DESC
+                LIMIT ?
                 """;
         List<Notification> notifications = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, userId);
+            int i = 1;
+            CreatedAtRange window = retentionWindow();
+            if (beforeId != null) {
+                CreatedAtRange cursorWindow = CreatedAtRange.aroundId(beforeId);
+                UuidCodec.bind(ps, i++, beforeId);
+                i = cursorWindow.bind(ps, i);
+                window = new CreatedAtRange(window.from(), cursorWindow.to());
+            }
+            UuidCodec.bind(ps, i++, userId);
+            i = window.bind(ps, i);
+            ps.setInt(i, limit);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     notifications.add(mapRow(rs));
@@ -34,9 +74,79 @@ public class NotificationDAO {
         return notifications;
     }
 
+    public int countUnread(String userId) {
+        String sql = """
+                SELECT COUNT(*) FROM notifications
+                WHERE user_id = ? AND read_flag = 0 AND created_at >= ? AND created_at < ?
+                """;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            UuidCodec.bind(ps, 1, userId);
+            retentionWindow().bind(ps, 2);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to count unread notifications", e);
+        }
+    }
+
+    /**
+     * Deletes at most {@code batchSize} notifications created before the cutoff. Small batches keep
+     * each statement's row locks short so retention can run alongside normal traffic. Whole months
+     * past the cutoff are dropped as partitions first; this only clears the month the cutoff falls in.
+     */
+    public int deleteOlderThan(LocalDateTime cutoff, int batchSize) {
+        String sql = "DELETE FROM notifications WHERE created_at < ? ORDER BY created_at LIMIT ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.valueOf(cutoff));
+            ps.setInt(2, batchSize);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to purge old notifications", e);
+        }
+    }
+
+    /**
+     * Returns the notifications created at or after the given one, oldest first, excluding it.
+     * Used to replay what a reconnecting stream client missed.
+     */
+    public List<Notification> findCreatedSince(String userId, String notificationId, int limit) {
+        String sql = """
+                SELECT n.* FROM notifications n
+                JOIN notifications since ON since.id = ? AND since.user_id = n.user_id
+                    AND since.created_at >= ? AND since.created_at < ?
+                WHERE n.user_id = ?
+                  AND n.created_at >= ?
+                  AND n.created_at >= since.created_at
+                  AND n.id <> since.id
+                ORDER BY n.created_at ASC
+                LIMIT ?
+                """;
+        List<Notification> notifications = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            CreatedAtRange sinceWindow = CreatedAtRange.aroundId(notificationId);
+            UuidCodec.bind(ps, 1, notificationId);
+            sinceWindow.bind(ps, 2);
+            UuidCodec.bind(ps, 4, userId);
+            ps.setTimestamp(5, Timestamp.valueOf(sinceWindow.from()));
+            ps.setInt(6, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    notifications.add(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to load missed notifications", e);
+        }
+        return notifications;
+    }
+
     public Notification save(Notification notification) {
         if (notification.getId() == null) {
-            notification.setId(UUID.randomUUID().toString());
+            notification.setId(UuidV7.generate());
         }
         notification.setCreatedAt(LocalDateTime.now());
 
@@ -47,8 +157,8 @@ public class NotificationDAO {
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, notification.getId());
-            ps.setString(2, notification.getUserId());
+            UuidCodec.bind(ps, 1, notification.getId());
+            UuidCodec.bind(ps, 2, notification.getUserId());
             ps.setString(3, notification.getType());
             ps.setString(4, notification.getTitle());
             ps.setString(5, notification.getMessage());
@@ -62,31 +172,112 @@ public class NotificationDAO {
         return notification;
     }
 
+    /**
+     * Inserts many notifications on one connection in one transaction. Rows are batched
+     * {@link #INSERT_CHUNK_SIZE} at a time, and the driver sends each batch as one multi-row INSERT.
+     * Every batch uses the same one-row statement, so the connection's statement cache keeps it.
+     */
+    public List<Notification> saveAll(List<Notification> notifications) {
+        if (notifications == null || notifications.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Notification notification : notifications) {
+            if (notification.getId() == null) {
+                notification.setId(UuidV7.generate());
+            }
+            notification.setCreatedAt(now);
+        }
+
+        String sql = """
+                INSERT INTO notifications (id, user_id, type, title, message, read_flag, action_link, created_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    int batched = 0;
+                    for (Notification notification : notifications) {
+                        bindRow(ps, notification);
+                        ps.addBatch();
+                        if (++batched == INSERT_CHUNK_SIZE) {
+                            ps.executeBatch();
+                            batched = 0;
+                        }
+                    }
+                    if (batched > 0) {
+                        ps.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to save notifications", e);
+        }
+        return notifications;
+    }
+
     public void markAsRead(String userId, String notificationId) {
-        String sql = "UPDATE notifications SET read_flag = 1 WHERE user_id = ? AND id = ?";
+        String sql = """
+                UPDATE notifications SET read_flag = 1
+                WHERE user_id = ? AND id = ? AND created_at >= ? AND created_at < ?
+                """;
         executeUpdate(sql, ps -> {
-            ps.setString(1, userId);
-            ps.setString(2, notificationId);
+            UuidCodec.bind(ps, 1, userId);
+            UuidCodec.bind(ps, 2, notificationId);
+            CreatedAtRange.aroundId(notificationId).bind(ps, 3);
         });
     }
 
     public void markAllAsRead(String userId) {
-        String sql = "UPDATE notifications SET read_flag = 1 WHERE user_id = ?";
-        executeUpdate(sql, ps -> ps.setString(1, userId));
+        String sql = """
+                UPDATE notifications SET read_flag = 1
+                WHERE user_id = ? AND read_flag = 0 AND created_at >= ? AND created_at < ?
+                """;
+        executeUpdate(sql, ps -> {
+            UuidCodec.bind(ps, 1, userId);
+            retentionWindow().bind(ps, 2);
+        });
     }
 
     public void delete(String userId, String notificationId) {
-        String sql = "DELETE FROM notifications WHERE user_id = ? AND id = ?";
+        String sql = """
+                DELETE FROM notifications
+                WHERE user_id = ? AND id = ? AND created_at >= ? AND created_at < ?
+                """;
         executeUpdate(sql, ps -> {
-            ps.setString(1, userId);
-            ps.setString(2, notificationId);
+            UuidCodec.bind(ps, 1, userId);
+            UuidCodec.bind(ps, 2, notificationId);
+            CreatedAtRange.aroundId(notificationId).bind(ps, 3);
         });
     }
 
+    private CreatedAtRange retentionWindow() {
+        return CreatedAtRange.since(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    private void bindRow(PreparedStatement ps, Notification notification) throws SQLException {
+        UuidCodec.bind(ps, 1, notification.getId());
+        UuidCodec.bind(ps, 2, notification.getUserId());
+        ps.setString(3, notification.getType());
+        ps.setString(4, notification.getTitle());
+        ps.setString(5, notification.getMessage());
+        ps.setBoolean(6, notification.isRead());
+        ps.setString(7, notification.getActionLink());
+        ps.setTimestamp(8, Timestamp.valueOf(notification.getCreatedAt()));
+    }
+
     private Notification mapRow(ResultSet rs) throws SQLException {
         Notification notification = new Notification();
-        notification.setId(rs.getString("id"));
-        notification.setUserId(rs.getString("user_id"));
+        notification.setId(UuidCodec.read(rs, "id"));
+        notification.setUserId(UuidCodec.read(rs, "user_id"));
         notification.setType(rs.getString("type"));
         notification.setTitle(rs.getString("title"));
         notification.setMessage(rs.getString("message"));
@@ -0,0 +1,147 @@
+package com.subsentry.dao;
+
+import com.subsentry.util.DatabaseConnection;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Maintains the monthly {@code RANGE (UNIX_TIMESTAMP(created_at))} partitions of the time-partitioned
+ * tables. Each month {@code pYYYYMM} holds rows created in that month; {@code p_future} is an empty
+ * catch-all that new months are split from, and {@code p_history} holds rows from before partitioning.
+ */
+@Repository
+public class PartitionDAO {
+
+    public static final Set<String> PARTITIONED_TABLES = Set.of(
+            "notifications", "generated_reports", "generated_report_contents");
+
+    private static final String FUTURE_PARTITION = "p_future";
+
+    public boolean isPartitioned(String table) {
+        String sql = """
+                SELECT COUNT(*) FROM information_schema.partitions
+                WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL
+                """;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, checkTable(table));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to inspect partitions of " + table, e);
+        }
+    }
+
+    /**
+     * Upper bound of the last bounded partition, i.e. the first instant that still falls into
+     * {@code p_future}.
+     */
+    public Optional<LocalDateTime> findCoveredUntil(String table) {
+        String sql = """
+                SELECT FROM_UNIXTIME(MAX(CAST(partition_description AS UNSIGNED)))
+                FROM information_schema.partitions
+                WHERE table_schema = DATABASE() AND table_name = ? AND partition_description <> 'MAXVALUE'
+                """;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, checkTable(table));
+            try (ResultSet rs = ps.executeQuery()) {
+                Timestamp bound = rs.next() ? rs.getTimestamp(1) : null;
+                return Optional.ofNullable(bound).map(Timestamp::toLocalDateTime);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to inspect partitions of " + table, e);
+        }
+    }
+
+    /**
+     * Splits one partition per month off {@code p_future}. {@code p_future} is normally empty, so this
+     * only rewrites partition metadata.
+     */
+    public void addMonthlyPartitions(String table, List<YearMonth> months) {
+        if (months.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("ALTER TABLE ").append(checkTable(table))
+                .append(" REORGANIZE PARTITION ").append(FUTURE_PARTITION).append(" INTO (");
+        for (YearMonth month : months) {
+            sql.append("PARTITION ").append(partitionName(month))
+                    .append(" VALUES LESS THAN (UNIX_TIMESTAMP('")
+                    .append(month.plusMonths(1).atDay(1)).append(" 00:00:00')), ");
+        }
+        sql.append("PARTITION ").append(FUTURE_PARTITION).append(" VALUES LESS THAN MAXVALUE)");
+        execute(sql.toString(), "Failed to add partitions to " + table);
+    }
+
+    /**
+     * Partitions whose every row was created before the cutoff.
+     */
+    public List<String> findPartitionsEndingBy(String table, LocalDateTime cutoff) {
+        String sql = """
+                SELECT partition_name FROM information_schema.partitions
+                WHERE table_schema = DATABASE() AND table_name = ? AND partition_description <> 'MAXVALUE'
+                  AND CAST(partition_description AS UNSIGNED) <= UNIX_TIMESTAMP(?)
+                ORDER BY partition_ordinal_position
+                """;
+        List<String> partitions = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, checkTable(table));
+            ps.setTimestamp(2, Timestamp.valueOf(cutoff));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    partitions.add(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to inspect partitions of " + table, e);
+        }
+        return partitions;
+    }
+
+    public void dropPartitions(String table, List<String> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        for (String partition : partitions) {
+            if (!partition.matches("p_history|p\\d{6}")) {
+                throw new IllegalArgumentException("Refusing to drop partition " + partition);
+            }
+        }
+        execute("ALTER TABLE " + checkTable(table) + " DROP PARTITION " + String.join(", ", partitions),
+                "Failed to drop partitions of " + table);
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private void execute(String sql, String error) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException(error, e);
+        }
+    }
+
+    private static String checkTable(String table) {
+        if (!PARTITIONED_TABLES.contains(table)) {
+            throw new IllegalArgumentException("Not a partitioned table: " + table);
+        }
+        return table;
+    }
+}
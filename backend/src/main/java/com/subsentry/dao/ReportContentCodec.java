@@ -0,0 +1,62 @@
+package com.subsentry.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encodes report content JSON for {@code generated_report_contents}. Small payloads are stored as
+ * plain UTF-8 JSON; larger ones are deflated, which typically shrinks report JSON four- to eightfold.
+ * Stored content is handed back as a stream so the JSON parser inflates and reads it in one pass.
+ */
+final class ReportContentCodec {
+
+    static final String PLAIN = "json";
+    static final String DEFLATE = "deflate";
+
+    // Below this size deflate saves little and costs a compressor allocation per write
+    private static final int COMPRESS_THRESHOLD_BYTES = 1024;
+
+    private ReportContentCodec() {
+    }
+
+    record Encoded(String encoding, byte[] bytes) {
+    }
+
+    static Encoded encode(byte[] json) {
+        if (json.length < COMPRESS_THRESHOLD_BYTES) {
+            return new Encoded(PLAIN, json);
+        }
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(json);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return new Encoded(DEFLATE, out.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns the stored JSON as a UTF-8 stream, or null when there is no content row.
+     */
+    static InputStream open(String encoding, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (PLAIN.equals(encoding)) {
+            return new ByteArrayInputStream(bytes);
+        }
+        if (DEFLATE.equals(encoding)) {
+            return new InflaterInputStream(new ByteArrayInputStream(bytes));
+        }
+        throw new IllegalStateException("Unknown report content encoding: " + encoding);
+    }
+}
@@ -1,9 +1,11 @@
 package com.subsentry.dao;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.subsentry.model.GeneratedReport;
 import com.subsentry.util.DatabaseConnection;
+import com.subsentry.util.JsonCodec;
+import com.subsentry.util.UuidCodec;
+import com.subsentry.util.UuidV7;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
@@ -12,26 +14,39 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @Repository
 public class ReportDAO {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String ID_WINDOW = " AND created_at >= ? AND created_at < ?";
 
+    private final JsonCodec jsonCodec;
+    private final int retentionDays;
+
+    public ReportDAO(JsonCodec jsonCodec, @Value("${report.retention-days:30}") int retentionDays) {
+        this.jsonCodec = jsonCodec;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Lists a user's reports without their filters or content; use {@link #findById} for a full report.
+     * Served from a read replica unless the user has just written.
+     */
     public List<GeneratedReport> findByUserId(String userId) {
         String sql = """
-                SELECT * FROM generated_reports
-                WHERE user_id = ?
+                SELECT id, user_id, name, type, format, status, created_at
+                FROM generated_reports
+                WHERE user_id = ? AND created_at >= ? AND created_at < ?
                 ORDER BY created_at DESC
                 """;
         List<GeneratedReport> reports = new ArrayList<>();
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection(userId);
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, userId);
+            UuidCodec.bind(ps, 1, userId);
+            retentionWindow().bind(ps, 2);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    reports.add(mapRow(rs));
+                    reports.add(mapSummary(rs));
                 }
             }
         } catch (SQLException e) {
@@ -41,14 +56,28 @@ public class ReportDAO {
     }
 
     public Optional<GeneratedReport> findById(String userId, String id) {
-        String sql = "SELECT * FROM generated_reports WHERE user_id = ? AND id = ?";
+        String sql = """
+                SELECT r.*, c.encoding, c.content
+                FROM generated_reports r
+                LEFT JOIN generated_report_contents c
+                    ON c.report_id = r.id AND c.created_at = r.created_at
+                    AND c.created_at >= ? AND c.created_at < ?
+                WHERE r.user_id = ? AND r.id = ? AND r.created_at >= ? AND r.created_at < ?
+                """;
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, userId);
-            ps.setString(2, id);
+            CreatedAtRange window = CreatedAtRange.aroundId(id);
+            window.bind(ps, 1);
+            UuidCodec.bind(ps, 3, userId);
+            UuidCodec.bind(ps, 4, id);
+            window.bind(ps, 5);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(mapRow(rs));
+                    GeneratedReport report = mapSummary(rs);
+                    report.setFilters(readJson(rs.getString("filters")));
+                    report.setContent(jsonCodec.readMap(
+                            ReportContentCodec.open(rs.getString("encoding"), rs.getBytes("content"))));
+                    return Optional.of(report);
                 }
             }
         } catch (SQLException e) {
@@ -57,83 +86,333 @@ public class ReportDAO {
         return Optional.empty();
     }
 
+    /**
+     * Reads one top-level field of a report's content, such as a failed job's {@code error}, by
+     * streaming through the stored document instead of materialising all of it.
+     */
+    public Optional<String> findContentField(String userId, String id, String field) {
+        String sql = """
+                SELECT c.encoding, c.content
+                FROM generated_reports r
+                JOIN generated_report_contents c
+                    ON c.report_id = r.id AND c.created_at = r.created_at
+                    AND c.created_at >= ? AND c.created_at < ?
+                WHERE r.user_id = ? AND r.id = ? AND r.created_at >= ? AND r.created_at < ?
+                """;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            CreatedAtRange window = CreatedAtRange.aroundId(id);
+            window.bind(ps, 1);
+            UuidCodec.bind(ps, 3, userId);
+            UuidCodec.bind(ps, 4, id);
+            window.bind(ps, 5);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(jsonCodec.readTopLevelField(
+                            ReportContentCodec.open(rs.getString("encoding"), rs.getBytes("content")), field));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to load report content", e);
+        }
+        return Optional.empty();
+    }
+
     public GeneratedReport save(GeneratedReport report) {
+        return save(report, null);
+    }
+
+    /**
+     * Saves a report queued as a background job by the application instance {@code ownerInstance}.
+     */
+    public GeneratedReport save(GeneratedReport report, String ownerInstance) {
         if (report.getId() == null) {
-            report.setId(UUID.randomUUID().toString());
+            report.setId(UuidV7.generate());
         }
         report.setCreatedAt(LocalDateTime.now());
 
         String sql = """
                 INSERT INTO generated_reports (
-                    id, user_id, name, type, format, status, filters, content, created_at
-                ) VALUES (?, ?, ?, ?, ?, ?, CAST(? AS JSON), CAST(? AS JSON), ?)
+                    id, user_id, name, type, format, status, filters, created_at, owner_instance
+                ) VALUES (?, ?, ?, ?, ?, ?, CAST(? AS JSON), ?, ?)
                 """;
+        String contentSql = """
+                INSERT INTO generated_report_contents (report_id, created_at, encoding, content)
+                VALUES (?, ?, ?, ?)
+                """;
+        ReportContentCodec.Encoded content = ReportContentCodec.encode(
+                jsonCodec.writeBytes(report.getContent() == null ? Map.of() : report.getContent()));
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, report.getId());
-            ps.setString(2, report.getUserId());
-            ps.setString(3, report.getName());
-            ps.setString(4, report.getType());
-            ps.setString(5, report.getFormat());
-            ps.setString(6, report.getStatus());
-            ps.setString(7, writeJson(report.getFilters()));
-            ps.setString(8, writeJson(report.getContent()));
-            ps.setTimestamp(9, Timestamp.valueOf(report.getCreatedAt()));
-            ps.executeUpdate();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            inTransaction(conn, () -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    UuidCodec.bind(ps, 1, report.getId());
+                    UuidCodec.bind(ps, 2, report.getUserId());
+                    ps.setString(3, report.getName());
+                    ps.setString(4, report.getType());
+                    ps.setString(5, report.getFormat());
+                    ps.setString(6, report.getStatus());
+                    ps.setString(7, writeJson(report.getFilters()));
+                    ps.setTimestamp(8, Timestamp.valueOf(report.getCreatedAt()));
+                    ps.setString(9, ownerInstance);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(contentSql)) {
+                    UuidCodec.bind(ps, 1, report.getId());
+                    ps.setTimestamp(2, Timestamp.valueOf(report.getCreatedAt()));
+                    ps.setString(3, content.encoding());
+                    ps.setBytes(4, content.bytes());
+                    ps.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             throw new IllegalStateException("Failed to save report", e);
         }
+        DatabaseConnection.recordWrite(report.getUserId());
 
         return report;
     }
 
-    public void delete(String userId, String id) {
-        String sql = "DELETE FROM generated_reports WHERE user_id = ? AND id = ?";
+    public GeneratedReport update(GeneratedReport report) {
+        String sql = """
+                UPDATE generated_reports
+                SET name = ?, format = ?, status = ?, filters = CAST(? AS JSON)
+                WHERE user_id = ? AND id = ? AND created_at >= ? AND created_at < ?
+                """;
+        // created_at comes from the stored row so the content always lands next to its report
+        String contentSql = """
+                INSERT INTO generated_report_contents (report_id, created_at, encoding, content)
+                SELECT id, created_at, ?, ? FROM generated_reports
+                WHERE user_id = ? AND id = ? AND created_at >= ? AND created_at < ?
+                ON DUPLICATE KEY UPDATE encoding = ?, content = ?
+                """;
+        ReportContentCodec.Encoded content = ReportContentCodec.encode(
+                jsonCodec.writeBytes(report.getContent() == null ? Map.of() : report.getContent()));
+        CreatedAtRange window = CreatedAtRange.aroundId(report.getId());
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            inTransaction(conn, () -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setString(1, report.getName());
+                    ps.setString(2, report.getFormat());
+                    ps.setString(3, report.getStatus());
+                    ps.setString(4, writeJson(report.getFilters()));
+                    UuidCodec.bind(ps, 5, report.getUserId());
+                    UuidCodec.bind(ps, 6, report.getId());
+                    window.bind(ps, 7);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(contentSql)) {
+                    ps.setString(1, content.encoding());
+                    ps.setBytes(2, content.bytes());
+                    UuidCodec.bind(ps, 3, report.getUserId());
+                    UuidCodec.bind(ps, 4, report.getId());
+                    window.bind(ps, 5);
+                    ps.setString(7, content.encoding());
+                    ps.setBytes(8, content.bytes());
+                    ps.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to update report", e);
+        }
+        DatabaseConnection.recordWrite(report.getUserId());
+        return report;
+    }
+
+    public void updateStatus(String userId, String id, String status) {
+        String sql = "UPDATE generated_reports SET status = ? WHERE user_id = ? AND id = ?" + ID_WINDOW;
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, userId);
-            ps.setString(2, id);
+            ps.setString(1, status);
+            UuidCodec.bind(ps, 2, userId);
+            UuidCodec.bind(ps, 3, id);
+            CreatedAtRange.aroundId(id).bind(ps, 4);
             ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to update report status", e);
+        }
+        DatabaseConnection.recordWrite(userId);
+    }
+
+    public Optional<String> findStatus(String userId, String id) {
+        String sql = "SELECT status FROM generated_reports WHERE user_id = ? AND id = ?" + ID_WINDOW;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            UuidCodec.bind(ps, 1, userId);
+            UuidCodec.bind(ps, 2, id);
+            CreatedAtRange.aroundId(id).bind(ps, 3);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(rs.getString("status"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to load report status", e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Fails every job queued by {@code ownerInstance} that is still marked pending or running. Only safe
+     * to call while that instance starts up, before any of its workers has picked up a job; jobs owned by
+     * other instances are left alone.
+     */
+    public int failInterruptedJobs(String ownerInstance) {
+        String contentSql = """
+                INSERT INTO generated_report_contents (report_id, created_at, encoding, content)
+                SELECT id, created_at, ?, ? FROM generated_reports
+                WHERE status IN ('pending', 'running') AND owner_instance = ?
+                  AND created_at >= ? AND created_at < ?
+                ON DUPLICATE KEY UPDATE encoding = ?, content = ?
+                """;
+        String sql = """
+                UPDATE generated_reports SET status = 'failed'
+                WHERE status IN ('pending', 'running') AND owner_instance = ?
+                  AND created_at >= ? AND created_at < ?
+                """;
+        ReportContentCodec.Encoded content = ReportContentCodec.encode(
+                jsonCodec.writeBytes(Map.of("error", "Report generation was interrupted by a server restart")));
+        CreatedAtRange window = retentionWindow();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int[] reset = new int[1];
+            inTransaction(conn, () -> {
+                try (PreparedStatement ps = conn.prepareStatement(contentSql)) {
+                    ps.setString(1, content.encoding());
+                    ps.setBytes(2, content.bytes());
+                    ps.setString(3, ownerInstance);
+                    window.bind(ps, 4);
+                    ps.setString(6, content.encoding());
+                    ps.setBytes(7, content.bytes());
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setString(1, ownerInstance);
+                    window.bind(ps, 2);
+                    reset[0] = ps.executeUpdate();
+                }
+            });
+            return reset[0];
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to reset interrupted report jobs", e);
+        }
+    }
+
+    public void delete(String userId, String id) {
+        String contentSql = """
+                DELETE c FROM generated_report_contents c
+                JOIN generated_reports r ON r.id = c.report_id AND r.created_at = c.created_at
+                WHERE r.user_id = ? AND r.id = ? AND r.created_at >= ? AND r.created_at < ?
+                  AND c.created_at >= ? AND c.created_at < ?
+                """;
+        String sql = "DELETE FROM generated_reports WHERE user_id = ? AND id = ?" + ID_WINDOW;
+        CreatedAtRange window = CreatedAtRange.aroundId(id);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            inTransaction(conn, () -> {
+                try (PreparedStatement ps = conn.prepareStatement(contentSql)) {
+                    UuidCodec.bind(ps, 1, userId);
+                    UuidCodec.bind(ps, 2, id);
+                    window.bind(ps, 3);
+                    window.bind(ps, 5);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    UuidCodec.bind(ps, 1, userId);
+                    UuidCodec.bind(ps, 2, id);
+                    window.bind(ps, 3);
+                    ps.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             throw new IllegalStateException("Failed to delete report", e);
         }
+        DatabaseConnection.recordWrite(userId);
     }
 
-    private GeneratedReport mapRow(ResultSet rs) throws SQLException {
+    /**
+     * Clears scheduled report links to reports created before the cutoff, which the foreign key's
+     * ON DELETE SET NULL did before the table was partitioned.
+     */
+    public int clearScheduleLinksOlderThan(LocalDateTime cutoff) {
+        String sql = """
+                UPDATE scheduled_reports s
+                JOIN generated_reports r ON r.id = s.report_id AND r.created_at < ?
+                SET s.report_id = NULL
+                """;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.valueOf(cutoff));
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to unlink expired reports", e);
+        }
+    }
+
+    /**
+     * Deletes at most {@code batchSize} reports, and as many contents, created before the cutoff.
+     * Whole months past the cutoff are dropped as partitions; this only clears the month the cutoff
+     * falls in. Contents share their report's created_at, so both tables empty out together.
+     */
+    public int deleteOlderThan(LocalDateTime cutoff, int batchSize) {
+        String contentSql = "DELETE FROM generated_report_contents WHERE created_at < ? ORDER BY created_at LIMIT ?";
+        String sql = "DELETE FROM generated_reports WHERE created_at < ? ORDER BY created_at LIMIT ?";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int deleted = 0;
+            for (String statement : new String[]{contentSql, sql}) {
+                try (PreparedStatement ps = conn.prepareStatement(statement)) {
+                    ps.setTimestamp(1, Timestamp.valueOf(cutoff));
+                    ps.setInt(2, batchSize);
+                    deleted = Math.max(deleted, ps.executeUpdate());
+                }
+            }
+            return deleted;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to purge old reports", e);
+        }
+    }
+
+    private CreatedAtRange retentionWindow() {
+        return CreatedAtRange.since(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    private void inTransaction(Connection conn, SQLRunnable work) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            work.run();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private GeneratedReport mapSummary(ResultSet rs) throws SQLException {
         GeneratedReport report = new GeneratedReport();
-        report.setId(rs.getString("id"));
-        report.setUserId(rs.getString("user_id"));
+        report.setId(UuidCodec.read(rs, "id"));
+        report.setUserId(UuidCodec.read(rs, "user_id"));
         report.setName(rs.getString("name"));
         report.setType(rs.getString("type"));
         report.setFormat(rs.getString("format"));
         report.setStatus(rs.getString("status"));
-        report.setFilters(readJson(rs.getString("filters")));
-        report.setContent(readJson(rs.getString("content")));
         Timestamp createdAt = rs.getTimestamp("created_at");
         report.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
         return report;
     }
 
     private Map<String, Object> readJson(String value) {
-        if (value == null || value.isBlank()) {
-            return Map.of();
-        }
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> data = objectMapper.readValue(value, Map.class);
-            return data;
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException("Failed to parse JSON column", e);
-        }
+        return jsonCodec.readMap(value);
     }
 
     private String writeJson(Map<String, Object> value) {
-        try {
-            return objectMapper.writeValueAsString(value == null ? Map.of() : value);
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException("Failed to serialize JSON column", e);
-        }
+        return jsonCodec.write(value == null ? Map.of() : value);
+    }
+
+    @FunctionalInterface
+    private interface SQLRunnable {
+        void run() throws SQLException;
     }
 }
 
@@ -1,9 +1,10 @@
 package com.subsentry.dao;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.subsentry.model.ScheduledReport;
 import com.subsentry.util.DatabaseConnection;
+import com.subsentry.util.JsonCodec;
+import com.subsentry.util.UuidCodec;
+import com.subsentry.util.UuidV7;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
@@ -12,12 +13,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @Repository
 public class ScheduledReportDAO {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonCodec jsonCodec;
+
+    public ScheduledReportDAO(JsonCodec jsonCodec) {
+        this.jsonCodec = jsonCodec;
+    }
 
     public List<ScheduledReport> findByUserId(String userId) {
         String sql = """
@@ -28,7 +32,7 @@ public class ScheduledReportDAO {
         List<ScheduledReport> schedules = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, userId);
+            UuidCodec.bind(ps, 1, userId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     schedules.add(mapRow(rs));
@@ -44,8 +48,8 @@ public class ScheduledReportDAO {
         String sql = "SELECT * FROM scheduled_reports WHERE user_id = ? AND id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, userId);
-            ps.setString(2, id);
+            UuidCodec.bind(ps, 1, userId);
+            UuidCodec.bind(ps, 2, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     return Optional.of(mapRow(rs));
@@ -59,7 +63,7 @@ public class ScheduledReportDAO {
 
     public ScheduledReport save(ScheduledReport schedule) {
         if (schedule.getId() == null) {
-            schedule.setId(UUID.randomUUID().toString());
+            schedule.setId(UuidV7.generate());
             schedule.setCreatedAt(LocalDateTime.now());
         }
         schedule.setUpdatedAt(LocalDateTime.now());
@@ -102,9 +106,9 @@ public class ScheduledReportDAO {
             ps.setString(i++, writeJson(schedule.getFilters()));
             setTimestamp(ps, i++, schedule.getNextRun());
             setTimestamp(ps, i++, schedule.getUpdatedAt());
-            ps.setString(i++, schedule.getReportId());
-            ps.setString(i++, schedule.getId());
-            ps.setString(i, schedule.getUserId());
+            UuidCodec.bind(ps, i++, schedule.getReportId());
+            UuidCodec.bind(ps, i++, schedule.getId());
+            UuidCodec.bind(ps, i, schedule.getUserId());
             ps.executeUpdate();
         } catch (SQLException e) {
             throw new IllegalStateException("Failed to update schedule", e);
@@ -117,8 +121,8 @@ public class ScheduledReportDAO {
         String sql = "DELETE FROM scheduled_reports WHERE user_id = ? AND id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, userId);
-            ps.setString(2, id);
+            UuidCodec.bind(ps, 1, userId);
+            UuidCodec.bind(ps, 2, id);
             ps.executeUpdate();
         } catch (SQLException e) {
             throw new IllegalStateException("Failed to delete schedule", e);
@@ -147,8 +151,8 @@ public class ScheduledReportDAO {
 
     private void bind(PreparedStatement ps, ScheduledReport schedule) throws SQLException {
         int i = 1;
-        ps.setString(i++, schedule.getId());
-        ps.setString(i++, schedule.getUserId());
+        UuidCodec.bind(ps, i++, schedule.getId());
+        UuidCodec.bind(ps, i++, schedule.getUserId());
         ps.setString(i++, schedule.getName());
         ps.setString(i++, schedule.getFrequency());
         ps.setInt(i++, schedule.getDayOfPeriod());
@@ -158,13 +162,13 @@ public class ScheduledReportDAO {
         setTimestamp(ps, i++, schedule.getNextRun());
         setTimestamp(ps, i++, schedule.getCreatedAt());
         setTimestamp(ps, i++, schedule.getUpdatedAt());
-        ps.setString(i, schedule.getReportId());
+        UuidCodec.bind(ps, i, schedule.getReportId());
     }
 
     private ScheduledReport mapRow(ResultSet rs) throws SQLException {
         ScheduledReport schedule = new ScheduledReport();
-        schedule.setId(rs.getString("id"));
-        schedule.setUserId(rs.getString("user_id"));
+        schedule.setId(UuidCodec.read(rs, "id"));
+        schedule.setUserId(UuidCodec.read(rs, "user_id"));
         schedule.setName(rs.getString("name"));
         schedule.setFrequency(rs.getString("frequency"));
         schedule.setDayOfPeriod(rs.getInt("day_of_period"));
@@ -174,7 +178,7 @@ public class ScheduledReportDAO {
         schedule.setNextRun(getDateTime(rs, "next_run"));
         schedule.setCreatedAt(getDateTime(rs, "created_at"));
         schedule.setUpdatedAt(getDateTime(rs, "updated_at"));
-        schedule.setReportId(rs.getString("report_id"));
+        schedule.setReportId(UuidCodec.read(rs, "report_id"));
         return schedule;
     }
 
@@ -192,24 +196,10 @@ public class ScheduledReportDAO {
     }
 
     private Map<String, Object> readJson(String value) {
-        if (value == null || value.isBlank()) {
-            return Map.of();
-        }
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> map = objectMapper.readValue(value, Map.class);
-            return map;
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException("Failed to parse schedule JSON", e);
-        }
+        return jsonCodec.readMap(value);
     }
 
     private String writeJson(Map<String, Object> map) {
-        try {
-            return objectMapper.writeValueAsString(map == null ? Map.of() : map);
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException("Failed to serialize schedule JSON", e);
-        }
+        return jsonCodec.write(map == null ? Map.of() : map);
     }
 }
-
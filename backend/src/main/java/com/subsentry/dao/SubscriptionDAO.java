@@ -1,16 +1,19 @@
 package com.subsentry.dao;
 
 import com.subsentry.model.Subscription;
+import com.subsentry.model.SubscriptionColumns;
 import com.subsentry.util.DatabaseConnection;
+import com.subsentry.util.UuidCodec;
+import com.subsentry.util.UuidV7;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.math.RoundingMode;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Repository
@@ -19,7 +22,7 @@ public class SubscriptionDAO {
     public List<Subscription> findAll(String userId, String category, String search) {
         StringBuilder sql = new StringBuilder("SELECT * FROM subscriptions WHERE user_id = ?");
         List<Object> params = new ArrayList<>();
-        params.add(userId);
+        params.add(UuidCodec.toBytes(userId));
 
         if (category != null && !category.isBlank()) {
             sql.append(" AND LOWER(category) LIKE ?");
@@ -32,7 +35,7 @@ public class SubscriptionDAO {
         }
 
         sql.append(" ORDER BY created_at DESC");
-        return query(sql.toString(), params);
+        return queryReplica(userId, sql.toString(), params);
     }
 
     public List<Subscription> findUpcoming(String userId, int days) {
@@ -43,17 +46,17 @@ public class SubscriptionDAO {
                   AND next_renewal_date BETWEEN NOW() AND DATE_ADD(NOW(), INTERVAL ? DAY)
                 ORDER BY next_renewal_date ASC
                 """;
-        return query(sql, List.of(userId, days));
+        return queryReplica(userId, sql, List.of(UuidCodec.toBytes(userId), days));
     }
 
     public Optional<Subscription> findById(String userId, String id) {
         String sql = "SELECT * FROM subscriptions WHERE user_id = ? AND id = ?";
-        List<Subscription> results = query(sql, List.of(userId, id));
+        List<Subscription> results = query(sql, List.of(UuidCodec.toBytes(userId), UuidCodec.toBytes(id)));
         return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
     }
 
     public Subscription create(Subscription subscription) {
-        subscription.setId(UUID.randomUUID().toString());
+        subscription.setId(UuidV7.generate());
         subscription.setCreatedAt(LocalDateTime.now());
         subscription.setUpdatedAt(LocalDateTime.now());
 
@@ -64,7 +67,7 @@ public class SubscriptionDAO {
                     created_at, updated_at
                 ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
                 """;
-        execute(sql, ps -> bindSubscription(ps, subscription, true));
+        execute(subscription.getUserId(), sql, ps -> bindSubscription(ps, subscription, true));
         return subscription;
     }
 
@@ -81,7 +84,7 @@ public class SubscriptionDAO {
                 WHERE id = ? AND user_id = ?
                 """;
 
-        execute(sql, ps -> {
+        execute(userId, sql, ps -> {
             int i = 1;
             ps.setString(i++, subscription.getName());
             ps.setBigDecimal(i++, java.math.BigDecimal.valueOf(subscription.getAmount()));
@@ -96,17 +99,17 @@ public class SubscriptionDAO {
             ps.setString(i++, subscription.getPortalLink());
             ps.setString(i++, subscription.getNotes());
             setTimestamp(ps, i++, subscription.getUpdatedAt());
-            ps.setString(i++, id);
-            ps.setString(i, userId);
+            UuidCodec.bind(ps, i++, id);
+            UuidCodec.bind(ps, i, userId);
         });
         return subscription;
     }
 
     public void delete(String userId, String id) {
         String sql = "DELETE FROM subscriptions WHERE user_id = ? AND id = ?";
-        execute(sql, ps -> {
-            ps.setString(1, userId);
-            ps.setString(2, id);
+        execute(userId, sql, ps -> {
+            UuidCodec.bind(ps, 1, userId);
+            UuidCodec.bind(ps, 2, id);
         });
     }
 
@@ -116,11 +119,11 @@ public class SubscriptionDAO {
         }
         String inClause = ids.stream().map(id -> "?").collect(Collectors.joining(","));
         String sql = "DELETE FROM subscriptions WHERE user_id = ? AND id IN (" + inClause + ")";
-        execute(sql, ps -> {
-            ps.setString(1, userId);
+        execute(userId, sql, ps -> {
+            UuidCodec.bind(ps, 1, userId);
             int index = 2;
             for (String id : ids) {
-                ps.setString(index++, id);
+                UuidCodec.bind(ps, index++, id);
             }
         });
     }
@@ -128,7 +131,7 @@ public class SubscriptionDAO {
     public List<Subscription> findByDateRange(String userId, LocalDateTime start, LocalDateTime end) {
         StringBuilder sql = new StringBuilder("SELECT * FROM subscriptions WHERE user_id = ?");
         List<Object> params = new ArrayList<>();
-        params.add(userId);
+        params.add(UuidCodec.toBytes(userId));
 
         if (start != null) {
             sql.append(" AND start_date >= ?");
@@ -140,7 +143,29 @@ public class SubscriptionDAO {
         }
 
         sql.append(" ORDER BY start_date DESC");
-        return query(sql.toString(), params);
+        return queryReplica(userId, sql.toString(), params);
+    }
+
+    /**
+     * All of a user's subscriptions with only the fields analytics reads, decoded from the result set
+     * straight into columns instead of one {@link Subscription} per row. Reads like {@link #findAll}.
+     */
+    public SubscriptionColumns findColumns(String userId) {
+        String sql = """
+                SELECT name, amount, category, billing_cycle, status, start_date, next_renewal_date
+                FROM subscriptions
+                WHERE user_id = ?
+                ORDER BY created_at DESC
+                """;
+        try (Connection conn = DatabaseConnection.getReadConnection(userId);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            UuidCodec.bind(ps, 1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return readColumns(rs);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to execute subscription query", e);
+        }
     }
 
     public int importSubscriptions(String userId, MultipartFile file) {
@@ -154,8 +179,8 @@ public class SubscriptionDAO {
     private void bindSubscription(PreparedStatement ps, Subscription subscription, boolean includeIdentifiers) throws SQLException {
         int i = 1;
         if (includeIdentifiers) {
-            ps.setString(i++, subscription.getId());
-            ps.setString(i++, subscription.getUserId());
+            UuidCodec.bind(ps, i++, subscription.getId());
+            UuidCodec.bind(ps, i++, subscription.getUserId());
         }
         ps.setString(i++, subscription.getName());
         ps.setBigDecimal(i++, java.math.BigDecimal.valueOf(subscription.getAmount()));
@@ -174,22 +199,39 @@ public class SubscriptionDAO {
     }
 
     private List<Subscription> query(String sql, List<Object> params) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return query(conn, sql, params);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to execute subscription query", e);
+        }
+    }
+
+    /**
+     * Runs a list query on a read replica unless the user has just written; see
+     * {@link DatabaseConnection#getReadConnection}.
+     */
+    private List<Subscription> queryReplica(String userId, String sql, List<Object> params) {
+        try (Connection conn = DatabaseConnection.getReadConnection(userId)) {
+            return query(conn, sql, params);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to execute subscription query", e);
+        }
+    }
+
+    private List<Subscription> query(Connection conn, String sql, List<Object> params) throws SQLException {
         List<Subscription> subscriptions = new ArrayList<>();
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             bindParams(ps, params);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     subscriptions.add(mapRow(rs));
                 }
             }
-        } catch (SQLException e) {
-            throw new IllegalStateException("Failed to execute subscription query", e);
         }
         return subscriptions;
     }
 
-    private void execute(String sql, SQLConsumer<PreparedStatement> binder) {
+    private void execute(String userId, String sql, SQLConsumer<PreparedStatement> binder) {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             binder.accept(ps);
@@ -197,6 +239,7 @@ public class SubscriptionDAO {
         } catch (SQLException e) {
             throw new IllegalStateException("Failed to execute subscription statement", e);
         }
+        DatabaseConnection.recordWrite(userId);
     }
 
     private void bindParams(PreparedStatement ps, List<Object> params) throws SQLException {
@@ -215,10 +258,10 @@ public class SubscriptionDAO {
         }
     }
 
-    private Subscription mapRow(ResultSet rs) throws SQLException {
+    Subscription mapRow(ResultSet rs) throws SQLException {
         Subscription subscription = new Subscription();
-        subscription.setId(rs.getString("id"));
-        subscription.setUserId(rs.getString("user_id"));
+        subscription.setId(UuidCodec.read(rs, "id"));
+        subscription.setUserId(UuidCodec.read(rs, "user_id"));
         subscription.setName(rs.getString("name"));
         subscription.setAmount(rs.getBigDecimal("amount").doubleValue());
         subscription.setCurrency(rs.getString("currency"));
@@ -236,6 +279,21 @@ public class SubscriptionDAO {
         return subscription;
     }
 
+    SubscriptionColumns readColumns(ResultSet rs) throws SQLException {
+        SubscriptionColumns.Builder columns = new SubscriptionColumns.Builder(64);
+        while (rs.next()) {
+            columns.add(
+                    rs.getString("name"),
+                    rs.getBigDecimal("amount").setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact(),
+                    rs.getString("category"),
+                    rs.getString("billing_cycle"),
+                    rs.getString("status"),
+                    getDateTime(rs, "start_date"),
+                    getDateTime(rs, "next_renewal_date"));
+        }
+        return columns.build();
+    }
+
     private LocalDateTime getDateTime(ResultSet rs, String column) throws SQLException {
         Timestamp timestamp = rs.getTimestamp(column);
         return timestamp != null ? timestamp.toLocalDateTime() : null;
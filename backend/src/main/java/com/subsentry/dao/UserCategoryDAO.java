@@ -1,6 +1,8 @@
 package com.subsentry.dao;
 
 import com.subsentry.util.DatabaseConnection;
+import com.subsentry.util.UuidCodec;
+import com.subsentry.util.UuidV7;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Connection;
@@ -11,7 +13,6 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 @Repository
 public class UserCategoryDAO {
@@ -21,10 +22,10 @@ public class UserCategoryDAO {
         List<CategoryRecord> categories = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, userId);
+            UuidCodec.bind(ps, 1, userId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    categories.add(new CategoryRecord(rs.getString("id"), rs.getString("name")));
+                    categories.add(new CategoryRecord(UuidCodec.read(rs, "id"), rs.getString("name")));
                 }
             }
         } catch (SQLException e) {
@@ -38,11 +39,11 @@ public class UserCategoryDAO {
                 INSERT INTO user_categories (id, user_id, name, created_at, updated_at)
                 VALUES (?, ?, ?, ?, ?)
                 """;
-        CategoryRecord record = new CategoryRecord(UUID.randomUUID().toString(), name);
+        CategoryRecord record = new CategoryRecord(UuidV7.generate(), name);
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, record.id());
-            ps.setString(2, userId);
+            UuidCodec.bind(ps, 1, record.id());
+            UuidCodec.bind(ps, 2, userId);
             ps.setString(3, name);
             Timestamp now = Timestamp.valueOf(LocalDateTime.now());
             ps.setTimestamp(4, now);
@@ -60,8 +61,8 @@ public class UserCategoryDAO {
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, name);
             ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
-            ps.setString(3, userId);
-            ps.setString(4, categoryId);
+            UuidCodec.bind(ps, 3, userId);
+            UuidCodec.bind(ps, 4, categoryId);
             ps.executeUpdate();
         } catch (SQLException e) {
             throw new IllegalStateException("Failed to update category", e);
@@ -72,8 +73,8 @@ public class UserCategoryDAO {
         String sql = "DELETE FROM user_categories WHERE user_id = ? AND id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, userId);
-            ps.setString(2, categoryId);
+            UuidCodec.bind(ps, 1, userId);
+            UuidCodec.bind(ps, 2, categoryId);
             ps.executeUpdate();
         } catch (SQLException e) {
             throw new IllegalStateException("Failed to delete category", e);
@@ -2,12 +2,13 @@ package com.subsentry.dao;
 
 import com.subsentry.model.User;
 import com.subsentry.util.DatabaseConnection;
+import com.subsentry.util.UuidCodec;
+import com.subsentry.util.UuidV7;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 @Repository
 public class UserDAO {
@@ -18,8 +19,8 @@ public class UserDAO {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            user.setId(UUID.randomUUID().toString());
-            pstmt.setString(1, user.getId());
+            user.setId(UuidV7.generate());
+            UuidCodec.bind(pstmt, 1, user.getId());
             pstmt.setString(2, user.getName());
             pstmt.setString(3, user.getEmail());
             pstmt.setString(4, user.getPassword());
@@ -75,7 +76,7 @@ public class UserDAO {
         String sql = "SELECT * FROM users WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, id);
+            UuidCodec.bind(pstmt, 1, id);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
                 return mapUser(rs);
@@ -109,7 +110,7 @@ public class UserDAO {
             pstmt.setBoolean(10, user.isBrowserNotifications());
             pstmt.setBoolean(11, user.isRenewalReminders());
             pstmt.setBoolean(12, user.isWeeklySummary());
-            pstmt.setString(13, user.getId());
+            UuidCodec.bind(pstmt, 13, user.getId());
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -119,7 +120,7 @@ public class UserDAO {
 
     private User mapUser(ResultSet rs) throws SQLException {
         User user = new User();
-        user.setId(rs.getString("id"));
+        user.setId(UuidCodec.read(rs, "id"));
         user.setName(rs.getString("name"));
         user.setEmail(rs.getString("email"));
         user.setPassword(rs.getString("password"));
@@ -0,0 +1,77 @@
+package com.subsentry.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements each HTTP request executes and warns when a request goes over
+ * {@code db.query-budget.per-request}, naming its most repeated statement. A request over budget
+ * almost always means a query inside a loop (N+1) slipped in.
+ *
+ * Counts are published as the {@code subsentry.http.request.queries} summary per route, and added to
+ * JSON responses as {@code X-Query-Count} and {@code X-Query-Time-Ms} by {@link QueryCountResponseAdvice}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final QueryLog queryLog;
+    private final MeterRegistry meterRegistry;
+    private final int budget;
+
+    public QueryBudgetFilter(QueryLog queryLog,
+                             MeterRegistry meterRegistry,
+                             @Value("${db.query-budget.per-request:20}") int budget) {
+        this.queryLog = queryLog;
+        this.meterRegistry = meterRegistry;
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestQueries queries = RequestQueries.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestQueries.end();
+            report(request, queries);
+        }
+    }
+
+    private void report(HttpServletRequest request, RequestQueries queries) {
+        if (queries.count() == 0) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : "UNMAPPED";
+        DistributionSummary.builder("subsentry.http.request.queries")
+                .description("SQL statements executed per HTTP request")
+                .tags("method", request.getMethod(), "uri", route)
+                .register(meterRegistry)
+                .record(queries.count());
+
+        if (queries.count() > budget) {
+            String name = request.getMethod() + " " + route;
+            Map.Entry<String, Integer> repeated = queries.mostRepeated();
+            String sql = repeated == null ? "" : QueryLog.compact(repeated.getKey());
+            int repeats = repeated == null ? 0 : repeated.getValue();
+            logger.warn(name + " executed " + queries.count() + " SQL statements (" + queries.totalMillis()
+                    + " ms), over its budget of " + budget + ". Most repeated (" + repeats + "x): " + sql);
+            queryLog.recordBudgetViolation(name, queries.count(), budget, sql, repeats);
+        }
+    }
+}
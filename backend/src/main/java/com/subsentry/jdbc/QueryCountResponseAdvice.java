@@ -0,0 +1,38 @@
+package com.subsentry.jdbc;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's SQL count and time to controller responses, just before the body is written and
+ * the headers are committed. Statements run after this point (there are normally none) are missing
+ * from the headers but still counted by {@link QueryBudgetFilter}.
+ */
+@ControllerAdvice
+public class QueryCountResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String COUNT_HEADER = "X-Query-Count";
+    static final String TIME_HEADER = "X-Query-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestQueries queries = RequestQueries.current();
+        if (queries != null) {
+            response.getHeaders().set(COUNT_HEADER, String.valueOf(queries.count()));
+            response.getHeaders().set(TIME_HEADER, String.valueOf(queries.totalMillis()));
+        }
+        return body;
+    }
+}
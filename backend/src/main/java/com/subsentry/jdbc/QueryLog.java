@@ -0,0 +1,101 @@
+package com.subsentry.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives every statement executed through {@link QueryTrackingDataSource}. Adds it to the current
+ * request's count, and logs it with its caller when it runs longer than
+ * {@code db.query-log.slow-threshold-ms}. The most recent slow statements and over-budget requests
+ * are kept for the {@code sql} actuator endpoint.
+ */
+@Component
+public class QueryLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryLog.class);
+
+    private static final int RECENT_LIMIT = 100;
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final long slowThresholdNanos;
+    private final Deque<SlowStatement> slowStatements = new ArrayDeque<>();
+    private final Deque<BudgetViolation> budgetViolations = new ArrayDeque<>();
+
+    public QueryLog(@Value("${db.query-log.slow-threshold-ms:200}") long slowThresholdMs) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+
+    void record(String sql, long nanos, boolean failed) {
+        RequestQueries request = RequestQueries.current();
+        if (request != null) {
+            request.record(sql, nanos);
+        }
+        if (nanos >= slowThresholdNanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            String caller = caller();
+            logger.warn("Slow SQL ({} ms{}) from {}: {}", millis, failed ? ", failed" : "", caller, compact(sql));
+            synchronized (slowStatements) {
+                add(slowStatements, new SlowStatement(Instant.now(), millis, caller, compact(sql), failed));
+            }
+        }
+    }
+
+    void recordBudgetViolation(String request, int queries, int budget, String mostRepeated, int repeats) {
+        synchronized (budgetViolations) {
+            add(budgetViolations, new BudgetViolation(Instant.now(), request, queries, budget, mostRepeated, repeats));
+        }
+    }
+
+    public List<SlowStatement> recentSlowStatements() {
+        synchronized (slowStatements) {
+            return new ArrayList<>(slowStatements);
+        }
+    }
+
+    public List<BudgetViolation> recentBudgetViolations() {
+        synchronized (budgetViolations) {
+            return new ArrayList<>(budgetViolations);
+        }
+    }
+
+    static String compact(String sql) {
+        return sql == null ? "" : sql.strip().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * The application frame that issued the statement, e.g. {@code ReportDAO.findById:112}.
+     */
+    private static String caller() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("com.subsentry.")
+                        && !frame.getClassName().startsWith("com.subsentry.jdbc.")
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+    }
+
+    private static <T> void add(Deque<T> recent, T entry) {
+        if (recent.size() == RECENT_LIMIT) {
+            recent.removeFirst();
+        }
+        recent.addLast(entry);
+    }
+
+    public record SlowStatement(Instant at, long millis, String caller, String sql, boolean failed) {
+    }
+
+    public record BudgetViolation(Instant at, String request, int queries, int budget,
+                                  String mostRepeatedSql, int mostRepeatedCount) {
+    }
+}
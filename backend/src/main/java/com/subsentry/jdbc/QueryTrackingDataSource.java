@@ -0,0 +1,160 @@
+package com.subsentry.jdbc;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Wraps the pool so that every statement executed on one of its connections is timed and reported to
+ * {@link QueryLog}. Only the {@code execute*} calls are intercepted; everything else goes straight
+ * to the driver's objects.
+ *
+ * Statements executed inside a trace also get a span of their own. Statements outside any trace
+ * (migrations, pool housekeeping) do not start new traces.
+ */
+public class QueryTrackingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    // Long batch inserts are cut short in span attributes
+    private static final int MAX_SPAN_STATEMENT_LENGTH = 500;
+
+    private final QueryLog queryLog;
+    private final Tracer tracer;
+
+    public QueryTrackingDataSource(DataSource target, QueryLog queryLog, Tracer tracer) {
+        super(target);
+        this.queryLog = queryLog;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("unwrap".equals(method.getName()) && ((Class<?>) args[0]).isInstance(target)) {
+                return target;
+            }
+            Object result = QueryTrackingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement/prepareCall carry their SQL; plain statements get it at execute time
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private Span startSpan(String sql) {
+        if (tracer.currentSpan() == null) {
+            return null;
+        }
+        String statement = QueryLog.compact(sql);
+        int space = statement.indexOf(' ');
+        String operation = space > 0 ? statement.substring(0, space) : statement;
+        if (statement.length() > MAX_SPAN_STATEMENT_LENGTH) {
+            statement = statement.substring(0, MAX_SPAN_STATEMENT_LENGTH) + "...";
+        }
+        return tracer.nextSpan().name("jdbc " + operation.toLowerCase(Locale.ENGLISH))
+                .tag("db.system", "mysql")
+                .tag("db.statement", statement)
+                .start();
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private String batchSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("addBatch".equals(name) && args != null && args.length == 1 && batchSql == null) {
+                batchSql = (String) args[0];
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return QueryTrackingDataSource.invoke(target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : preparedSql != null ? preparedSql : batchSql;
+            Span span = startSpan(sql);
+            long started = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = QueryTrackingDataSource.invoke(target, method, args);
+                failed = false;
+                return result;
+            } catch (Throwable e) {
+                if (span != null) {
+                    span.error(e);
+                }
+                throw e;
+            } finally {
+                queryLog.record(sql, System.nanoTime() - started, failed);
+                if (span != null) {
+                    span.end();
+                }
+            }
+        }
+    }
+}
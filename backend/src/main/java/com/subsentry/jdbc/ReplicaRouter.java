@@ -0,0 +1,204 @@
+package com.subsentry.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the database for read-only queries. Reads go round-robin to the replicas whose replication
+ * lag, checked every {@code db.replicas.lag-check-ms}, is within {@code db.replicas.max-lag-seconds}.
+ *
+ * A user who wrote in the last {@code db.replicas.sticky-ms} reads from the primary, so users always
+ * see their own changes. Reads also fall back to the primary while no replica is known to be current
+ * (including before the first lag check), and when a replica refuses a connection; that replica is then
+ * skipped until the next check.
+ *
+ * Stickiness is kept in memory and so holds per instance. Behind a load balancer without session
+ * affinity, keep the lag limit well under the sticky window.
+ */
+public class ReplicaRouter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double maxLagSeconds;
+    private final boolean allowStandalone;
+    private final long stickyNanos;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRouter(DataSource primary, List<DataSource> replicaDataSources, double maxLagSeconds,
+                         boolean allowStandalone, long stickyMs, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLagSeconds;
+        this.allowStandalone = allowStandalone;
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMs);
+        this.meterRegistry = meterRegistry;
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + (i + 1), replicaDataSources.get(i));
+            replicas.add(replica);
+            Gauge.builder("subsentry.db.replica.lag", replica, r -> r.lagSeconds == null ? Double.NaN : r.lagSeconds)
+                    .description("Replication lag last measured on a read replica; NaN while unknown")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * A connection for a read-only query on behalf of {@code userId}. Callers must not write through it.
+     */
+    public Connection readConnection(String userId) throws SQLException {
+        if (replicas.isEmpty()) {
+            return primary.getConnection();
+        }
+        if (userId != null && wroteRecently(userId)) {
+            countRead("primary", "sticky");
+            return primary.getConnection();
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.isCurrent(maxLagSeconds)) {
+                continue;
+            }
+            try {
+                Connection conn = replica.dataSource.getConnection();
+                countRead("replica", "current");
+                return conn;
+            } catch (SQLException e) {
+                replica.lagSeconds = null;
+                logger.warn("Read replica {} is unavailable, reading from the primary until it recovers: {}",
+                        replica.name, e.getMessage());
+            }
+        }
+        countRead("primary", "no_current_replica");
+        return primary.getConnection();
+    }
+
+    /**
+     * Sends {@code userId}'s reads to the primary for the sticky window. Call after the write succeeded.
+     */
+    public void recordWrite(String userId) {
+        if (userId != null && !replicas.isEmpty()) {
+            lastWrites.put(userId, System.nanoTime());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${db.replicas.lag-check-ms:5000}")
+    public void checkReplicas() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        for (Replica replica : replicas) {
+            Double previous = replica.lagSeconds;
+            replica.lagSeconds = measureLag(replica);
+            boolean wasCurrent = previous != null && previous <= maxLagSeconds;
+            if (wasCurrent != replica.isCurrent(maxLagSeconds)) {
+                logger.info("Read replica {} is {} (lag {} s)", replica.name,
+                        wasCurrent ? "no longer used" : "in use", replica.lagSeconds);
+            }
+        }
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(written -> now - written > stickyNanos);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private boolean wroteRecently(String userId) {
+        Long written = lastWrites.get(userId);
+        return written != null && System.nanoTime() - written <= stickyNanos;
+    }
+
+    /**
+     * Seconds behind the primary, or null when it cannot be told (unreachable, replication stopped, or
+     * not replicating at all). With {@code allowStandalone} a server that is not replicating counts as
+     * current instead, which lets two plain local schemas stand in for a primary and a replica.
+     */
+    private Double measureLag(Replica replica) {
+        try (Connection conn = replica.dataSource.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = replicaStatus(st)) {
+            if (!rs.next()) {
+                if (!replica.warnedNotReplicating) {
+                    replica.warnedNotReplicating = true;
+                    logger.warn("Read replica {} is not replicating from the primary; {}", replica.name,
+                            allowStandalone ? "treating it as current" : "skipping it");
+                }
+                return allowStandalone ? 0.0 : null;
+            }
+            long lag = rs.getLong(lagColumn(rs));
+            return rs.wasNull() ? null : (double) lag;
+        } catch (SQLException e) {
+            logger.warn("Failed to check replication lag on {}: {}", replica.name, e.getMessage());
+            return null;
+        }
+    }
+
+    private ResultSet replicaStatus(Statement st) throws SQLException {
+        try {
+            return st.executeQuery("SHOW REPLICA STATUS");
+        } catch (SQLException e) {
+            // MySQL before 8.0.22 and MariaDB before 10.5.1
+            return st.executeQuery("SHOW SLAVE STATUS");
+        }
+    }
+
+    private String lagColumn(ResultSet rs) throws SQLException {
+        try {
+            rs.findColumn("Seconds_Behind_Source");
+            return "Seconds_Behind_Source";
+        } catch (SQLException e) {
+            return "Seconds_Behind_Master";
+        }
+    }
+
+    private void countRead(String target, String reason) {
+        Counter.builder("subsentry.db.reads")
+                .description("Read-only queries by the database they were sent to")
+                .tags("target", target, "reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile Double lagSeconds;
+        private volatile boolean warnedNotReplicating;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        boolean isCurrent(double maxLagSeconds) {
+            Double lag = lagSeconds;
+            return lag != null && lag <= maxLagSeconds;
+        }
+    }
+}
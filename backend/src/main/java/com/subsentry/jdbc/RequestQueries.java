@@ -0,0 +1,63 @@
+package com.subsentry.jdbc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL statements executed while serving one HTTP request. Bound to the request thread by
+ * {@link QueryBudgetFilter}; statements run on other threads (report jobs, async analytics) are not
+ * attributed to any request.
+ */
+public final class RequestQueries {
+
+    private static final ThreadLocal<RequestQueries> CURRENT = new ThreadLocal<>();
+
+    // Distinct statements tracked per request; enough to name the culprit of an N+1 loop
+    private static final int MAX_DISTINCT_STATEMENTS = 50;
+
+    private int count;
+    private long totalNanos;
+    private final Map<String, Integer> statementCounts = new LinkedHashMap<>();
+
+    static RequestQueries begin() {
+        RequestQueries queries = new RequestQueries();
+        CURRENT.set(queries);
+        return queries;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * The queries of the request being served on this thread, or null outside a request.
+     */
+    public static RequestQueries current() {
+        return CURRENT.get();
+    }
+
+    void record(String sql, long nanos) {
+        count++;
+        totalNanos += nanos;
+        if (statementCounts.containsKey(sql) || statementCounts.size() < MAX_DISTINCT_STATEMENTS) {
+            statementCounts.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long totalMillis() {
+        return totalNanos / 1_000_000;
+    }
+
+    /**
+     * The statement executed most often in this request, with its count; null if none ran.
+     */
+    Map.Entry<String, Integer> mostRepeated() {
+        return statementCounts.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElse(null);
+    }
+}
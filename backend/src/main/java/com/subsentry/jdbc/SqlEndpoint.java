@@ -0,0 +1,29 @@
+package com.subsentry.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/sql}: the most recent slow statements and over-budget requests, newest last.
+ * Statements are shown as prepared, without bound values.
+ */
+@Component
+@Endpoint(id = "sql")
+public class SqlEndpoint {
+
+    private final QueryLog queryLog;
+
+    public SqlEndpoint(QueryLog queryLog) {
+        this.queryLog = queryLog;
+    }
+
+    @ReadOperation
+    public Map<String, Object> recent() {
+        return Map.of(
+                "slowStatements", queryLog.recentSlowStatements(),
+                "budgetViolations", queryLog.recentBudgetViolations());
+    }
+}
@@ -0,0 +1,178 @@
+package com.subsentry.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs several DAO calls as one unit of work: one pooled connection and one transaction, committed once
+ * at the end. While the work runs, {@link com.subsentry.util.DatabaseConnection} hands every DAO on this
+ * thread the unit's connection (reads included, so they see its uncommitted writes) behind a view whose
+ * {@code close} and {@code commit} do nothing. DAO methods that manage their own transaction therefore
+ * join the enclosing one unchanged, and a {@code rollback} they issue marks the whole unit for rollback.
+ *
+ * The connection is bound to the calling thread, so work handed to an executor does not take part.
+ * A unit of work started inside another one joins it. Keep slow non-database work (rendering, e-mail,
+ * outbound calls) outside, since the connection stays checked out of the pool for the whole unit.
+ */
+@Component
+public class TransactionRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRunner.class);
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    public TransactionRunner(DataSource dataSource, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void inTransaction(Runnable work) {
+        inTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code work} in a transaction and returns its result. The transaction commits if the work
+     * returns normally and rolls back if it throws; commit failures surface as {@link IllegalStateException}.
+     */
+    public <T> T inTransaction(Supplier<T> work) {
+        if (CURRENT.get() != null) {
+            return work.get();
+        }
+        UnitOfWork unit = begin();
+        CURRENT.set(unit);
+        long started = System.nanoTime();
+        boolean committed = false;
+        try {
+            T result = work.get();
+            if (unit.rollbackOnly) {
+                throw new IllegalStateException("Transaction was rolled back by a statement that failed inside it");
+            }
+            unit.connection.commit();
+            committed = true;
+            return result;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to commit transaction", e);
+        } finally {
+            CURRENT.remove();
+            end(unit, committed);
+            Timer.builder("subsentry.db.transaction")
+                    .description("Units of work run through TransactionRunner, from checkout to commit or rollback")
+                    .tag("outcome", committed ? "commit" : "rollback")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            if (committed) {
+                unit.afterCommit.forEach(Runnable::run);
+            }
+        }
+    }
+
+    /**
+     * The current unit of work's connection, or null outside one.
+     */
+    public static Connection currentConnection() {
+        UnitOfWork unit = CURRENT.get();
+        return unit == null ? null : unit.view;
+    }
+
+    /**
+     * Runs {@code action} once the current unit of work has committed, or straight away outside one.
+     * Skipped if the unit rolls back.
+     */
+    public static void afterCommit(Runnable action) {
+        UnitOfWork unit = CURRENT.get();
+        if (unit == null) {
+            action.run();
+        } else {
+            unit.afterCommit.add(action);
+        }
+    }
+
+    private UnitOfWork begin() {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+            return new UnitOfWork(connection);
+        } catch (SQLException e) {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException closeFailure) {
+                    e.addSuppressed(closeFailure);
+                }
+            }
+            throw new IllegalStateException("Failed to begin transaction", e);
+        }
+    }
+
+    private void end(UnitOfWork unit, boolean committed) {
+        try (Connection connection = unit.connection) {
+            if (!committed) {
+                connection.rollback();
+            }
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            // the pool discards a connection whose reset fails, so this only needs noting
+            logger.warn("Failed to {} and release transaction connection: {}",
+                    committed ? "reset" : "roll back", e.getMessage());
+        }
+    }
+
+    private static final class UnitOfWork implements InvocationHandler {
+
+        private final Connection connection;
+        private final Connection view;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private boolean rollbackOnly;
+
+        UnitOfWork(Connection connection) {
+            this.connection = connection;
+            this.view = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close", "commit":
+                    return null;
+                case "setAutoCommit":
+                    // DAOs switch auto-commit off and back around their own transactions
+                    return null;
+                case "rollback":
+                    if (args == null) {
+                        rollbackOnly = true;
+                        return null;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.subsentry.metrics;
+
+import com.subsentry.model.SubscriptionColumns;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of every {@code @Repository} bean and records how many rows the queries
+ * return, tagged by DAO and method.
+ *
+ * Rows are taken from the return value: the size of a collection or map, or 0/1 for an Optional.
+ * Methods returning anything else (update counts, flags, single entities) are only timed.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    // Meters are resolved once per method instead of building tags on every call
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(@org.springframework.stereotype.Repository *) && execution(public * *(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodMeters methodMeters = meters.computeIfAbsent(method, this::register);
+        long started = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            methodMeters.success().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            long rows = rows(result);
+            if (rows >= 0) {
+                methodMeters.rows().record(rows);
+            }
+            return result;
+        } catch (Throwable e) {
+            methodMeters.error().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private MethodMeters register(Method method) {
+        String dao = method.getDeclaringClass().getSimpleName();
+        String name = method.getName();
+        return new MethodMeters(
+                timer(dao, name, "success"),
+                timer(dao, name, "error"),
+                DistributionSummary.builder("subsentry.db.rows")
+                        .description("Rows returned by DAO queries")
+                        .baseUnit("rows")
+                        .tags("dao", dao, "method", name)
+                        .register(meterRegistry));
+    }
+
+    private Timer timer(String dao, String method, String outcome) {
+        return Timer.builder("subsentry.db.operations")
+                .description("Latency of DAO methods, including connection acquisition")
+                .tags("dao", dao, "method", method, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof SubscriptionColumns columns) {
+            return columns.size();
+        }
+        return -1;
+    }
+
+    private record MethodMeters(Timer success, Timer error, DistributionSummary rows) {
+    }
+}
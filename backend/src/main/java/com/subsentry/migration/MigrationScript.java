@@ -0,0 +1,101 @@
+package com.subsentry.migration;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One versioned schema script, named {@code V<version>__<description>.sql}. The checksum is taken over
+ * the script text with normalised line endings, so a checkout on Windows does not count as an edit.
+ */
+public record MigrationScript(int version, String description, String sql, String checksum) {
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    /**
+     * @throws IllegalArgumentException when the file name does not follow the naming scheme
+     */
+    public static MigrationScript of(String fileName, String sql) {
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Migration file name must look like V1__description.sql: " + fileName);
+        }
+        String normalised = sql.replace("\r\n", "\n");
+        return new MigrationScript(
+                Integer.parseInt(matcher.group(1)),
+                matcher.group(2).replace('_', ' '),
+                normalised,
+                sha256(normalised));
+    }
+
+    /**
+     * Splits the script into the statements JDBC executes one at a time. Semicolons inside quoted
+     * strings, identifiers and comments do not end a statement; comments are dropped.
+     */
+    public List<String> statements() {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            char next = i + 1 < length ? sql.charAt(i + 1) : '\0';
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = endOfQuoted(c, i);
+                current.append(sql, i, end);
+                i = end;
+            } else if (c == '#' || (c == '-' && next == '-')) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end;
+            } else if (c == '/' && next == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == ';') {
+                addStatement(statements, current);
+                i++;
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private int endOfQuoted(char quote, int start) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            } else if (c == quote) {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated " + quote + " in migration V" + version);
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String statement = current.toString().strip();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
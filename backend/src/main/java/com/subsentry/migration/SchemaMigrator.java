@@ -0,0 +1,267 @@
+package com.subsentry.migration;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the versioned scripts under {@code db/migration} at startup, before any request is served.
+ *
+ * Applied versions are recorded with their checksum in {@code schema_migrations}. An applied script that
+ * has since been edited, or a version that failed half way, stops startup instead of leaving the schema
+ * in an unknown state. A MySQL named lock makes instances that start together apply each script once.
+ *
+ * Index and column changes should be written as online DDL ({@code ALGORITHM=INPLACE, LOCK=NONE}) so
+ * they do not block traffic on a running database. Each statement also runs with a short
+ * {@code lock_wait_timeout}: DDL that cannot get its metadata lock fails fast instead of queueing every
+ * other query on the table behind it.
+ *
+ * Migrations run on a connection of their own rather than one from the pool. The scripts and the
+ * migrator change session state ({@code lock_wait_timeout}, {@code FOREIGN_KEY_CHECKS}, user variables)
+ * that would otherwise stay on a pooled connection and reach the DAOs.
+ */
+@Component
+public class SchemaMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final String LOCK_NAME = "subsentry.schema_migrations";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean enabled;
+    private final String locations;
+    private final int baselineVersion;
+    private final int lockWaitTimeoutSeconds;
+    private final int migrationLockTimeoutSeconds;
+
+    public SchemaMigrator(@Value("${spring.datasource.url}") String url,
+                          @Value("${spring.datasource.username}") String username,
+                          @Value("${spring.datasource.password}") String password,
+                          @Value("${db.migrations.enabled:true}") boolean enabled,
+                          @Value("${db.migrations.locations:classpath*:db/migration/V*__*.sql}") String locations,
+                          @Value("${db.migrations.baseline-version:0}") int baselineVersion,
+                          @Value("${db.migrations.lock-wait-timeout-seconds:10}") int lockWaitTimeoutSeconds,
+                          @Value("${db.migrations.migration-lock-timeout-seconds:300}") int migrationLockTimeoutSeconds) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.enabled = enabled;
+        this.locations = locations;
+        this.baselineVersion = baselineVersion;
+        this.lockWaitTimeoutSeconds = lockWaitTimeoutSeconds;
+        this.migrationLockTimeoutSeconds = migrationLockTimeoutSeconds;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            logger.info("Schema migrations are disabled");
+            return;
+        }
+        List<MigrationScript> scripts = loadScripts();
+        try (Connection conn = DriverManager.getConnection(url, username, password)) {
+            acquireLock(conn);
+            try {
+                ensureHistoryTable(conn);
+                Map<Integer, AppliedMigration> applied = loadHistory(conn);
+                if (applied.isEmpty()) {
+                    applied = baseline(conn, scripts);
+                }
+                int count = 0;
+                for (MigrationScript script : scripts) {
+                    AppliedMigration previous = applied.get(script.version());
+                    if (previous == null) {
+                        apply(conn, script);
+                        count++;
+                    } else {
+                        validate(script, previous);
+                    }
+                }
+                logger.info("Schema is up to date at version {} ({} migration(s) applied)",
+                        scripts.isEmpty() ? 0 : scripts.get(scripts.size() - 1).version(), count);
+            } finally {
+                releaseLock(conn);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to run schema migrations", e);
+        }
+    }
+
+    List<MigrationScript> loadScripts() {
+        List<MigrationScript> scripts = new ArrayList<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locations)) {
+                try (InputStream in = resource.getInputStream()) {
+                    scripts.add(MigrationScript.of(resource.getFilename(),
+                            new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read migration scripts from " + locations, e);
+        }
+        scripts.sort(Comparator.comparingInt(MigrationScript::version));
+        for (int i = 1; i < scripts.size(); i++) {
+            if (scripts.get(i).version() == scripts.get(i - 1).version()) {
+                throw new IllegalStateException("Duplicate migration version V" + scripts.get(i).version());
+            }
+        }
+        return scripts;
+    }
+
+    private void apply(Connection conn, MigrationScript script) throws SQLException {
+        logger.info("Applying migration V{} ({})", script.version(), script.description());
+        long started = System.nanoTime();
+        List<String> statements = script.statements();
+        try (Statement st = conn.createStatement()) {
+            st.execute("SET SESSION lock_wait_timeout = " + lockWaitTimeoutSeconds);
+            for (int i = 0; i < statements.size(); i++) {
+                try {
+                    st.execute(statements.get(i));
+                } catch (SQLException e) {
+                    record(conn, script, false, elapsedMillis(started));
+                    throw new IllegalStateException("Migration V" + script.version() + " failed at statement "
+                            + (i + 1) + " of " + statements.size() + "; the schema may be partly migrated", e);
+                }
+            }
+        }
+        long elapsed = elapsedMillis(started);
+        record(conn, script, true, elapsed);
+        logger.info("Applied migration V{} in {} ms", script.version(), elapsed);
+    }
+
+    private void validate(MigrationScript script, AppliedMigration applied) {
+        if (!applied.success()) {
+            throw new IllegalStateException("Migration V" + script.version() + " failed on a previous start. "
+                    + "Finish or undo it by hand, then delete its row from schema_migrations");
+        }
+        if (!applied.checksum().equals(script.checksum())) {
+            throw new IllegalStateException("Migration V" + script.version() + " was changed after it was applied. "
+                    + "Add a new migration instead of editing an applied one");
+        }
+    }
+
+    /**
+     * Marks the scripts up to {@code db.migrations.baseline-version} as applied on a database that has
+     * tables but no history yet, i.e. one created by hand from the old init.sql.
+     */
+    private Map<Integer, AppliedMigration> baseline(Connection conn, List<MigrationScript> scripts) throws SQLException {
+        Map<Integer, AppliedMigration> applied = new HashMap<>();
+        if (baselineVersion <= 0) {
+            if (hasTable(conn, "users")) {
+                throw new IllegalStateException("Database has tables but no schema_migrations history. "
+                        + "Set db.migrations.baseline-version to the last script already applied by hand");
+            }
+            return applied;
+        }
+        for (MigrationScript script : scripts) {
+            if (script.version() <= baselineVersion) {
+                record(conn, script, true, 0);
+                applied.put(script.version(), new AppliedMigration(script.checksum(), true));
+            }
+        }
+        logger.info("Recorded existing schema as baseline version {}", baselineVersion);
+        return applied;
+    }
+
+    private void ensureHistoryTable(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_migrations (
+                        version INT PRIMARY KEY,
+                        description VARCHAR(200) NOT NULL,
+                        checksum CHAR(64) NOT NULL,
+                        success TINYINT(1) NOT NULL,
+                        execution_ms BIGINT NOT NULL,
+                        applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+                    """);
+        }
+    }
+
+    private Map<Integer, AppliedMigration> loadHistory(Connection conn) throws SQLException {
+        Map<Integer, AppliedMigration> applied = new HashMap<>();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum, success FROM schema_migrations")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"),
+                        new AppliedMigration(rs.getString("checksum"), rs.getBoolean("success")));
+            }
+        }
+        return applied;
+    }
+
+    private void record(Connection conn, MigrationScript script, boolean success, long executionMs) throws SQLException {
+        String sql = """
+                INSERT INTO schema_migrations (version, description, checksum, success, execution_ms)
+                VALUES (?, ?, ?, ?, ?)
+                """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, script.version());
+            ps.setString(2, script.description());
+            ps.setString(3, script.checksum());
+            ps.setBoolean(4, success);
+            ps.setLong(5, executionMs);
+            ps.executeUpdate();
+        }
+    }
+
+    private boolean hasTable(Connection conn, String table) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, migrationLockTimeoutSeconds);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new IllegalStateException("Timed out waiting for another instance to finish schema migrations");
+                }
+            }
+        }
+    }
+
+    private void releaseLock(Connection conn) {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        } catch (SQLException e) {
+            // The lock is released with the connection anyway
+            logger.warn("Failed to release schema migration lock", e);
+        }
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+
+    private record AppliedMigration(String checksum, boolean success) {
+    }
+}
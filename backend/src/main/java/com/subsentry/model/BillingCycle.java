@@ -0,0 +1,65 @@
+package com.subsentry.model;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The billing cycles a subscription can have, with how many times each bills in a year. This is the one
+ * normalisation table for turning an amount into a monthly or annual cost: an amount billed on a cycle
+ * costs {@code amount * periodsPerYear} a year and a twelfth of that a month, so weekly plans cost 52/12
+ * of their amount a month. The Python report generator receives the same table via {@link #table()}.
+ */
+public enum BillingCycle {
+
+    WEEKLY("weekly", 52),
+    MONTHLY("monthly", 12),
+    QUARTERLY("quarterly", 4),
+    SEMI_ANNUAL("semi-annual", 2),
+    ANNUAL("annual", 1);
+
+    public static final int MONTHS_PER_YEAR = 12;
+
+    // values() copies the array on every call, and of() runs once per subscription
+    private static final BillingCycle[] CYCLES = values();
+
+    private final String value;
+    private final int periodsPerYear;
+
+    BillingCycle(String value, int periodsPerYear) {
+        this.value = value;
+        this.periodsPerYear = periodsPerYear;
+    }
+
+    /**
+     * The cycle stored as {@code value}, ignoring case. "yearly" is an older spelling of annual; a missing
+     * or unknown cycle bills monthly, as new subscriptions do by default.
+     */
+    public static BillingCycle of(String value) {
+        if (value == null) {
+            return MONTHLY;
+        }
+        for (BillingCycle cycle : CYCLES) {
+            if (cycle.value.equalsIgnoreCase(value)) {
+                return cycle;
+            }
+        }
+        return "yearly".equalsIgnoreCase(value) ? ANNUAL : MONTHLY;
+    }
+
+    public String value() {
+        return value;
+    }
+
+    public int periodsPerYear() {
+        return periodsPerYear;
+    }
+
+    /**
+     * The table as {@code cycle=periodsPerYear} pairs separated by commas, including the "yearly" alias.
+     */
+    public static String table() {
+        return Arrays.stream(values())
+                .map(cycle -> cycle.value + "=" + cycle.periodsPerYear)
+                .collect(Collectors.joining(",")) + ",yearly=" + ANNUAL.periodsPerYear;
+    }
+}
@@ -0,0 +1,177 @@
+package com.subsentry.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * An exact amount of money as a whole number of minor units at a decimal scale, e.g. 1999 at scale 2 for
+ * 19.99. Sums and multiples stay exact (and fail with {@link ArithmeticException} rather than overflow);
+ * the only rounding is in {@link #dividedBy}, which rounds half away from zero, once, to the scale asked
+ * for. Amounts are stored as DECIMAL(10,2), so everything read from the database has {@link #STORAGE_SCALE};
+ * {@link #scaleOf} gives the scale a currency is shown with.
+ *
+ * Aggregations over many rows add raw minor units in a {@code long} and wrap the total at the end, so
+ * the hot loops allocate nothing.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int STORAGE_SCALE = 2;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+    // Largest magnitude a double holds exactly, so a quotient of two such values is correctly rounded
+    private static final long EXACT_DOUBLE_LIMIT = 1L << 53;
+    // Below this, doubles are far closer together than one minor unit, so a round trip identifies the decimal
+    private static final long FAST_PATH_LIMIT = 1L << 50;
+
+    private final long minorUnits;
+    private final int scale;
+
+    private Money(long minorUnits, int scale) {
+        this.minorUnits = minorUnits;
+        this.scale = scale;
+    }
+
+    public static Money ofMinor(long minorUnits, int scale) {
+        return new Money(minorUnits, checkScale(scale));
+    }
+
+    /**
+     * {@code amount} rounded half away from zero to {@code scale}.
+     */
+    public static Money of(BigDecimal amount, int scale) {
+        return new Money(amount.setScale(checkScale(scale), RoundingMode.HALF_UP).unscaledValue().longValueExact(), scale);
+    }
+
+    /**
+     * {@code amount} read as the shortest decimal that denotes it, so 19.99 is 1999 cents rather than the
+     * binary value just below, then rounded half away from zero to {@code scale}.
+     */
+    public static Money of(double amount, int scale) {
+        checkScale(scale);
+        // Amounts read from DECIMAL columns already sit on the scale; confirm the round trip and skip BigDecimal
+        long rounded = Math.round(amount * POWERS_OF_TEN[scale]);
+        if (Math.abs(rounded) < FAST_PATH_LIMIT && rounded / (double) POWERS_OF_TEN[scale] == amount) {
+            return new Money(rounded, scale);
+        }
+        return of(BigDecimal.valueOf(amount), scale);
+    }
+
+    public static Money zero(int scale) {
+        return new Money(0, checkScale(scale));
+    }
+
+    /**
+     * Decimal places {@code currencyCode} is shown with, e.g. 0 for JPY and 3 for BHD; 2 when the code is
+     * missing or has no minor unit defined.
+     */
+    public static int scaleOf(String currencyCode) {
+        if (currencyCode == null) {
+            return STORAGE_SCALE;
+        }
+        try {
+            int digits = Currency.getInstance(currencyCode).getDefaultFractionDigits();
+            return digits >= 0 && digits < POWERS_OF_TEN.length ? digits : STORAGE_SCALE;
+        } catch (IllegalArgumentException e) {
+            return STORAGE_SCALE;
+        }
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    public Money plus(Money other) {
+        if (other.scale != scale) {
+            throw new IllegalArgumentException("Cannot add amounts of scale " + scale + " and " + other.scale);
+        }
+        return new Money(Math.addExact(minorUnits, other.minorUnits), scale);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), scale);
+    }
+
+    public Money dividedBy(long divisor) {
+        return dividedBy(divisor, scale);
+    }
+
+    /**
+     * This amount divided by {@code divisor}, rounded half away from zero to {@code targetScale}.
+     */
+    public Money dividedBy(long divisor, int targetScale) {
+        checkScale(targetScale);
+        long numerator = minorUnits;
+        long denominator = divisor;
+        if (targetScale >= scale) {
+            numerator = Math.multiplyExact(numerator, POWERS_OF_TEN[targetScale - scale]);
+        } else {
+            denominator = Math.multiplyExact(denominator, POWERS_OF_TEN[scale - targetScale]);
+        }
+        return new Money(divideHalfUp(numerator, denominator), targetScale);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    /**
+     * The double nearest to this amount, for JSON responses; 19.99 comes out as 19.99.
+     */
+    public double toDouble() {
+        if (Math.abs(minorUnits) <= EXACT_DOUBLE_LIMIT) {
+            return minorUnits / (double) POWERS_OF_TEN[scale];
+        }
+        return toBigDecimal().doubleValue();
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return scale == other.scale
+                ? Long.compare(minorUnits, other.minorUnits)
+                : toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money other)) {
+            return false;
+        }
+        return minorUnits == other.minorUnits && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private static long divideHalfUp(long numerator, long denominator) {
+        long quotient = numerator / denominator;
+        long remainder = Math.abs(numerator % denominator);
+        if (remainder != 0 && remainder >= Math.abs(denominator) - remainder) {
+            quotient += (numerator ^ denominator) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    private static int checkScale(int scale) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Unsupported scale: " + scale);
+        }
+        return scale;
+    }
+}
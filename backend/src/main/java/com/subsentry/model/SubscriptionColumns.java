@@ -0,0 +1,276 @@
+package com.subsentry.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One user's subscriptions held column by column for analytics: amounts in cents, start dates as epoch
+ * days, renewal times as epoch seconds of the local date-time, and category, billing cycle and status as
+ * codes into small per-table dictionaries. Row {@code i} of every column belongs to the same subscription.
+ *
+ * A row costs a few dozen bytes plus its name, against several hundred for a {@link Subscription} with
+ * its date-time objects and repeated strings, and the aggregations run over primitive arrays. Only the
+ * fields analytics reads are kept. Instances are immutable once built and safe to share between threads.
+ */
+public final class SubscriptionColumns {
+
+    // Mark a missing start date and a missing renewal time
+    public static final int NO_DAY = Integer.MIN_VALUE;
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private final int size;
+    private final String[] names;
+    private final long[] amountCents;
+    private final int[] startDays;
+    private final long[] renewalTimes;
+    private final short[] categoryCodes;
+    private final short[] cycleCodes;
+    private final short[] statusCodes;
+    private final String[] categories;
+    private final String[] cycles;
+    private final String[] statuses;
+
+    private SubscriptionColumns(int size, String[] names, long[] amountCents, int[] startDays, long[] renewalTimes,
+                                short[] categoryCodes, short[] cycleCodes, short[] statusCodes,
+                                String[] categories, String[] cycles, String[] statuses) {
+        this.size = size;
+        this.names = names;
+        this.amountCents = amountCents;
+        this.startDays = startDays;
+        this.renewalTimes = renewalTimes;
+        this.categoryCodes = categoryCodes;
+        this.cycleCodes = cycleCodes;
+        this.statusCodes = statusCodes;
+        this.categories = categories;
+        this.cycles = cycles;
+        this.statuses = statuses;
+    }
+
+    public static SubscriptionColumns of(List<Subscription> subscriptions) {
+        Builder builder = new Builder(subscriptions.size());
+        for (Subscription sub : subscriptions) {
+            builder.add(sub.getName(), Money.of(sub.getAmount(), Money.STORAGE_SCALE).minorUnits(), sub.getCategory(),
+                    sub.getBillingCycle(), sub.getStatus(), sub.getStartDate(), sub.getNextRenewalDate());
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String name(int row) {
+        return names[row];
+    }
+
+    public long amountCents(int row) {
+        return amountCents[row];
+    }
+
+    /**
+     * Start date as an epoch day, or {@link #NO_DAY}.
+     */
+    public int startDay(int row) {
+        return startDays[row];
+    }
+
+    /**
+     * Next renewal as {@link #epochSecond} of its local date-time, truncated to the second, or
+     * {@link #NO_TIME}.
+     */
+    public long renewalTime(int row) {
+        return renewalTimes[row];
+    }
+
+    public int categoryCode(int row) {
+        return categoryCodes[row];
+    }
+
+    public int cycleCode(int row) {
+        return cycleCodes[row];
+    }
+
+    public int statusCode(int row) {
+        return statusCodes[row];
+    }
+
+    /**
+     * Distinct categories, indexed by code; may contain null.
+     */
+    public List<String> categories() {
+        return Arrays.asList(categories);
+    }
+
+    /**
+     * Distinct billing cycles, indexed by code; may contain null.
+     */
+    public List<String> cycles() {
+        return Arrays.asList(cycles);
+    }
+
+    /**
+     * Distinct statuses, indexed by code; may contain null.
+     */
+    public List<String> statuses() {
+        return Arrays.asList(statuses);
+    }
+
+    /**
+     * The rows whose start date falls between {@code from} and {@code to}, inclusive. Rows without a
+     * start date are left out. The dictionaries are shared with this table.
+     */
+    public SubscriptionColumns startedBetween(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        int[] rows = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int day = startDays[i];
+            if (day != NO_DAY && day >= first && day <= last) {
+                rows[count++] = i;
+            }
+        }
+        String[] selectedNames = new String[count];
+        long[] selectedAmounts = new long[count];
+        int[] selectedStarts = new int[count];
+        long[] selectedRenewals = new long[count];
+        short[] selectedCategories = new short[count];
+        short[] selectedCycles = new short[count];
+        short[] selectedStatuses = new short[count];
+        for (int k = 0; k < count; k++) {
+            int i = rows[k];
+            selectedNames[k] = names[i];
+            selectedAmounts[k] = amountCents[i];
+            selectedStarts[k] = startDays[i];
+            selectedRenewals[k] = renewalTimes[i];
+            selectedCategories[k] = categoryCodes[i];
+            selectedCycles[k] = cycleCodes[i];
+            selectedStatuses[k] = statusCodes[i];
+        }
+        return new SubscriptionColumns(count, selectedNames, selectedAmounts, selectedStarts, selectedRenewals,
+                selectedCategories, selectedCycles, selectedStatuses, categories, cycles, statuses);
+    }
+
+    /**
+     * How many rows renew between {@code from} and {@code to}, inclusive.
+     */
+    public int countRenewingBetween(LocalDateTime from, LocalDateTime to) {
+        // Renewal times are whole seconds, as DATETIME stores them
+        long first = epochSecond(from) + (from.getNano() > 0 ? 1 : 0);
+        long last = epochSecond(to);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            long time = renewalTimes[i];
+            if (time != NO_TIME && time >= first && time <= last) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Seconds on the local time line, so that date-times without a zone order the same as their values.
+     */
+    public static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Collects rows one at a time, typically straight from a {@link java.sql.ResultSet}, growing the
+     * columns as needed.
+     */
+    public static final class Builder {
+
+        private int size;
+        private String[] names;
+        private long[] amountCents;
+        private int[] startDays;
+        private long[] renewalTimes;
+        private short[] categoryCodes;
+        private short[] cycleCodes;
+        private short[] statusCodes;
+        private final Dictionary categories = new Dictionary("category");
+        private final Dictionary cycles = new Dictionary("billing cycle");
+        private final Dictionary statuses = new Dictionary("status");
+
+        public Builder(int expectedRows) {
+            int capacity = Math.max(expectedRows, 16);
+            names = new String[capacity];
+            amountCents = new long[capacity];
+            startDays = new int[capacity];
+            renewalTimes = new long[capacity];
+            categoryCodes = new short[capacity];
+            cycleCodes = new short[capacity];
+            statusCodes = new short[capacity];
+        }
+
+        public Builder add(String name, long cents, String category, String billingCycle, String status,
+                           LocalDateTime startDate, LocalDateTime nextRenewal) {
+            if (size == names.length) {
+                grow();
+            }
+            names[size] = name;
+            amountCents[size] = cents;
+            startDays[size] = startDate == null ? NO_DAY : (int) startDate.toLocalDate().toEpochDay();
+            renewalTimes[size] = nextRenewal == null ? NO_TIME : epochSecond(nextRenewal);
+            categoryCodes[size] = categories.code(category);
+            cycleCodes[size] = cycles.code(billingCycle);
+            statusCodes[size] = statuses.code(status);
+            size++;
+            return this;
+        }
+
+        public SubscriptionColumns build() {
+            return new SubscriptionColumns(size, Arrays.copyOf(names, size), Arrays.copyOf(amountCents, size),
+                    Arrays.copyOf(startDays, size), Arrays.copyOf(renewalTimes, size),
+                    Arrays.copyOf(categoryCodes, size), Arrays.copyOf(cycleCodes, size),
+                    Arrays.copyOf(statusCodes, size), categories.values(), cycles.values(), statuses.values());
+        }
+
+        private void grow() {
+            int capacity = names.length * 2;
+            names = Arrays.copyOf(names, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            startDays = Arrays.copyOf(startDays, capacity);
+            renewalTimes = Arrays.copyOf(renewalTimes, capacity);
+            categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+            cycleCodes = Arrays.copyOf(cycleCodes, capacity);
+            statusCodes = Arrays.copyOf(statusCodes, capacity);
+        }
+    }
+
+    private static final class Dictionary {
+
+        private final String column;
+        private final Map<String, Short> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        Dictionary(String column) {
+            this.column = column;
+        }
+
+        short code(String value) {
+            Short code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (values.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct values in subscription " + column);
+            }
+            short next = (short) values.size();
+            codes.put(value, next);
+            values.add(value);
+            return next;
+        }
+
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
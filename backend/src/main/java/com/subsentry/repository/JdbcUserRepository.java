@@ -2,11 +2,12 @@ package com.subsentry.repository;
 
 import com.subsentry.model.User;
 import com.subsentry.util.DatabaseConnection;
+import com.subsentry.util.UuidCodec;
+import com.subsentry.util.UuidV7;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 public class JdbcUserRepository implements UserRepository {
     @Override
@@ -16,10 +17,10 @@ public class JdbcUserRepository implements UserRepository {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            String id = UUID.randomUUID().toString();
+            String id = UuidV7.generate();
             user.setId(id);
             
-            stmt.setString(1, user.getId());
+            UuidCodec.bind(stmt, 1, user.getId());
             stmt.setString(2, user.getName());
             stmt.setString(3, user.getEmail());
             stmt.setString(4, user.getPassword());
@@ -38,12 +39,12 @@ public class JdbcUserRepository implements UserRepository {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, id);
+            UuidCodec.bind(stmt, 1, id);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
                 User user = new User();
-                user.setId(rs.getString("id"));
+                user.setId(UuidCodec.read(rs, "id"));
                 user.setName(rs.getString("name"));
                 user.setEmail(rs.getString("email"));
                 return Optional.of(user);
@@ -66,7 +67,7 @@ public class JdbcUserRepository implements UserRepository {
             
             if (rs.next()) {
                 User user = new User();
-                user.setId(rs.getString("id"));
+                user.setId(UuidCodec.read(rs, "id"));
                 user.setName(rs.getString("name"));
                 user.setEmail(rs.getString("email"));
                 return Optional.of(user);
@@ -88,7 +89,7 @@ public class JdbcUserRepository implements UserRepository {
             
             while (rs.next()) {
                 User user = new User();
-                user.setId(rs.getString("id"));
+                user.setId(UuidCodec.read(rs, "id"));
                 user.setName(rs.getString("name"));
                 user.setEmail(rs.getString("email"));
                 users.add(user);
@@ -101,13 +102,36 @@ public class JdbcUserRepository implements UserRepository {
 
     @Override
     public void delete(String id) {
-        String sql = "DELETE FROM users WHERE id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, id);
-            stmt.executeUpdate();
+        // notifications and the report tables are partitioned and cannot carry the ON DELETE CASCADE
+        // foreign key to users, so their rows are removed here; the other tables still cascade.
+        String[] statements = {
+                "DELETE FROM notifications WHERE user_id = ?",
+                """
+                DELETE c FROM generated_report_contents c
+                JOIN generated_reports r ON r.id = c.report_id AND r.created_at = c.created_at
+                WHERE r.user_id = ?
+                """,
+                "DELETE FROM generated_reports WHERE user_id = ?",
+                "DELETE FROM users WHERE id = ?"
+        };
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                for (String sql : statements) {
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        UuidCodec.bind(stmt, 1, id);
+                        stmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting user", e);
         }
@@ -120,7 +144,7 @@ public class JdbcUserRepository implements UserRepository {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, id);
+            UuidCodec.bind(stmt, 1, id);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -0,0 +1,191 @@
+package com.subsentry.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process token-bucket rate limiter for the API.
+ *
+ * Every request is classified into an endpoint class (report generation, analytics, everything else)
+ * and must obtain a token from both the caller's bucket for that class and the class-wide global bucket.
+ * The caller's token is returned when the global bucket turns the request away. Rejected requests get a
+ * 429 with a Retry-After header.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        REPORTS("reports"),
+        ANALYTICS("analytics"),
+        DEFAULT("default");
+
+        private final String tag;
+
+        EndpointClass(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private record Limit(long capacity, double refillPerSecond) {}
+
+    private record BucketKey(EndpointClass endpointClass, String caller) {}
+
+    private final boolean enabled;
+    private final long idleEvictionNanos;
+    private final Map<EndpointClass, Limit> userLimits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, TokenBucket> globalBuckets = new EnumMap<>(EndpointClass.class);
+    private final ConcurrentHashMap<BucketKey, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+
+    private final Map<EndpointClass, Counter> allowedCounters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> userRejectedCounters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> globalRejectedCounters = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(
+            @Value("${ratelimit.enabled:true}") boolean enabled,
+            @Value("${ratelimit.idle-eviction-ms:600000}") long idleEvictionMs,
+            @Value("${ratelimit.reports.user.capacity:5}") long reportsUserCapacity,
+            @Value("${ratelimit.reports.user.refill-per-second:0.1}") double reportsUserRefill,
+            @Value("${ratelimit.reports.global.capacity:50}") long reportsGlobalCapacity,
+            @Value("${ratelimit.reports.global.refill-per-second:2}") double reportsGlobalRefill,
+            @Value("${ratelimit.analytics.user.capacity:60}") long analyticsUserCapacity,
+            @Value("${ratelimit.analytics.user.refill-per-second:10}") double analyticsUserRefill,
+            @Value("${ratelimit.analytics.global.capacity:1000}") long analyticsGlobalCapacity,
+            @Value("${ratelimit.analytics.global.refill-per-second:200}") double analyticsGlobalRefill,
+            @Value("${ratelimit.default.user.capacity:120}") long defaultUserCapacity,
+            @Value("${ratelimit.default.user.refill-per-second:20}") double defaultUserRefill,
+            @Value("${ratelimit.default.global.capacity:2000}") long defaultGlobalCapacity,
+            @Value("${ratelimit.default.global.refill-per-second:500}") double defaultGlobalRefill,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.idleEvictionNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictionMs);
+
+        long now = System.nanoTime();
+        userLimits.put(EndpointClass.REPORTS, new Limit(reportsUserCapacity, reportsUserRefill));
+        userLimits.put(EndpointClass.ANALYTICS, new Limit(analyticsUserCapacity, analyticsUserRefill));
+        userLimits.put(EndpointClass.DEFAULT, new Limit(defaultUserCapacity, defaultUserRefill));
+        globalBuckets.put(EndpointClass.REPORTS, new TokenBucket(reportsGlobalCapacity, reportsGlobalRefill, now));
+        globalBuckets.put(EndpointClass.ANALYTICS, new TokenBucket(analyticsGlobalCapacity, analyticsGlobalRefill, now));
+        globalBuckets.put(EndpointClass.DEFAULT, new TokenBucket(defaultGlobalCapacity, defaultGlobalRefill, now));
+
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            allowedCounters.put(endpointClass, requestCounter(meterRegistry, endpointClass, "allowed"));
+            userRejectedCounters.put(endpointClass, requestCounter(meterRegistry, endpointClass, "rejected_user"));
+            globalRejectedCounters.put(endpointClass, requestCounter(meterRegistry, endpointClass, "rejected_global"));
+            TokenBucket global = globalBuckets.get(endpointClass);
+            meterRegistry.gauge("subsentry.ratelimit.global.tokens",
+                    Tags.of("class", endpointClass.tag),
+                    global, bucket -> bucket.availableTokens(System.nanoTime()));
+        }
+        meterRegistry.gaugeMapSize("subsentry.ratelimit.buckets", Tags.empty(), userBuckets);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !request.getRequestURI().startsWith("/api/")
+                || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        EndpointClass endpointClass = classify(request);
+        long now = System.nanoTime();
+
+        Limit limit = userLimits.get(endpointClass);
+        TokenBucket userBucket = userBuckets.computeIfAbsent(
+                new BucketKey(endpointClass, resolveCaller(request)),
+                key -> new TokenBucket(limit.capacity(), limit.refillPerSecond(), now));
+
+        long waitNanos = userBucket.tryConsume(now);
+        if (waitNanos > 0) {
+            userRejectedCounters.get(endpointClass).increment();
+            reject(response, waitNanos, "Too many requests. Please slow down.");
+            return;
+        }
+
+        waitNanos = globalBuckets.get(endpointClass).tryConsume(now);
+        if (waitNanos > 0) {
+            // The caller was not served, so retries during an overload must not use up their own limit
+            userBucket.refund(now);
+            globalRejectedCounters.get(endpointClass).increment();
+            reject(response, waitNanos, "Server is busy. Please retry shortly.");
+            return;
+        }
+
+        allowedCounters.get(endpointClass).increment();
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Drops per-caller buckets that have been idle long enough to have refilled completely.
+     */
+    @Scheduled(fixedDelayString = "${ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        userBuckets.values().removeIf(bucket -> now - bucket.lastUsedNanos() > idleEvictionNanos);
+    }
+
+    EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/reports/generate") || path.startsWith("/api/reports/ai")) {
+            return EndpointClass.REPORTS;
+        }
+        if (path.startsWith("/api/analytics/")) {
+            return EndpointClass.ANALYTICS;
+        }
+        return EndpointClass.DEFAULT;
+    }
+
+    /**
+     * Only an identity established by authentication names the caller. Request parameters are chosen by
+     * the client, so unauthenticated traffic is keyed on the remote address instead.
+     */
+    String resolveCaller(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)
+                && authentication.getPrincipal() instanceof String principal) {
+            return "principal:" + principal;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos, String message) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private Counter requestCounter(MeterRegistry registry, EndpointClass endpointClass, String outcome) {
+        return Counter.builder("subsentry.ratelimit.requests")
+                .description("API requests seen by the rate limiter")
+                .tag("class", endpointClass.tag)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
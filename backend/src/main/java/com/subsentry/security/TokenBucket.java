@@ -0,0 +1,78 @@
+package com.subsentry.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket. The token count and the last refill instant are kept in a single
+ * immutable snapshot that is swapped with compare-and-set, so concurrent callers never block.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double refillPerNano;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Token bucket capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    /**
+     * Attempts to take one token.
+     *
+     * @return 0 when the token was granted, otherwise the number of nanoseconds until one is available
+     */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double tokens = refill(current, nowNanos);
+            if (tokens >= 1.0) {
+                if (state.compareAndSet(current, new State(tokens - 1.0, Math.max(nowNanos, current.lastRefillNanos())))) {
+                    return 0L;
+                }
+                continue;
+            }
+            return (long) Math.ceil((1.0 - tokens) / refillPerNano);
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryConsume} for a request that was then turned away elsewhere.
+     */
+    public void refund(long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double tokens = Math.min(capacity, refill(current, nowNanos) + 1.0);
+            if (state.compareAndSet(current, new State(tokens, Math.max(nowNanos, current.lastRefillNanos())))) {
+                return;
+            }
+        }
+    }
+
+    public double availableTokens(long nowNanos) {
+        return refill(state.get(), nowNanos);
+    }
+
+    public long lastUsedNanos() {
+        return state.get().lastRefillNanos();
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    private double refill(State current, long nowNanos) {
+        long elapsed = nowNanos - current.lastRefillNanos();
+        if (elapsed <= 0) {
+            return current.tokens();
+        }
+        return Math.min(capacity, current.tokens() + elapsed * refillPerNano);
+    }
+
+    private record State(double tokens, long lastRefillNanos) {}
+}
@@ -0,0 +1,81 @@
+package com.subsentry.service;
+
+import com.subsentry.model.GeneratedReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relays an AI report narrative to the browser over Server-Sent Events while Gemini is writing it.
+ *
+ * The stream emits {@code chunk} events with narrative fragments, then a single {@code complete} event
+ * with the stored report, or an {@code error} event. If the browser goes away mid-stream the generation
+ * still runs to completion and the report is stored, so it shows up in the report list.
+ */
+@Service
+public class AiReportStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiReportStreamService.class);
+
+    private final ReportService reportService;
+    private final TaskExecutor executor;
+    private final long timeoutMs;
+
+    public AiReportStreamService(ReportService reportService,
+                                 @Qualifier("aiReportStreamExecutor") TaskExecutor executor,
+                                 @Value("${reports.ai.stream.timeout-ms:180000}") long timeoutMs) {
+        this.reportService = reportService;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public SseEmitter stream(String userId, Map<String, Object> payload) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        AtomicBoolean clientGone = new AtomicBoolean(false);
+        emitter.onTimeout(() -> clientGone.set(true));
+        emitter.onError(error -> clientGone.set(true));
+
+        try {
+            executor.execute(() -> run(userId, payload, emitter, clientGone));
+        } catch (RejectedExecutionException e) {
+            send(emitter, clientGone, "error", Map.of("error", "Too many AI reports in progress. Please retry shortly."));
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    private void run(String userId, Map<String, Object> payload, SseEmitter emitter, AtomicBoolean clientGone) {
+        try {
+            GeneratedReport report = reportService.streamAiReport(userId, payload,
+                    chunk -> send(emitter, clientGone, "chunk", Map.of("text", chunk)));
+            send(emitter, clientGone, "complete", Map.of("data", report));
+        } catch (Exception e) {
+            logger.warn("Streamed AI report for user {} failed: {}", userId, e.getMessage());
+            send(emitter, clientGone, "error", Map.of("error", String.valueOf(e.getMessage())));
+        } finally {
+            if (!clientGone.get()) {
+                emitter.complete();
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, AtomicBoolean clientGone, String event, Object data) {
+        if (clientGone.get()) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            clientGone.set(true);
+        }
+    }
+}
@@ -1,29 +1,49 @@
 package com.subsentry.service;
 
+import com.subsentry.model.BillingCycle;
+import com.subsentry.model.Money;
 import com.subsentry.model.Subscription;
+import com.subsentry.model.SubscriptionColumns;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class AnalyticsService {
 
+    private static final int TOP_SUBSCRIPTIONS = 5;
+    private static final int DAYS_PER_MONTH = 30;
+
     private final SubscriptionService subscriptionService;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
 
-    public AnalyticsService(SubscriptionService subscriptionService) {
+    public AnalyticsService(SubscriptionService subscriptionService, MeterRegistry meterRegistry) {
         this.subscriptionService = subscriptionService;
+        this.meterRegistry = meterRegistry;
     }
 
-    private List<Subscription> filterByDateRange(List<Subscription> subscriptions, String dateRange) {
+    private SubscriptionColumns filterByDateRange(SubscriptionColumns subscriptions, String dateRange) {
         if (dateRange == null || dateRange.isEmpty() || "all".equalsIgnoreCase(dateRange)) {
             return subscriptions;
         }
@@ -49,64 +69,84 @@ public class AnalyticsService {
                 return subscriptions;
         }
 
-        final LocalDate finalStartDate = startDate;
-        return subscriptions.stream()
-                .filter(sub -> {
-                    if (sub.getStartDate() == null) return false;
-                    LocalDate subDate = sub.getStartDate().toLocalDate();
-                    return !subDate.isBefore(finalStartDate) && !subDate.isAfter(now);
-                })
-                .collect(Collectors.toList());
+        return subscriptions.startedBetween(startDate, now);
     }
 
     public Map<String, Object> getOverview(String userId, String dateRange) {
-        List<Subscription> allSubscriptions = subscriptionService.getAllSubscriptions(userId, null, null);
-        List<Subscription> subscriptions = filterByDateRange(allSubscriptions, dateRange);
-
-        double totalMonthlySpending = subscriptions.stream()
-                .mapToDouble(sub -> {
-                    String cycle = sub.getBillingCycle() == null ? "monthly" : sub.getBillingCycle();
-                    if ("annual".equalsIgnoreCase(cycle) || "yearly".equalsIgnoreCase(cycle)) {
-                        return sub.getAmount() / 12;
-                    }
-                    if ("semi-annual".equalsIgnoreCase(cycle)) {
-                        return sub.getAmount() / 6;
-                    }
-                    if ("quarterly".equalsIgnoreCase(cycle)) {
-                        return sub.getAmount() / 3;
-                    }
-                    if ("weekly".equalsIgnoreCase(cycle)) {
-                        return sub.getAmount() * 4;
-                    }
-                    return sub.getAmount();
-                })
-                .sum();
+        return overview(subscriptionService.getSubscriptionColumns(userId), dateRange);
+    }
+
+    /**
+     * Overview computed from an already loaded list of all of a user's subscriptions.
+     */
+    public Map<String, Object> overview(List<Subscription> allSubscriptions, String dateRange) {
+        return overview(SubscriptionColumns.of(allSubscriptions), dateRange);
+    }
+
+    public Map<String, Object> overview(SubscriptionColumns allSubscriptions, String dateRange) {
+        return timed("overview", () -> computeOverview(allSubscriptions, dateRange));
+    }
+
+    private Map<String, Object> computeOverview(SubscriptionColumns allSubscriptions, String dateRange) {
+        SubscriptionColumns subscriptions = filterByDateRange(allSubscriptions, dateRange);
+        int rows = subscriptions.size();
+
+        long[] periodsPerYear = periodsPerYear(subscriptions);
+        boolean[] cancelled = new boolean[subscriptions.statuses().size()];
+        for (int code = 0; code < cancelled.length; code++) {
+            cancelled[code] = "cancelled".equalsIgnoreCase(subscriptions.statuses().get(code));
+        }
+        boolean[] categoryUsed = new boolean[subscriptions.categories().size()];
+
+        long annualCents = 0;
+        int active = 0;
+        for (int i = 0; i < rows; i++) {
+            annualCents += subscriptions.amountCents(i) * periodsPerYear[subscriptions.cycleCode(i)];
+            if (!cancelled[subscriptions.statusCode(i)]) {
+                active++;
+            }
+            categoryUsed[subscriptions.categoryCode(i)] = true;
+        }
+        Set<String> categories = new HashSet<>();
+        for (int code = 0; code < categoryUsed.length; code++) {
+            if (categoryUsed[code]) {
+                categories.add(categoryLabel(subscriptions.categories().get(code)));
+            }
+        }
 
-        double annualProjection = totalMonthlySpending * 12;
-        double costPerDay = totalMonthlySpending / 30;
+        // Each figure is one rounding of the exact annual total
+        Money annualProjection = cents(annualCents);
+        double totalMonthlySpending = annualProjection.dividedBy(BillingCycle.MONTHS_PER_YEAR).toDouble();
+        LocalDateTime now = LocalDateTime.now();
 
         Map<String, Object> overview = new HashMap<>();
-        overview.put("totalSubscriptions", subscriptions.size());
-        overview.put("activeSubscriptions", subscriptions.stream()
-                .filter(sub -> !"cancelled".equalsIgnoreCase(sub.getStatus()))
-                .count());
-        overview.put("averageMonthlySpending", round(totalMonthlySpending));
-        overview.put("totalSpent", round(totalMonthlySpending));
-        overview.put("averageMonthly", round(totalMonthlySpending));
-        overview.put("annualProjection", round(annualProjection));
-        overview.put("costPerDay", round(costPerDay));
-        overview.put("upcomingRenewals", subscriptionService.getUpcomingSubscriptions(userId, 30).size());
-        overview.put("categoryCount", subscriptions.stream()
-                .map(sub -> sub.getCategory() == null ? "Uncategorized" : sub.getCategory())
-                .distinct()
-                .count());
+        overview.put("totalSubscriptions", rows);
+        overview.put("activeSubscriptions", (long) active);
+        overview.put("averageMonthlySpending", totalMonthlySpending);
+        overview.put("totalSpent", totalMonthlySpending);
+        overview.put("averageMonthly", totalMonthlySpending);
+        overview.put("annualProjection", annualProjection.toDouble());
+        overview.put("costPerDay", annualProjection.dividedBy(BillingCycle.MONTHS_PER_YEAR * DAYS_PER_MONTH).toDouble());
+        overview.put("upcomingRenewals", allSubscriptions.countRenewingBetween(now, now.plusDays(30)));
+        overview.put("categoryCount", (long) categories.size());
 
         return overview;
     }
 
     public Map<String, Object> getSpendingTrend(String userId, String dateRange) {
-        List<Subscription> allSubscriptions = subscriptionService.getAllSubscriptions(userId, null, null);
-        List<Subscription> subscriptions = filterByDateRange(allSubscriptions, dateRange);
+        return spendingTrend(subscriptionService.getSubscriptionColumns(userId), dateRange);
+    }
+
+    public Map<String, Object> spendingTrend(List<Subscription> allSubscriptions, String dateRange) {
+        return spendingTrend(SubscriptionColumns.of(allSubscriptions), dateRange);
+    }
+
+    public Map<String, Object> spendingTrend(SubscriptionColumns allSubscriptions, String dateRange) {
+        return timed("spendingTrend", () -> computeSpendingTrend(allSubscriptions, dateRange));
+    }
+
+    private Map<String, Object> computeSpendingTrend(SubscriptionColumns allSubscriptions, String dateRange) {
+        SubscriptionColumns subscriptions = filterByDateRange(allSubscriptions, dateRange);
         
         LocalDate now = LocalDate.now();
         LocalDate startDate = now;
@@ -133,55 +173,76 @@ public class AnalyticsService {
                     startDate = now.minusYears(1);
                     break;
                 case "all":
-                    monthsToShow = Math.max(12, (int) ChronoUnit.MONTHS.between(
-                        subscriptions.stream()
-                            .filter(sub -> sub.getStartDate() != null)
-                            .map(sub -> sub.getStartDate().toLocalDate())
-                            .min(LocalDate::compareTo)
-                            .orElse(now.minusYears(1)),
-                        now
-                    ) + 1);
-                    startDate = subscriptions.stream()
-                        .filter(sub -> sub.getStartDate() != null)
-                        .map(sub -> sub.getStartDate().toLocalDate())
-                        .min(LocalDate::compareTo)
-                        .orElse(now.minusYears(1));
+                    startDate = earliestStart(subscriptions).orElse(now.minusYears(1));
+                    monthsToShow = Math.max(12, (int) ChronoUnit.MONTHS.between(startDate, now) + 1);
                     break;
             }
         }
-        
+
+        // One pass buckets every row into the months shown, oldest first, by the epoch day each month starts
+        YearMonth current = YearMonth.from(now);
+        YearMonth oldest = current.minusMonths(monthsToShow - 1);
+        long[] monthStarts = new long[monthsToShow + 1];
+        for (int month = 0; month <= monthsToShow; month++) {
+            monthStarts[month] = oldest.plusMonths(month).atDay(1).toEpochDay();
+        }
+        long[] centsByMonth = new long[monthsToShow];
+        for (int i = 0; i < subscriptions.size(); i++) {
+            int day = subscriptions.startDay(i);
+            if (day == SubscriptionColumns.NO_DAY || day < monthStarts[0] || day >= monthStarts[monthsToShow]) {
+                continue;
+            }
+            int month = Arrays.binarySearch(monthStarts, day);
+            centsByMonth[month >= 0 ? month : -month - 2] += subscriptions.amountCents(i);
+        }
+
         List<Map<String, Object>> monthlyData = new ArrayList<>();
         for (int i = monthsToShow - 1; i >= 0; i--) {
-            YearMonth period = YearMonth.from(now).minusMonths(i);
+            YearMonth period = current.minusMonths(i);
             if (period.isBefore(YearMonth.from(startDate))) {
                 continue;
             }
-            double total = subscriptions.stream()
-                    .filter(sub -> sub.getStartDate() != null && YearMonth.from(sub.getStartDate()).equals(period))
-                    .mapToDouble(Subscription::getAmount)
-                    .sum();
             Map<String, Object> monthEntry = new HashMap<>();
             monthEntry.put("month", period.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
             monthEntry.put("year", period.getYear());
-            monthEntry.put("total", round(total));
+            monthEntry.put("total", cents(centsByMonth[monthsToShow - 1 - i]).toDouble());
             monthlyData.add(monthEntry);
         }
         return Map.of("monthlyData", monthlyData);
     }
 
     public Map<String, Object> getCategoryBreakdown(String userId, String dateRange) {
-        List<Subscription> allSubscriptions = subscriptionService.getAllSubscriptions(userId, null, null);
-        List<Subscription> subscriptions = filterByDateRange(allSubscriptions, dateRange);
-        Map<String, Double> categoryTotals = subscriptions.stream()
-                .collect(Collectors.groupingBy(
-                        sub -> sub.getCategory() == null ? "Uncategorized" : sub.getCategory(),
-                        Collectors.summingDouble(Subscription::getAmount)
-                ));
+        return categoryBreakdown(subscriptionService.getSubscriptionColumns(userId), dateRange);
+    }
+
+    public Map<String, Object> categoryBreakdown(List<Subscription> allSubscriptions, String dateRange) {
+        return categoryBreakdown(SubscriptionColumns.of(allSubscriptions), dateRange);
+    }
+
+    public Map<String, Object> categoryBreakdown(SubscriptionColumns allSubscriptions, String dateRange) {
+        return timed("categoryBreakdown", () -> computeCategoryBreakdown(allSubscriptions, dateRange));
+    }
+
+    private Map<String, Object> computeCategoryBreakdown(SubscriptionColumns allSubscriptions, String dateRange) {
+        SubscriptionColumns subscriptions = filterByDateRange(allSubscriptions, dateRange);
+        long[] centsByCode = new long[subscriptions.categories().size()];
+        boolean[] used = new boolean[centsByCode.length];
+        for (int i = 0; i < subscriptions.size(); i++) {
+            centsByCode[subscriptions.categoryCode(i)] += subscriptions.amountCents(i);
+            used[subscriptions.categoryCode(i)] = true;
+        }
+        // A missing category and a literal "Uncategorized" are one slice
+        Map<String, Long> categoryTotals = new LinkedHashMap<>();
+        for (int code = 0; code < centsByCode.length; code++) {
+            if (used[code]) {
+                categoryTotals.merge(categoryLabel(subscriptions.categories().get(code)), centsByCode[code], Long::sum);
+            }
+        }
         List<Map<String, Object>> categories = categoryTotals.entrySet().stream()
                 .map(entry -> {
                     Map<String, Object> item = new HashMap<>();
                     item.put("name", entry.getKey());
-                    item.put("value", round(entry.getValue()));
+                    item.put("value", cents(entry.getValue()).toDouble());
                     return item;
                 })
                 .collect(Collectors.toList());
@@ -189,13 +250,29 @@ public class AnalyticsService {
     }
 
     public Map<String, Object> getBillingCycleAnalysis(String userId, String dateRange) {
-        List<Subscription> allSubscriptions = subscriptionService.getAllSubscriptions(userId, null, null);
-        List<Subscription> subscriptions = filterByDateRange(allSubscriptions, dateRange);
-        Map<String, Long> cycles = subscriptions.stream()
-                .collect(Collectors.groupingBy(
-                        sub -> sub.getBillingCycle() == null ? "monthly" : sub.getBillingCycle(),
-                        Collectors.counting()
-                ));
+        return billingCycleAnalysis(subscriptionService.getSubscriptionColumns(userId), dateRange);
+    }
+
+    public Map<String, Object> billingCycleAnalysis(List<Subscription> allSubscriptions, String dateRange) {
+        return billingCycleAnalysis(SubscriptionColumns.of(allSubscriptions), dateRange);
+    }
+
+    public Map<String, Object> billingCycleAnalysis(SubscriptionColumns allSubscriptions, String dateRange) {
+        return timed("billingCycleAnalysis", () -> computeBillingCycleAnalysis(allSubscriptions, dateRange));
+    }
+
+    private Map<String, Object> computeBillingCycleAnalysis(SubscriptionColumns allSubscriptions, String dateRange) {
+        SubscriptionColumns subscriptions = filterByDateRange(allSubscriptions, dateRange);
+        long[] countByCode = new long[subscriptions.cycles().size()];
+        for (int i = 0; i < subscriptions.size(); i++) {
+            countByCode[subscriptions.cycleCode(i)]++;
+        }
+        Map<String, Long> cycles = new LinkedHashMap<>();
+        for (int code = 0; code < countByCode.length; code++) {
+            if (countByCode[code] > 0) {
+                cycles.merge(cycleLabel(subscriptions.cycles().get(code)), countByCode[code], Long::sum);
+            }
+        }
         List<Map<String, Object>> data = cycles.entrySet().stream()
                 .map(entry -> {
                     Map<String, Object> row = new HashMap<>();
@@ -208,43 +285,100 @@ public class AnalyticsService {
     }
 
     public Map<String, Object> getTopSubscriptions(String userId, String dateRange) {
-        List<Subscription> allSubscriptions = subscriptionService.getAllSubscriptions(userId, null, null);
-        List<Subscription> subscriptions = filterByDateRange(allSubscriptions, dateRange);
-        List<Map<String, Object>> top = subscriptions.stream()
-                .sorted((a, b) -> Double.compare(b.getAmount(), a.getAmount()))
-                .limit(5)
-                .map(sub -> {
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("name", sub.getName());
-                    item.put("amount", round(sub.getAmount()));
-                    item.put("category", sub.getCategory());
-                    return item;
-                })
-                .collect(Collectors.toList());
-        return Map.of("subscriptions", top);
+        return topSubscriptions(subscriptionService.getSubscriptionColumns(userId), dateRange);
+    }
+
+    public Map<String, Object> topSubscriptions(List<Subscription> allSubscriptions, String dateRange) {
+        return topSubscriptions(SubscriptionColumns.of(allSubscriptions), dateRange);
+    }
+
+    public Map<String, Object> topSubscriptions(SubscriptionColumns allSubscriptions, String dateRange) {
+        return timed("topSubscriptions", () -> computeTopSubscriptions(allSubscriptions, dateRange));
+    }
+
+    private Map<String, Object> computeTopSubscriptions(SubscriptionColumns allSubscriptions, String dateRange) {
+        SubscriptionColumns subscriptions = filterByDateRange(allSubscriptions, dateRange);
+        // Rows of the most expensive subscriptions, highest first; ties keep their load order
+        int[] top = new int[Math.min(TOP_SUBSCRIPTIONS, subscriptions.size())];
+        int filled = 0;
+        for (int i = 0; i < subscriptions.size(); i++) {
+            long cents = subscriptions.amountCents(i);
+            int position = filled;
+            while (position > 0 && subscriptions.amountCents(top[position - 1]) < cents) {
+                position--;
+            }
+            if (position == top.length) {
+                continue;
+            }
+            int last = Math.min(filled, top.length - 1);
+            System.arraycopy(top, position, top, position + 1, last - position);
+            top[position] = i;
+            filled = Math.min(filled + 1, top.length);
+        }
+        List<Map<String, Object>> result = new ArrayList<>(filled);
+        for (int k = 0; k < filled; k++) {
+            int row = top[k];
+            Map<String, Object> item = new HashMap<>();
+            item.put("name", subscriptions.name(row));
+            item.put("amount", cents(subscriptions.amountCents(row)).toDouble());
+            item.put("category", subscriptions.categories().get(subscriptions.categoryCode(row)));
+            result.add(item);
+        }
+        return Map.of("subscriptions", result);
     }
 
     public Map<String, Object> getProjections(String userId) {
-        Map<String, Object> overview = getOverview(userId, null);
-        double annualProjection = ((Number) overview.getOrDefault("annualProjection", 0)).doubleValue();
-        double monthlyProjection = annualProjection / 12;
+        return projections(subscriptionService.getSubscriptionColumns(userId));
+    }
+
+    public Map<String, Object> projections(List<Subscription> allSubscriptions) {
+        return projections(SubscriptionColumns.of(allSubscriptions));
+    }
+
+    public Map<String, Object> projections(SubscriptionColumns allSubscriptions) {
+        return timed("projections", () -> computeProjections(allSubscriptions));
+    }
+
+    private Map<String, Object> computeProjections(SubscriptionColumns allSubscriptions) {
+        long[] periodsPerYear = periodsPerYear(allSubscriptions);
+        long annualCents = 0;
+        for (int i = 0; i < allSubscriptions.size(); i++) {
+            annualCents += allSubscriptions.amountCents(i) * periodsPerYear[allSubscriptions.cycleCode(i)];
+        }
+        Money annualProjection = cents(annualCents);
+        Money monthlyProjection = annualProjection.dividedBy(BillingCycle.MONTHS_PER_YEAR);
         Map<String, Object> result = new HashMap<>();
-        result.put("annualProjection", round(annualProjection));
-        result.put("monthlyProjection", round(monthlyProjection));
-        result.put("trend", monthlyProjection > 0 ? "increasing" : "flat");
+        result.put("annualProjection", annualProjection.toDouble());
+        result.put("monthlyProjection", monthlyProjection.toDouble());
+        result.put("trend", monthlyProjection.minorUnits() > 0 ? "increasing" : "flat");
         return result;
     }
 
     public Map<String, Object> getInsights(String userId) {
-        List<Subscription> subscriptions = subscriptionService.getAllSubscriptions(userId, null, null);
+        return insights(subscriptionService.getSubscriptionColumns(userId));
+    }
+
+    public Map<String, Object> insights(List<Subscription> subscriptions) {
+        return insights(SubscriptionColumns.of(subscriptions));
+    }
+
+    public Map<String, Object> insights(SubscriptionColumns subscriptions) {
+        return timed("insights", () -> computeInsights(subscriptions));
+    }
+
+    private Map<String, Object> computeInsights(SubscriptionColumns subscriptions) {
         List<String> insights = new ArrayList<>();
-        if (subscriptions.isEmpty()) {
+        if (subscriptions.size() == 0) {
             insights.add("Add your first subscription to unlock analytics.");
         } else {
             insights.add("You currently manage " + subscriptions.size() + " subscriptions.");
-            double totalSpend = subscriptions.stream().mapToDouble(Subscription::getAmount).sum();
-            insights.add("Average subscription cost is " + round(totalSpend / subscriptions.size()));
-            long renewalsSoon = subscriptionService.getUpcomingSubscriptions(userId, 7).size();
+            long totalCents = 0;
+            for (int i = 0; i < subscriptions.size(); i++) {
+                totalCents += subscriptions.amountCents(i);
+            }
+            insights.add("Average subscription cost is " + cents(totalCents).dividedBy(subscriptions.size()).toDouble());
+            LocalDateTime now = LocalDateTime.now();
+            long renewalsSoon = subscriptions.countRenewingBetween(now, now.plusDays(7));
             if (renewalsSoon > 0) {
                 insights.add(renewalsSoon + " renewals due in the next week.");
             }
@@ -265,7 +399,7 @@ public class AnalyticsService {
                     Map<String, Object> map = new HashMap<>();
                     map.put("id", sub.getId());
                     map.put("name", sub.getName());
-                    map.put("amount", round(sub.getAmount()));
+                    map.put("amount", Money.of(sub.getAmount(), Money.STORAGE_SCALE).toDouble());
                     map.put("billingCycle", sub.getBillingCycle());
                     map.put("category", sub.getCategory());
                     return map;
@@ -275,7 +409,59 @@ public class AnalyticsService {
         return Map.of("comparison", comparison);
     }
 
-    private double round(double value) {
-        return Math.round(value * 100.0) / 100.0;
+    /**
+     * In-memory equivalent of {@code SubscriptionDAO.findUpcoming}: subscriptions renewing between now
+     * and {@code days} days from now, soonest first.
+     */
+    public List<Subscription> upcoming(List<Subscription> subscriptions, int days) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusDays(days);
+        return subscriptions.stream()
+                .filter(sub -> sub.getNextRenewalDate() != null
+                        && !sub.getNextRenewalDate().isBefore(now)
+                        && !sub.getNextRenewalDate().isAfter(horizon))
+                .sorted(Comparator.comparing(Subscription::getNextRenewalDate))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Records a computation under {@code subsentry.analytics.computations}.
+     */
+    private <T> T timed(String computation, Supplier<T> body) {
+        return timers.computeIfAbsent(computation, name -> Timer.builder("subsentry.analytics.computations")
+                        .description("Time to compute an analytics view from loaded subscriptions")
+                        .tag("computation", name)
+                        .register(meterRegistry))
+                .record(body);
+    }
+
+    private static Optional<LocalDate> earliestStart(SubscriptionColumns subscriptions) {
+        int earliest = Integer.MAX_VALUE;
+        for (int i = 0; i < subscriptions.size(); i++) {
+            int day = subscriptions.startDay(i);
+            if (day != SubscriptionColumns.NO_DAY && day < earliest) {
+                earliest = day;
+            }
+        }
+        return earliest == Integer.MAX_VALUE ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(earliest));
+    }
+
+    /**
+     * How often each billing cycle code bills in a year, from the shared {@link BillingCycle} table.
+     */
+    private static long[] periodsPerYear(SubscriptionColumns subscriptions) {
+        return subscriptions.cycles().stream().mapToLong(cycle -> BillingCycle.of(cycle).periodsPerYear()).toArray();
+    }
+
+    private static Money cents(long amountCents) {
+        return Money.ofMinor(amountCents, Money.STORAGE_SCALE);
+    }
+
+    private static String categoryLabel(String category) {
+        return category == null ? "Uncategorized" : category;
+    }
+
+    private static String cycleLabel(String cycle) {
+        return cycle == null ? "monthly" : cycle;
     }
 }
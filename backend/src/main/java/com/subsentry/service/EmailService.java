@@ -1,5 +1,7 @@
 package com.subsentry.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,7 +17,12 @@ public class EmailService {
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     public void sendEmail(String toEmail, String subject, String body) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             SimpleMailMessage message = new SimpleMailMessage();
             message.setFrom("mrmesh69420@gmail.com"); // must match spring.mail.username
@@ -23,10 +30,16 @@ public class EmailService {
             message.setSubject(subject);
             message.setText(body);
             mailSender.send(message);
+            outcome = "success";
             logger.info("Email sent successfully to {}", toEmail);
         } catch (Exception e) {
             logger.error("Failed to send email to {}: {}", toEmail, e.getMessage(), e);
             throw new RuntimeException("Failed to send email: " + e.getMessage(), e);
+        } finally {
+            sample.stop(Timer.builder("subsentry.email.sends")
+                    .description("Duration of outgoing email sends")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
         }
     }
 }
\ No newline at end of file
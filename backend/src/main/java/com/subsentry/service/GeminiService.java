@@ -1,24 +1,42 @@
 package com.subsentry.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.subsentry.client.OutboundHttpClient;
+import com.subsentry.util.JsonCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 @Service
 public class GeminiService {
 
+    private static final Logger logger = LoggerFactory.getLogger(GeminiService.class);
+
     private static final List<String> API_VERSIONS = List.of("v1", "v1beta");
     private static final List<String> MODEL_PRIORITY = List.of(
             "gemini-2.5-flash",
@@ -35,12 +53,35 @@ public class GeminiService {
             "gemini-pro"
     );
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OutboundHttpClient httpClient;
+    private final JsonCodec jsonCodec;
+    private final MeterRegistry meterRegistry;
     private final String apiKey;
+    private final String baseUrl;
+    private final long cacheTtlNanos;
+    private final int cacheMaxEntries;
+
+    // Narratives keyed by a hash of the prompt, so an identical dataset never pays for a second model call
+    private final ConcurrentHashMap<String, CachedSummary> cache = new ConcurrentHashMap<>();
+    // Calls currently talking to Gemini; identical concurrent requests wait on the same future
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    // Version/model pair that answered last, tried first on the next call
+    private final AtomicReference<ModelRoute> preferredRoute = new AtomicReference<>();
 
-    public GeminiService(@Value("${gemini.api.key:}") String apiKey) {
+    public GeminiService(OutboundHttpClient httpClient,
+                         JsonCodec jsonCodec,
+                         MeterRegistry meterRegistry,
+                         @Value("${gemini.api.key:}") String apiKey,
+                         @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com}") String baseUrl,
+                         @Value("${gemini.cache.ttl-seconds:3600}") long cacheTtlSeconds,
+                         @Value("${gemini.cache.max-entries:500}") int cacheMaxEntries) {
+        this.httpClient = httpClient;
+        this.jsonCodec = jsonCodec;
+        this.meterRegistry = meterRegistry;
         this.apiKey = resolveApiKey(apiKey);
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.cacheTtlNanos = TimeUnit.SECONDS.toNanos(cacheTtlSeconds);
+        this.cacheMaxEntries = cacheMaxEntries;
     }
 
     public String generateReportSummary(Map<String, Object> payload) {
@@ -48,7 +89,91 @@ public class GeminiService {
             throw new IllegalStateException("Gemini API key is not configured");
         }
 
+        long started = System.nanoTime();
+        String prompt = buildPrompt(payload);
+        String key = hash(prompt);
+
+        String cached = cachedSummary(key);
+        if (cached != null) {
+            recordSummary("generate", "cache", "success", started);
+            return cached;
+        }
+
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            String outcome = "error";
+            try {
+                String text = await(existing);
+                outcome = "success";
+                return text;
+            } finally {
+                recordSummary("generate", "coalesced", outcome, started);
+            }
+        }
+
+        String outcome = "error";
+        try {
+            // Another leader may have finished between the cache check and claiming the slot
+            String text = cachedSummary(key);
+            if (text == null) {
+                text = requestSummary(prompt);
+                cacheSummary(key, text);
+            }
+            call.complete(text);
+            outcome = "success";
+            return text;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+            recordSummary("generate", "model", outcome, started);
+        }
+    }
+
+    /**
+     * Streams the narrative, passing each text fragment to {@code onChunk} as the model produces it,
+     * and returns the full text. A cached narrative is delivered as a single fragment. Streaming calls
+     * are not coalesced, since every caller needs its own token stream, but the finished text is cached.
+     */
+    public String streamReportSummary(Map<String, Object> payload, Consumer<String> onChunk) {
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new IllegalStateException("Gemini API key is not configured");
+        }
+
+        long started = System.nanoTime();
         String prompt = buildPrompt(payload);
+        String key = hash(prompt);
+
+        String cached = cachedSummary(key);
+        if (cached != null) {
+            onChunk.accept(cached);
+            recordSummary("stream", "cache", "success", started);
+            return cached;
+        }
+
+        String requestBody = requestBody(prompt);
+        // The prompt carries the user's subscriptions and spending, so only its size is logged
+        logger.debug("Streaming Gemini summary for a prompt of {} characters", prompt.length());
+        String outcome = "error";
+        try {
+            String text = withModelRoute(route -> streamModel(route, requestBody, onChunk));
+            cacheSummary(key, text);
+            outcome = "success";
+            return text;
+        } finally {
+            recordSummary("stream", "model", outcome, started);
+        }
+    }
+
+    private String requestSummary(String prompt) {
+        String requestBody = requestBody(prompt);
+        logger.debug("Requesting Gemini summary for a prompt of {} characters", prompt.length());
+        return withModelRoute(route -> callModel(route, requestBody));
+    }
+
+    private String requestBody(String prompt) {
         Map<String, Object> requestBody = Map.of(
                 "contents", List.of(
                         Map.of(
@@ -57,50 +182,157 @@ public class GeminiService {
                         )
                 )
         );
+        return jsonCodec.write(requestBody);
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+    /**
+     * Runs {@code call} against the remembered version/model first, then walks the priority list
+     * until a model answers.
+     */
+    private String withModelRoute(Function<ModelRoute, String> call) {
+        ModelRoute preferred = preferredRoute.get();
+        if (preferred != null) {
+            try {
+                return call.apply(preferred);
+            } catch (ModelNotFoundException nf) {
+                // The model was retired or renamed; forget it and walk the full list again
+                preferredRoute.compareAndSet(preferred, null);
+                logger.debug("Gemini model not found for {}: {}", preferred, nf.getMessage());
+            }
+        }
 
-        System.out.println("Gemini request prompt: " + prompt);
-        HttpClientErrorException lastNotFound = null;
+        ModelNotFoundException lastNotFound = null;
         for (String version : API_VERSIONS) {
             for (String model : MODEL_PRIORITY) {
-                String endpoint = buildEndpoint(version, model);
+                ModelRoute route = new ModelRoute(version, model);
+                if (route.equals(preferred)) {
+                    continue;
+                }
                 try {
-                    ResponseEntity<String> response = restTemplate.exchange(
-                            endpoint + apiKey,
-                            HttpMethod.POST,
-                            entity,
-                            String.class
-                    );
-
-                    System.out.println("Gemini response status (" + version + "/" + model + "): " + response.getStatusCode());
-                    System.out.println("Gemini response body: " + response.getBody());
-
-                    if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-                        throw new IllegalStateException("Gemini API request failed with status " + response.getStatusCode());
-                    }
-
-                    return extractText(response.getBody());
-                } catch (HttpClientErrorException.NotFound nf) {
+                    String text = call.apply(route);
+                    preferredRoute.set(route);
+                    return text;
+                } catch (ModelNotFoundException nf) {
                     lastNotFound = nf;
-                    System.out.println("Gemini model not found for " + version + "/" + model + ": " + nf.getResponseBodyAsString());
-                } catch (HttpClientErrorException ex) {
-                    throw new IllegalStateException("Gemini API error: " + ex.getResponseBodyAsString(), ex);
+                    logger.debug("Gemini model not found for {}: {}", route, nf.getMessage());
                 }
             }
         }
 
         if (lastNotFound != null) {
-            throw new IllegalStateException("Unable to reach any Gemini model. Last error: " + lastNotFound.getResponseBodyAsString(), lastNotFound);
+            throw new IllegalStateException("Unable to reach any Gemini model. Last error: " + lastNotFound.getMessage(), lastNotFound);
         }
 
         throw new IllegalStateException("Unable to reach any Gemini model. No additional error details.");
     }
 
-    private String buildEndpoint(String version, String model) {
-        return "https://generativelanguage.googleapis.com/" + version + "/models/" + model + ":generateContent?key=";
+    private String callModel(ModelRoute route, String body) {
+        HttpResponse<String> response = httpClient.postJson(
+                URI.create(buildEndpoint(route, "generateContent") + "?key=" + apiKey), body);
+
+        logger.debug("Gemini response status ({}): {}", route, response.statusCode());
+        checkStatus(response);
+        if (response.body() == null) {
+            throw new IllegalStateException("Gemini API request failed with status " + response.statusCode());
+        }
+        return extractText(response.body());
+    }
+
+    private String streamModel(ModelRoute route, String body, Consumer<String> onChunk) {
+        StringBuilder text = new StringBuilder();
+        HttpResponse<String> response = httpClient.postJsonStreaming(
+                URI.create(buildEndpoint(route, "streamGenerateContent") + "?alt=sse&key=" + apiKey), body,
+                line -> {
+                    // Server-sent events: every "data:" line carries one partial GenerateContentResponse
+                    if (!line.startsWith("data:")) {
+                        return;
+                    }
+                    String chunk = extractText(line.substring(5).trim());
+                    if (!chunk.isEmpty()) {
+                        text.append(chunk);
+                        onChunk.accept(chunk);
+                    }
+                });
+
+        logger.debug("Gemini stream status ({}): {}", route, response.statusCode());
+        checkStatus(response);
+        return text.toString();
+    }
+
+    private void checkStatus(HttpResponse<String> response) {
+        if (response.statusCode() == 404) {
+            throw new ModelNotFoundException(response.body());
+        }
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new IllegalStateException("Gemini API error: " + response.body());
+        }
+    }
+
+    private String await(CompletableFuture<String> call) {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Gemini response", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Gemini request failed", e.getCause());
+        }
+    }
+
+    private String cachedSummary(String key) {
+        CachedSummary entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtNanos() - System.nanoTime() <= 0) {
+            cache.remove(key, entry);
+            return null;
+        }
+        return entry.text();
+    }
+
+    private void cacheSummary(String key, String text) {
+        if (cacheTtlNanos <= 0 || cacheMaxEntries <= 0 || text == null || text.isBlank()) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (cache.size() >= cacheMaxEntries) {
+            cache.values().removeIf(entry -> entry.expiresAtNanos() - now <= 0);
+        }
+        while (cache.size() >= cacheMaxEntries) {
+            cache.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().expiresAtNanos() - now))
+                    .ifPresent(oldest -> cache.remove(oldest.getKey(), oldest.getValue()));
+        }
+        cache.put(key, new CachedSummary(text, now + cacheTtlNanos));
+    }
+
+    /**
+     * One timer per narrative request, including cache hits and callers that joined an in-flight
+     * call; the HTTP attempts themselves are timed by {@link OutboundHttpClient}.
+     */
+    private void recordSummary(String mode, String source, String outcome, long startedNanos) {
+        Timer.builder("subsentry.gemini.summaries")
+                .description("Time to produce an AI report narrative")
+                .tags("mode", mode, "source", source, "outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String hash(String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(prompt.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String buildEndpoint(ModelRoute route, String method) {
+        return baseUrl + "/" + route.version() + "/models/" + route.model() + ":" + method;
     }
 
     private String resolveApiKey(String configuredKey) {
@@ -115,7 +347,7 @@ public class GeminiService {
 
         String fromFile = loadFromEnvFile();
         if (fromFile != null && !fromFile.isBlank()) {
-            System.out.println("Loaded GEMINI_API_KEY from .env file");
+            logger.debug("Loaded GEMINI_API_KEY from .env file");
             return fromFile.trim();
         }
 
@@ -150,7 +382,7 @@ public class GeminiService {
 
     private String extractText(String body) {
         try {
-            JsonNode root = objectMapper.readTree(body);
+            JsonNode root = jsonCodec.readTree(body);
             return root.path("candidates")
                     .path(0)
                     .path("content")
@@ -169,7 +401,7 @@ public class GeminiService {
         String startDate = String.valueOf(payload.getOrDefault("startDate", "N/A"));
         String endDate = String.valueOf(payload.getOrDefault("endDate", "N/A"));
         String categories = serializeCategories(payload.get("categories"));
-        String analyticsJson = stringify(payload.get("analyticsContext"));
+        String analyticsJson = stringify(withoutTimestamp(payload.get("analyticsContext")));
 
         return """
                 You are SubSentry's senior subscription analyst. Using the structured analytics JSON below, craft a comprehensive %s report titled "%s" covering %s to %s.
@@ -194,6 +426,19 @@ public class GeminiService {
                 """.formatted(type, name, startDate, endDate, analyticsJson, categories);
     }
 
+    /**
+     * The context carries a generation timestamp that changes on every call; leaving it out of the
+     * prompt keeps identical datasets on the same cache key.
+     */
+    private Object withoutTimestamp(Object context) {
+        if (context instanceof Map<?, ?> map && map.containsKey("generatedAt")) {
+            Map<Object, Object> copy = new LinkedHashMap<>(map);
+            copy.remove("generatedAt");
+            return copy;
+        }
+        return context;
+    }
+
     private String serializeCategories(Object value) {
         if (value instanceof List<?> list && !list.isEmpty()) {
             return String.join(", ", list.stream().map(String::valueOf).toList());
@@ -206,10 +451,24 @@ public class GeminiService {
             return "{}";
         }
         try {
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(value);
-        } catch (JsonProcessingException e) {
+            return jsonCodec.writePretty(value);
+        } catch (IllegalStateException e) {
             return String.valueOf(value);
         }
     }
-}
 
+    private record ModelRoute(String version, String model) {
+        @Override
+        public String toString() {
+            return version + "/" + model;
+        }
+    }
+
+    private record CachedSummary(String text, long expiresAtNanos) {}
+
+    private static class ModelNotFoundException extends RuntimeException {
+        ModelNotFoundException(String responseBody) {
+            super(responseBody);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.subsentry.model.Notification;
 import com.subsentry.model.User;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,16 +14,54 @@ import java.util.Map;
 @Service
 public class NotificationService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final NotificationDAO notificationDAO;
     private final UserDAO userDAO;
+    private final NotificationStreamService notificationStreamService;
 
-    public NotificationService(NotificationDAO notificationDAO, UserDAO userDAO) {
+    public NotificationService(NotificationDAO notificationDAO,
+                               UserDAO userDAO,
+                               NotificationStreamService notificationStreamService) {
         this.notificationDAO = notificationDAO;
         this.userDAO = userDAO;
+        this.notificationStreamService = notificationStreamService;
+    }
+
+    public List<Notification> getNotifications(String userId, String beforeId, int limit) {
+        return notificationDAO.findPage(userId, beforeId, pageSize(limit));
+    }
+
+    /**
+     * The number of rows a page request for {@code limit} actually fetches, between 1 and {@link #MAX_PAGE_SIZE}.
+     */
+    public static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    public int getUnreadCount(String userId) {
+        return notificationDAO.countUnread(userId);
     }
 
-    public List<Notification> getNotifications(String userId) {
-        return notificationDAO.findByUserId(userId);
+    /**
+     * Removes notifications older than the cutoff in small batches, pausing between batches.
+     */
+    public int purgeOlderThan(LocalDateTime cutoff, int batchSize, long pauseMs) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = notificationDAO.deleteOlderThan(cutoff, batchSize);
+            total += deleted;
+            if (deleted == batchSize && pauseMs > 0) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } while (deleted == batchSize);
+        return total;
     }
 
     public void markAsRead(String userId, String id) {
@@ -74,6 +113,26 @@ public class NotificationService {
         return preferences;
     }
 
+    public Notification createNotification(String userId, String type, String title, String message, String actionLink) {
+        Notification notification = new Notification();
+        notification.setUserId(userId);
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setActionLink(actionLink);
+        notification.setRead(false);
+        return save(notification);
+    }
+
+    /**
+     * Writes a batch of notifications with one bulk insert and pushes them to connected clients.
+     */
+    public List<Notification> createAll(List<Notification> notifications) {
+        List<Notification> saved = notificationDAO.saveAll(notifications);
+        notificationStreamService.publishAll(saved);
+        return saved;
+    }
+
     public void testNotification(String userId, String type) {
         Notification notification = new Notification();
         notification.setUserId(userId);
@@ -81,7 +140,13 @@ public class NotificationService {
         notification.setTitle("Test Notification");
         notification.setMessage("Notifications are configured correctly.");
         notification.setRead(false);
-        notificationDAO.save(notification);
+        save(notification);
+    }
+
+    private Notification save(Notification notification) {
+        Notification saved = notificationDAO.save(notification);
+        notificationStreamService.publish(saved);
+        return saved;
     }
 
     private boolean getBoolean(Object value, boolean defaultValue) {
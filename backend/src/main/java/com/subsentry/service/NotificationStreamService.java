@@ -0,0 +1,227 @@
+package com.subsentry.service;
+
+import com.subsentry.dao.NotificationDAO;
+import com.subsentry.model.Notification;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes notifications to connected browsers over Server-Sent Events.
+ *
+ * Each user can hold several connections (tabs). Every connection owns a bounded buffer that is drained
+ * on a small worker pool, so a slow client never blocks the thread that created the notification. A client
+ * whose buffer overflows is disconnected; the browser reconnects with {@code Last-Event-ID} and the
+ * missed notifications are replayed from the database, or, when more were missed than one buffer holds,
+ * the client is told to reload.
+ */
+@Service
+public class NotificationStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStreamService.class);
+    private static final String EVENT_NAME = "notification";
+    private static final String RESYNC_EVENT_NAME = "resync";
+
+    private final NotificationDAO notificationDAO;
+    private final TaskExecutor executor;
+    private final long timeoutMs;
+    private final long reconnectMs;
+    private final int bufferSize;
+    private final long sendTimeoutNanos;
+    private final Map<String, Set<Connection>> connections = new ConcurrentHashMap<>();
+
+    public NotificationStreamService(NotificationDAO notificationDAO,
+                                     @Qualifier("notificationStreamExecutor") TaskExecutor executor,
+                                     @Value("${notification.stream.timeout-ms:1800000}") long timeoutMs,
+                                     @Value("${notification.stream.reconnect-ms:3000}") long reconnectMs,
+                                     @Value("${notification.stream.buffer-size:100}") int bufferSize,
+                                     @Value("${notification.stream.send-timeout-ms:10000}") long sendTimeoutMs,
+                                     MeterRegistry meterRegistry) {
+        this.notificationDAO = notificationDAO;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+        this.reconnectMs = reconnectMs;
+        this.bufferSize = bufferSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        meterRegistry.gauge("subsentry.notifications.stream.connections", connections,
+                registry -> registry.values().stream().mapToInt(Set::size).sum());
+    }
+
+    public SseEmitter subscribe(String userId, String lastEventId) {
+        SseEmitter emitter = newEmitter();
+        Connection connection = new Connection(userId, emitter, bufferSize);
+        connections.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(connection);
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(error -> remove(connection));
+
+        connection.offer(SseEmitter.event().reconnectTime(reconnectMs).comment("connected"));
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            // Registered before replaying, so nothing created in between is lost; the client drops duplicates by id
+            replay(connection, lastEventId);
+        }
+        schedule(connection);
+        return emitter;
+    }
+
+    /**
+     * Queues what the client missed after {@code lastEventId}. When that does not fit in the buffer the
+     * client is sent a {@code resync} event instead and reloads its list and unread count.
+     */
+    private void replay(Connection connection, String lastEventId) {
+        int replayLimit = bufferSize - 1;
+        List<Notification> missed = notificationDAO.findCreatedSince(connection.userId, lastEventId, replayLimit + 1);
+        boolean replayed = missed.size() <= replayLimit;
+        for (int i = 0; replayed && i < missed.size(); i++) {
+            replayed = connection.offer(toEvent(missed.get(i)));
+        }
+        if (!replayed) {
+            // Whatever was queued is covered by the reload
+            connection.buffer.clear();
+            connection.offer(SseEmitter.event().reconnectTime(reconnectMs).name(RESYNC_EVENT_NAME).data(lastEventId));
+        }
+    }
+
+    public void publish(Notification notification) {
+        Set<Connection> userConnections = connections.get(notification.getUserId());
+        if (userConnections == null || userConnections.isEmpty()) {
+            return;
+        }
+        for (Connection connection : userConnections) {
+            if (connection.offer(toEvent(notification))) {
+                schedule(connection);
+            } else {
+                logger.debug("Notification buffer full for user {}, closing stream", connection.userId);
+                close(connection);
+            }
+        }
+    }
+
+    public void publishAll(List<Notification> notifications) {
+        notifications.forEach(this::publish);
+    }
+
+    /**
+     * Also disconnects clients whose current send has been blocked longer than
+     * {@code notification.stream.send-timeout-ms}, so a stalled client stops taking a drain thread.
+     */
+    @Scheduled(fixedRateString = "${notification.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        long now = System.nanoTime();
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                long sendStarted = connection.sendStartedNanos;
+                if (sendStarted != 0 && now - sendStarted > sendTimeoutNanos) {
+                    logger.debug("Notification stream for user {} stalled on a send, closing it", connection.userId);
+                    close(connection);
+                    continue;
+                }
+                // Heartbeats are best-effort; a full buffer already means the client is behind
+                if (connection.offer(SseEmitter.event().comment("heartbeat"))) {
+                    schedule(connection);
+                }
+            }
+        }
+    }
+
+    /**
+     * The emitter behind one connection. Tests substitute one that records what is sent.
+     */
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private SseEmitter.SseEventBuilder toEvent(Notification notification) {
+        return SseEmitter.event()
+                .id(notification.getId())
+                .name(EVENT_NAME)
+                .data(notification, MediaType.APPLICATION_JSON);
+    }
+
+    private void schedule(Connection connection) {
+        if (!connection.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> drain(connection));
+        } catch (RejectedExecutionException e) {
+            connection.draining.set(false);
+            close(connection);
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = connection.buffer.poll()) != null) {
+                // Blocks while the client's TCP window is full, at most for Tomcat's write timeout
+                connection.sendStartedNanos = System.nanoTime();
+                connection.emitter.send(event);
+                connection.sendStartedNanos = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            remove(connection);
+            return;
+        } finally {
+            connection.sendStartedNanos = 0;
+            connection.draining.set(false);
+        }
+        // An event may have been queued after the last poll but before the flag was cleared
+        if (!connection.buffer.isEmpty()) {
+            schedule(connection);
+        }
+    }
+
+    private void close(Connection connection) {
+        remove(connection);
+        try {
+            connection.emitter.complete();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private void remove(Connection connection) {
+        connections.computeIfPresent(connection.userId, (key, set) -> {
+            set.remove(connection);
+            return set.isEmpty() ? null : set;
+        });
+        connection.buffer.clear();
+    }
+
+    private static final class Connection {
+        private final String userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private volatile long sendStartedNanos;
+
+        private Connection(String userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private boolean offer(SseEmitter.SseEventBuilder event) {
+            return buffer.offer(event);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.subsentry.service;
+
+import com.subsentry.dao.PartitionDAO;
+import com.subsentry.dao.ReportDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of {@code notifications}, {@code generated_reports} and
+ * {@code generated_report_contents} ahead of time and applies retention by dropping whole months.
+ *
+ * Months that end before the retention cutoff are dropped as partitions, which is instant however many
+ * rows they hold. Rows in the month the cutoff falls in are then deleted in small batches, so retention
+ * stays exact to the day.
+ */
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+
+    private final PartitionDAO partitionDAO;
+    private final ReportDAO reportDAO;
+    private final NotificationService notificationService;
+    private final int monthsAhead;
+    private final int notificationRetentionDays;
+    private final int reportRetentionDays;
+    private final int retentionBatchSize;
+    private final long retentionPauseMs;
+
+    public PartitionMaintenanceService(
+            PartitionDAO partitionDAO,
+            ReportDAO reportDAO,
+            NotificationService notificationService,
+            @Value("${db.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${notification.retention-days:90}") int notificationRetentionDays,
+            @Value("${report.retention-days:30}") int reportRetentionDays,
+            @Value("${notification.retention.batch-size:1000}") int retentionBatchSize,
+            @Value("${notification.retention.pause-ms:100}") long retentionPauseMs) {
+        this.partitionDAO = partitionDAO;
+        this.reportDAO = reportDAO;
+        this.notificationService = notificationService;
+        this.monthsAhead = monthsAhead;
+        this.notificationRetentionDays = notificationRetentionDays;
+        this.reportRetentionDays = reportRetentionDays;
+        this.retentionBatchSize = retentionBatchSize;
+        this.retentionPauseMs = retentionPauseMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitionsOnStartup() {
+        try {
+            ensureFuturePartitions();
+        } catch (Exception e) {
+            logger.error("Failed to prepare upcoming partitions", e);
+        }
+    }
+
+    /**
+     * Add upcoming partitions and apply notification and report retention.
+     * Runs daily at 3:30 AM.
+     */
+    @Scheduled(cron = "0 30 3 * * *") // Every day at 3:30 AM
+    public void runMaintenance() {
+        logger.info("Starting partition maintenance and retention cleanup...");
+        try {
+            ensureFuturePartitions();
+
+            LocalDateTime notificationCutoff = LocalDateTime.now().minusDays(notificationRetentionDays);
+            int droppedNotifications = dropExpiredPartitions("notifications", notificationCutoff);
+            int deletedNotifications = notificationService.purgeOlderThan(
+                    notificationCutoff, retentionBatchSize, retentionPauseMs);
+
+            LocalDateTime reportCutoff = LocalDateTime.now().minusDays(reportRetentionDays);
+            reportDAO.clearScheduleLinksOlderThan(reportCutoff);
+            int droppedReports = dropExpiredPartitions("generated_reports", reportCutoff);
+            dropExpiredPartitions("generated_report_contents", reportCutoff);
+            int deletedReports = purgeReportsOlderThan(reportCutoff);
+
+            logger.info("Retention cleanup completed. Notifications: dropped {} partition(s), deleted {} row(s) older than {}. "
+                            + "Reports: dropped {} partition(s), deleted {} row(s) older than {}.",
+                    droppedNotifications, deletedNotifications, notificationCutoff,
+                    droppedReports, deletedReports, reportCutoff);
+        } catch (Exception e) {
+            logger.error("Error during partition maintenance", e);
+        }
+    }
+
+    void ensureFuturePartitions() {
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+        for (String table : PartitionDAO.PARTITIONED_TABLES) {
+            if (!partitionDAO.isPartitioned(table)) {
+                logger.warn("Table {} is not partitioned; skipping partition maintenance", table);
+                continue;
+            }
+            List<YearMonth> missing = new ArrayList<>();
+            YearMonth next = partitionDAO.findCoveredUntil(table)
+                    .map(YearMonth::from)
+                    .orElse(YearMonth.now());
+            for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+                missing.add(month);
+            }
+            if (!missing.isEmpty()) {
+                partitionDAO.addMonthlyPartitions(table, missing);
+                logger.info("Added {} monthly partition(s) to {} through {}", missing.size(), table, last);
+            }
+        }
+    }
+
+    private int dropExpiredPartitions(String table, LocalDateTime cutoff) {
+        if (!partitionDAO.isPartitioned(table)) {
+            return 0;
+        }
+        List<String> expired = partitionDAO.findPartitionsEndingBy(table, cutoff);
+        partitionDAO.dropPartitions(table, expired);
+        return expired.size();
+    }
+
+    private int purgeReportsOlderThan(LocalDateTime cutoff) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = reportDAO.deleteOlderThan(cutoff, retentionBatchSize);
+            total += deleted;
+            if (deleted == retentionBatchSize && retentionPauseMs > 0) {
+                try {
+                    Thread.sleep(retentionPauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } while (deleted == retentionBatchSize);
+        return total;
+    }
+}
@@ -1,8 +1,14 @@
 package com.subsentry.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.subsentry.model.BillingCycle;
+import com.subsentry.util.JsonCodec;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.stereotype.Service;
@@ -38,7 +44,10 @@ public class PythonReportService {
     private final String scriptPath;
     private final String outputDir;
     private final Duration processTimeout;
-    private final ObjectMapper objectMapper;
+    private final JsonCodec jsonCodec;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    private final Propagator propagator;
 
     private final String dbHost;
     private final int dbPort;
@@ -53,14 +62,20 @@ public class PythonReportService {
             @Value("${reports.python.output-dir:${java.io.tmpdir}/subsentry-python-reports}") String outputDir,
             @Value("${reports.python.timeout-ms:90000}") long timeoutMs,
             DataSourceProperties dataSourceProperties,
-            ObjectMapper objectMapper
+            JsonCodec jsonCodec,
+            MeterRegistry meterRegistry,
+            Tracer tracer,
+            Propagator propagator
     ) {
         this.enabled = enabled;
         this.pythonCommand = resolvePythonCommand(pythonCommand);
         this.scriptPath = resolveScriptPath(scriptPath);
         this.outputDir = outputDir;
         this.processTimeout = Duration.ofMillis(timeoutMs);
-        this.objectMapper = objectMapper;
+        this.jsonCodec = jsonCodec;
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+        this.propagator = propagator;
 
         this.dbUser = Optional.ofNullable(dataSourceProperties.getUsername()).orElse("");
         this.dbPassword = Optional.ofNullable(dataSourceProperties.getPassword()).orElse("");
@@ -156,16 +171,32 @@ public class PythonReportService {
         System.out.println("  Working directory: " + workingDir.getAbsolutePath());
         
         builder.command(finalCommand);
-
+        // Normalise billing cycles with the same factors as the analytics endpoints
+        builder.environment().put("SUBSENTRY_BILLING_CYCLES", BillingCycle.table());
+
+        long started = System.nanoTime();
+        String exitTag = "none";
+        Span span = tracer.nextSpan().name("python.report")
+                .tag("report_type", mappedType)
+                .start();
+        // The script logs under the caller's trace id, read from TRACEPARENT
+        propagator.inject(span.context(), builder.environment(),
+                (environment, key, value) -> environment.put(key.toUpperCase(Locale.ENGLISH), value));
         try {
             Process process = builder.start();
+            Timer.builder("subsentry.python.report.spawn")
+                    .description("Time to start the Python report process")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, java.util.concurrent.TimeUnit.NANOSECONDS);
             boolean finished = process.waitFor(processTimeout.toMillis(), java.util.concurrent.TimeUnit.MILLISECONDS);
             if (!finished) {
                 process.destroyForcibly();
+                exitTag = "timeout";
                 throw new IllegalStateException("Python reporter timed out after " + processTimeout.toSeconds() + " seconds");
             }
             String output = processOutput(process);
             int exitCode = process.exitValue();
+            exitTag = String.valueOf(exitCode);
             
             System.out.println("Python script exit code: " + exitCode);
             System.out.println("Python script output:\n" + output);
@@ -180,7 +211,13 @@ public class PythonReportService {
                 throw new IllegalStateException("Python reporter did not return valid JSON. Output: " + output);
             }
             
-            JsonNode root = objectMapper.readTree(jsonOutput);
+            JsonNode root;
+            try {
+                root = jsonCodec.readTree(jsonOutput);
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("Failed to parse Python reporter JSON output: "
+                        + e.getCause().getMessage(), e);
+            }
             String status = root.path("status").asText();
             if (!"success".equalsIgnoreCase(status)) {
                 String message = root.path("message").asText("Report generation failed");
@@ -190,23 +227,37 @@ public class PythonReportService {
             if (filename == null || filename.isEmpty()) {
                 throw new IllegalStateException("Python reporter did not return a filename");
             }
-            Map<String, Object> data = objectMapper.convertValue(
-                    root.path("data"),
-                    new TypeReference<Map<String, Object>>() {}
-            );
+            Map<String, Object> data = jsonCodec.toMap(root.path("data"));
             return new PythonReportResult(filename, mappedType, data);
-        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
-            throw new IllegalStateException("Failed to parse Python reporter JSON output: " + e.getMessage(), e);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            span.error(e);
             throw new IllegalStateException("Python reporter execution was interrupted: " + e.getMessage(), e);
         } catch (IOException e) {
+            span.error(e);
             throw new IllegalStateException("Failed to execute Python reporter: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.tag("exit_code", exitTag);
+            span.end();
+            Timer.builder("subsentry.python.report.runs")
+                    .description("Duration of Python report runs, from spawn to parsed output")
+                    .tags("report_type", mappedType, "exit_code", exitTag)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, java.util.concurrent.TimeUnit.NANOSECONDS);
         }
     }
 
     private String processOutput(Process process) throws IOException {
-        String stdout = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        byte[] stdoutBytes = process.getInputStream().readAllBytes();
+        DistributionSummary.builder("subsentry.python.report.stdout")
+                .description("Size of the Python report process output")
+                .baseUnit("bytes")
+                .register(meterRegistry)
+                .record(stdoutBytes.length);
+        String stdout = new String(stdoutBytes, StandardCharsets.UTF_8).trim();
         String stderr = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8).trim();
         if (StringUtils.hasText(stderr)) {
             stdout = stdout + (stdout.isEmpty() ? "" : System.lineSeparator()) + stderr;
@@ -249,9 +300,9 @@ public class PythonReportService {
         
         // Validate it's JSON by trying to parse it
         try {
-            objectMapper.readTree(jsonCandidate);
+            jsonCodec.readTree(jsonCandidate);
             return jsonCandidate;
-        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+        } catch (IllegalStateException e) {
             // If parsing fails, return the whole output trimmed
             return output.trim();
         }
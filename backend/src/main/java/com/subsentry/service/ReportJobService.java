@@ -0,0 +1,170 @@
+package com.subsentry.service;
+
+import com.subsentry.dao.ReportDAO;
+import com.subsentry.model.GeneratedReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs report generation as background jobs.
+ *
+ * A submitted report is persisted as {@code pending} and returned immediately. A worker then moves it
+ * through {@code running} to {@code completed} or {@code failed}; clients poll the status endpoint and
+ * also receive an in-app notification when the job finishes.
+ *
+ * Each job row records the instance that queued it. On startup an instance fails only its own jobs
+ * that were interrupted, so a restart never touches jobs another instance is still working on.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private final ReportService reportService;
+    private final ReportDAO reportDAO;
+    private final NotificationService notificationService;
+    private final TaskExecutor executor;
+    private final String instanceId;
+    private final int retryAfterSeconds;
+
+    public ReportJobService(ReportService reportService,
+                            ReportDAO reportDAO,
+                            NotificationService notificationService,
+                            @Qualifier("reportJobExecutor") TaskExecutor executor,
+                            @Value("${reports.jobs.instance-id:}") String instanceId,
+                            @Value("${reports.jobs.retry-after-seconds:30}") int retryAfterSeconds) {
+        this.reportService = reportService;
+        this.reportDAO = reportDAO;
+        this.notificationService = notificationService;
+        this.executor = executor;
+        this.instanceId = instanceId == null || instanceId.isBlank() ? hostName() : instanceId;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Queues a report and returns it as saved. The worker renders into its own copy, so the returned
+     * report never changes after this call.
+     *
+     * @throws QueueFullException when the job queue has no room
+     */
+    public GeneratedReport submit(String userId, Map<String, Object> reportData) {
+        GeneratedReport report = reportDAO.save(reportService.createPendingReport(userId, reportData), instanceId);
+        GeneratedReport job = copyOf(report);
+        Map<String, Object> request = new LinkedHashMap<>(reportData);
+        try {
+            executor.execute(() -> run(job, request));
+        } catch (RejectedExecutionException e) {
+            markFailed(report, "Report queue is full");
+            throw new QueueFullException(retryAfterSeconds, e);
+        }
+        return report;
+    }
+
+    public Map<String, Object> getStatus(String userId, String id) {
+        Optional<String> status = reportDAO.findStatus(userId, id);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", id);
+        result.put("status", status.orElse("not_found"));
+        if (status.isPresent() && "failed".equals(status.get())) {
+            result.put("error", reportDAO.findContentField(userId, id, "error").orElse(null));
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        try {
+            int reset = reportDAO.failInterruptedJobs(instanceId);
+            if (reset > 0) {
+                logger.warn("Marked {} interrupted report job(s) of instance {} as failed", reset, instanceId);
+            }
+        } catch (Exception e) {
+            logger.error("Unable to reset interrupted report jobs", e);
+        }
+    }
+
+    private void run(GeneratedReport report, Map<String, Object> reportData) {
+        try {
+            reportDAO.updateStatus(report.getUserId(), report.getId(), "running");
+            report.setStatus("running");
+            reportService.renderReport(report, reportData);
+            report.setStatus("completed");
+            reportDAO.update(report);
+            notifyOwner(report, "Report ready", "Your report \"" + report.getName() + "\" is ready to download.");
+        } catch (Exception e) {
+            logger.error("Report job {} failed", report.getId(), e);
+            markFailed(report, e.getMessage());
+            notifyOwner(report, "Report failed", "Your report \"" + report.getName() + "\" could not be generated.");
+        }
+    }
+
+    private void markFailed(GeneratedReport report, String reason) {
+        report.setStatus("failed");
+        report.setContent(Map.of("error", reason == null ? "Report generation failed" : reason));
+        try {
+            reportDAO.update(report);
+        } catch (Exception e) {
+            logger.error("Unable to record failure for report job {}", report.getId(), e);
+        }
+    }
+
+    private static GeneratedReport copyOf(GeneratedReport report) {
+        GeneratedReport copy = new GeneratedReport();
+        copy.setId(report.getId());
+        copy.setUserId(report.getUserId());
+        copy.setName(report.getName());
+        copy.setType(report.getType());
+        copy.setFormat(report.getFormat());
+        copy.setStatus(report.getStatus());
+        copy.setFilters(report.getFilters() == null ? null : new LinkedHashMap<>(report.getFilters()));
+        copy.setContent(report.getContent() == null ? null : new LinkedHashMap<>(report.getContent()));
+        copy.setCreatedAt(report.getCreatedAt());
+        return copy;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot determine the host name; set reports.jobs.instance-id", e);
+        }
+    }
+
+    private void notifyOwner(GeneratedReport report, String title, String message) {
+        try {
+            notificationService.createNotification(report.getUserId(), "report", title, message, "/reports");
+        } catch (Exception e) {
+            logger.warn("Unable to notify user {} about report {}", report.getUserId(), report.getId(), e);
+        }
+    }
+
+    /**
+     * The report job queue is full; the client should retry after {@link #getRetryAfterSeconds()}.
+     */
+    public static class QueueFullException extends IllegalStateException {
+
+        private final int retryAfterSeconds;
+
+        QueueFullException(int retryAfterSeconds, Throwable cause) {
+            super("Too many reports are being generated right now. Please retry shortly.", cause);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+}
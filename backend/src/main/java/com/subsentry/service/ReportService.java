@@ -1,7 +1,5 @@
 package com.subsentry.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lowagie.text.Chunk;
 import com.lowagie.text.Document;
 import com.lowagie.text.DocumentException;
@@ -12,9 +10,18 @@ import com.lowagie.text.Paragraph;
 import com.lowagie.text.pdf.PdfWriter;
 import com.subsentry.dao.ReportDAO;
 import com.subsentry.dao.ScheduledReportDAO;
+import com.subsentry.jdbc.TransactionRunner;
+import com.subsentry.model.BillingCycle;
 import com.subsentry.model.GeneratedReport;
+import com.subsentry.model.Money;
 import com.subsentry.model.ScheduledReport;
 import com.subsentry.model.Subscription;
+import com.subsentry.model.SubscriptionColumns;
+import com.subsentry.util.JsonCodec;
+import com.subsentry.util.UuidV7;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
@@ -32,13 +39,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
+
     private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     private final SubscriptionService subscriptionService;
     private final AnalyticsService analyticsService;
@@ -46,19 +59,28 @@ public class ReportService {
     private final ScheduledReportDAO scheduledReportDAO;
     private final GeminiService geminiService;
     private final PythonReportService pythonReportService;
+    private final Executor analyticsExecutor;
+    private final JsonCodec jsonCodec;
+    private final TransactionRunner transactionRunner;
 
     public ReportService(SubscriptionService subscriptionService,
                          AnalyticsService analyticsService,
                          ReportDAO reportDAO,
                          ScheduledReportDAO scheduledReportDAO,
                          GeminiService geminiService,
-                         PythonReportService pythonReportService) {
+                         PythonReportService pythonReportService,
+                         @Qualifier("analyticsContextExecutor") Executor analyticsExecutor,
+                         JsonCodec jsonCodec,
+                         TransactionRunner transactionRunner) {
         this.subscriptionService = subscriptionService;
         this.analyticsService = analyticsService;
         this.reportDAO = reportDAO;
         this.scheduledReportDAO = scheduledReportDAO;
         this.geminiService = geminiService;
         this.pythonReportService = pythonReportService;
+        this.analyticsExecutor = analyticsExecutor;
+        this.jsonCodec = jsonCodec;
+        this.transactionRunner = transactionRunner;
     }
 
     public List<GeneratedReport> getReports(String userId) {
@@ -66,24 +88,65 @@ public class ReportService {
     }
 
     public GeneratedReport generateReport(String userId, Map<String, Object> reportData) {
+        GeneratedReport report = createPendingReport(userId, reportData);
+        report.setId(UuidV7.generate());
+        renderReport(report, reportData);
+        report.setStatus("completed");
+        return reportDAO.save(report);
+    }
+
+    /**
+     * Generates the report for a due schedule, then saves it and moves the schedule to its next run in one
+     * transaction, so a failure cannot leave the report saved while the schedule stays due. Rendering
+     * happens before the transaction starts.
+     */
+    public GeneratedReport generateScheduledReport(ScheduledReport schedule, Map<String, Object> reportData) {
+        GeneratedReport report = createPendingReport(schedule.getUserId(), reportData);
+        report.setId(UuidV7.generate());
+        renderReport(report, reportData);
+        report.setStatus("completed");
+        schedule.setNextRun(calculateNextRun(schedule.getFrequency(), schedule.getDayOfPeriod()));
+        return transactionRunner.inTransaction(() -> {
+            GeneratedReport saved = reportDAO.save(report);
+            scheduledReportDAO.update(schedule);
+            return saved;
+        });
+    }
+
+    /**
+     * Builds the report row that is persisted before rendering starts, so clients can poll its status.
+     */
+    public GeneratedReport createPendingReport(String userId, Map<String, Object> reportData) {
         String type = String.valueOf(reportData.getOrDefault("type", "summary"));
+        GeneratedReport report = new GeneratedReport();
+        report.setUserId(userId);
+        report.setName((String) reportData.getOrDefault("name", "Generated Report"));
+        report.setType(type);
+        report.setFormat(String.valueOf(reportData.getOrDefault("format", "pdf")));
+        report.setStatus("pending");
+        report.setFilters(extractFilters(reportData));
+        report.setContent(Map.of());
+        return report;
+    }
+
+    /**
+     * Renders the report content into the given report. The report must already carry its id,
+     * which the Python engine uses to name the output file.
+     */
+    public void renderReport(GeneratedReport report, Map<String, Object> reportData) {
+        String userId = report.getUserId();
+        String type = report.getType();
         if (pythonReportService.isEnabled() && pythonReportService.supports(type)) {
-            String reportId = java.util.UUID.randomUUID().toString();
             PythonReportService.PythonReportResult pythonResult = pythonReportService.generateReport(
-                    reportId,
+                    report.getId(),
                     userId,
                     type
             );
-            GeneratedReport report = new GeneratedReport();
-            report.setId(reportId);
-            report.setUserId(userId);
             report.setName((String) reportData.getOrDefault("name", type + " report"));
-            report.setType(type);
             report.setFormat("pdf");
-            report.setStatus("completed");
             report.setFilters(reportData);
             report.setContent(pythonResult.toContentMap());
-            return reportDAO.save(report);
+            return;
         }
 
         Map<String, Object> filters = extractFilters(reportData);
@@ -95,16 +158,8 @@ public class ReportService {
             default -> buildMonthlySummaryReport(userId, subscriptions);
         };
 
-        GeneratedReport report = new GeneratedReport();
-        report.setUserId(userId);
-        report.setName((String) reportData.getOrDefault("name", "Generated Report"));
-        report.setType(type);
-        report.setFormat(String.valueOf(reportData.getOrDefault("format", "pdf")));
-        report.setStatus("completed");
         report.setFilters(filters);
         report.setContent(content);
-
-        return reportDAO.save(report);
     }
 
     public List<ScheduledReport> getScheduledReports(String userId) {
@@ -164,18 +219,17 @@ public class ReportService {
             }
         }
         try {
-            return OBJECT_MAPPER.writerWithDefaultPrettyPrinter()
-                    .writeValueAsBytes(Map.of(
-                            "metadata", Map.of(
-                                    "id", report.getId(),
-                                    "name", report.getName(),
-                                    "type", report.getType(),
-                                    "format", format,
-                                    "createdAt", report.getCreatedAt()
-                            ),
-                            "content", report.getContent()
-                    ));
-        } catch (JsonProcessingException e) {
+            return jsonCodec.writePrettyBytes(Map.of(
+                    "metadata", Map.of(
+                            "id", report.getId(),
+                            "name", report.getName(),
+                            "type", report.getType(),
+                            "format", format,
+                            "createdAt", report.getCreatedAt()
+                    ),
+                    "content", report.getContent()
+            ));
+        } catch (IllegalStateException e) {
             return "{\"error\":\"Report content unavailable\"}".getBytes(StandardCharsets.UTF_8);
         }
     }
@@ -237,8 +291,7 @@ public class ReportService {
     }
 
     public GeneratedReport generateAiReport(String userId, Map<String, Object> payload) {
-        System.out.println("Generating AI report for user " + userId);
-        System.out.println("Payload: " + payload);
+        logger.debug("Generating AI report for user {}", userId);
         validateAiPayload(payload);
 
         Map<String, Object> analyticsContext = buildAnalyticsContext(userId, payload);
@@ -247,6 +300,30 @@ public class ReportService {
 
         String narrative = geminiService.generateReportSummary(enrichedPayload);
 
+        logger.debug("AI report generated for user {}", userId);
+        return saveAiReport(userId, payload, analyticsContext, narrative);
+    }
+
+    /**
+     * Same as {@link #generateAiReport} but hands narrative fragments to {@code onChunk} while the model
+     * is still writing. The report is stored once the narrative is complete.
+     */
+    public GeneratedReport streamAiReport(String userId, Map<String, Object> payload, Consumer<String> onChunk) {
+        logger.debug("Streaming AI report for user {}", userId);
+        validateAiPayload(payload);
+
+        Map<String, Object> analyticsContext = buildAnalyticsContext(userId, payload);
+        Map<String, Object> enrichedPayload = new HashMap<>(payload);
+        enrichedPayload.put("analyticsContext", analyticsContext);
+
+        String narrative = geminiService.streamReportSummary(enrichedPayload, onChunk);
+
+        logger.debug("AI report streamed for user {}", userId);
+        return saveAiReport(userId, payload, analyticsContext, narrative);
+    }
+
+    private GeneratedReport saveAiReport(String userId, Map<String, Object> payload,
+                                         Map<String, Object> analyticsContext, String narrative) {
         GeneratedReport report = new GeneratedReport();
         report.setUserId(userId);
         report.setName(String.valueOf(payload.getOrDefault("name", "AI Report")));
@@ -261,7 +338,6 @@ public class ReportService {
         content.put("generatedAt", LocalDateTime.now().toString());
         report.setContent(content);
 
-        System.out.println("AI report generated successfully");
         return reportDAO.save(report);
     }
 
@@ -280,6 +356,10 @@ public class ReportService {
         }
     }
 
+    /**
+     * Builds the dataset handed to Gemini. All sections are derived from one snapshot of the user's
+     * subscriptions, loaded with a single query, and the independent sections are computed in parallel.
+     */
     private Map<String, Object> buildAnalyticsContext(String userId, Map<String, Object> payload) {
         Map<String, Object> context = new LinkedHashMap<>();
 
@@ -300,40 +380,67 @@ public class ReportService {
         String dateRange = payload.containsKey("dateRange") && payload.get("dateRange") instanceof String 
             ? (String) payload.get("dateRange") 
             : "all";
-        
-        Map<String, Object> overview = analyticsService.getOverview(userId, dateRange);
-        context.put("overview", overview);
-        context.put("spendingTrend", analyticsService.getSpendingTrend(userId, dateRange).get("monthlyData"));
-        context.put("categoryBreakdown", analyticsService.getCategoryBreakdown(userId, dateRange).get("categories"));
-        context.put("billingCycleMix", analyticsService.getBillingCycleAnalysis(userId, dateRange).get("cycles"));
-        context.put("topSubscriptions", analyticsService.getTopSubscriptions(userId, dateRange).get("subscriptions"));
-        context.put("projections", analyticsService.getProjections(userId));
-        context.put("insights", analyticsService.getInsights(userId).get("insights"));
-
-        List<Map<String, Object>> notableSubscriptions = subscriptionService.getAllSubscriptions(userId, null, null)
-                .stream()
+
+        List<Subscription> snapshot = List.copyOf(subscriptionService.getAllSubscriptions(userId, null, null));
+        // The full rows are needed below for the subscription listings; the aggregates share one columnar copy
+        SubscriptionColumns columns = SubscriptionColumns.of(snapshot);
+
+        CompletableFuture<Object> overview = computeAsync(() -> analyticsService.overview(columns, dateRange));
+        CompletableFuture<Object> spendingTrend = computeAsync(() ->
+                analyticsService.spendingTrend(columns, dateRange).get("monthlyData"));
+        CompletableFuture<Object> categoryBreakdown = computeAsync(() ->
+                analyticsService.categoryBreakdown(columns, dateRange).get("categories"));
+        CompletableFuture<Object> billingCycleMix = computeAsync(() ->
+                analyticsService.billingCycleAnalysis(columns, dateRange).get("cycles"));
+        CompletableFuture<Object> topSubscriptions = computeAsync(() ->
+                analyticsService.topSubscriptions(columns, dateRange).get("subscriptions"));
+        CompletableFuture<Object> projections = computeAsync(() -> analyticsService.projections(columns));
+        CompletableFuture<Object> insights = computeAsync(() -> analyticsService.insights(columns).get("insights"));
+        CompletableFuture<Object> notableSubscriptions = computeAsync(() -> snapshot.stream()
                 .sorted(Comparator.comparingDouble(Subscription::getAmount).reversed())
                 .limit(15)
                 .map(this::mapSubscription)
-                .collect(Collectors.toList());
-        context.put("notableSubscriptions", notableSubscriptions);
-
-        List<Map<String, Object>> renewals = subscriptionService.getUpcomingSubscriptions(userId, 30)
+                .collect(Collectors.toList()));
+        CompletableFuture<Object> renewals = computeAsync(() -> analyticsService.upcoming(snapshot, 30)
                 .stream()
                 .map(this::mapSubscription)
-                .collect(Collectors.toList());
-        context.put("upcomingRenewals30d", renewals);
+                .collect(Collectors.toList()));
+
+        context.put("overview", join(overview));
+        context.put("spendingTrend", join(spendingTrend));
+        context.put("categoryBreakdown", join(categoryBreakdown));
+        context.put("billingCycleMix", join(billingCycleMix));
+        context.put("topSubscriptions", join(topSubscriptions));
+        context.put("projections", join(projections));
+        context.put("insights", join(insights));
+        context.put("notableSubscriptions", join(notableSubscriptions));
+        context.put("upcomingRenewals30d", join(renewals));
 
         context.put("generatedAt", LocalDateTime.now().toString());
         return context;
     }
 
+    private CompletableFuture<Object> computeAsync(Supplier<Object> section) {
+        return CompletableFuture.supplyAsync(section, analyticsExecutor);
+    }
+
+    private Object join(CompletableFuture<Object> section) {
+        try {
+            return section.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
     private Map<String, Object> mapSubscription(Subscription sub) {
         Map<String, Object> map = new LinkedHashMap<>();
         map.put("id", sub.getId());
         map.put("name", sub.getName());
         map.put("category", sub.getCategory());
-        map.put("amount", round(sub.getAmount()));
+        map.put("amount", amount(sub).toDouble());
         map.put("currency", sub.getCurrency());
         map.put("billingCycle", sub.getBillingCycle());
         map.put("status", sub.getStatus());
@@ -421,7 +528,7 @@ public class ReportService {
                     Map<String, Object> vendor = new HashMap<>();
                     vendor.put("name", sub.getName());
                     vendor.put("category", Optional.ofNullable(sub.getCategory()).orElse("Uncategorized"));
-                    vendor.put("amount", round(sub.getAmount()));
+                    vendor.put("amount", amount(sub).toDouble());
                     return vendor;
                 })
                 .collect(Collectors.toList());
@@ -434,13 +541,8 @@ public class ReportService {
     }
 
     private Map<String, Object> buildAnnualProjectionReport(List<Subscription> subscriptions) {
-        double monthlySpend = subscriptions.stream()
-                .mapToDouble(sub -> sub.getBillingCycle() != null && sub.getBillingCycle().equalsIgnoreCase("yearly")
-                        ? sub.getAmount() / 12
-                        : sub.getAmount())
-                .sum();
-
-        double annualProjection = monthlySpend * 12;
+        Money annualProjection = annualCost(subscriptions);
+        Money monthlySpend = annualProjection.dividedBy(BillingCycle.MONTHS_PER_YEAR);
         List<Map<String, Object>> forecast = new ArrayList<>();
         LocalDate currentMonth = LocalDate.now();
         for (int i = 0; i < 12; i++) {
@@ -449,35 +551,37 @@ public class ReportService {
             forecast.add(Map.of(
                     "month", target.getMonth().name(),
                     "year", target.getYear(),
-                    "projectedSpend", round(monthlySpend * seasonalAdjust)
+                    "projectedSpend", Money.of(monthlySpend.toDouble() * seasonalAdjust, Money.STORAGE_SCALE).toDouble()
             ));
         }
 
         Map<String, Object> result = new LinkedHashMap<>();
-        result.put("monthlySpend", round(monthlySpend));
-        result.put("annualProjection", round(annualProjection));
+        result.put("monthlySpend", monthlySpend.toDouble());
+        result.put("annualProjection", annualProjection.toDouble());
         result.put("forecast", forecast);
         result.put("renewalWatchlist", buildUpcomingRenewals(subscriptions));
         return result;
     }
 
     private Map<String, Object> buildSummaryMetrics(List<Subscription> subscriptions) {
-        double totalMonthlySpend = subscriptions.stream()
-                .mapToDouble(sub -> sub.getBillingCycle() != null && sub.getBillingCycle().equalsIgnoreCase("yearly")
-                        ? sub.getAmount() / 12
-                        : sub.getAmount())
-                .sum();
-
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("totalSubscriptions", subscriptions.size());
-        summary.put("totalMonthlySpend", round(totalMonthlySpend));
-        summary.put("averagePerSubscription", round(subscriptions.isEmpty() ? 0 : totalMonthlySpend / subscriptions.size()));
-        summary.put("costPerDay", round(totalMonthlySpend / 30));
-        summary.put("currency", subscriptions.stream()
+        String currency = subscriptions.stream()
                 .map(Subscription::getCurrency)
                 .filter(Objects::nonNull)
                 .findFirst()
-                .orElse("USD"));
+                .orElse("USD");
+        // Shown in the currency's own minor unit, each rounded once from the exact annual total
+        int scale = Money.scaleOf(currency);
+        Money annualCost = annualCost(subscriptions);
+        int months = BillingCycle.MONTHS_PER_YEAR;
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("totalSubscriptions", subscriptions.size());
+        summary.put("totalMonthlySpend", annualCost.dividedBy(months, scale).toDouble());
+        summary.put("averagePerSubscription", subscriptions.isEmpty()
+                ? 0.0
+                : annualCost.dividedBy((long) months * subscriptions.size(), scale).toDouble());
+        summary.put("costPerDay", annualCost.dividedBy(months * 30L, scale).toDouble());
+        summary.put("currency", currency);
         return summary;
     }
 
@@ -488,7 +592,7 @@ public class ReportService {
                 .collect(Collectors.toList());
     }
 
-    private byte[] buildPdfDocument(GeneratedReport report) throws DocumentException, IOException {
+    byte[] buildPdfDocument(GeneratedReport report) throws DocumentException, IOException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         Document document = new Document(PageSize.A4, 40, 40, 40, 40);
         PdfWriter.getInstance(document, out);
@@ -510,8 +614,7 @@ public class ReportService {
         document.add(Chunk.NEWLINE);
 
         document.add(new Paragraph("Content", subtitleFont));
-        String prettyContent = OBJECT_MAPPER.writerWithDefaultPrettyPrinter()
-                .writeValueAsString(report.getContent());
+        String prettyContent = jsonCodec.writePretty(report.getContent());
         for (String line : prettyContent.split("\n")) {
             document.add(new Paragraph(line, monoFont));
         }
@@ -521,17 +624,17 @@ public class ReportService {
     }
 
     private List<Map<String, Object>> buildCategoryBreakdown(List<Subscription> subscriptions) {
-        Map<String, Double> totals = subscriptions.stream()
+        Map<String, Long> totals = subscriptions.stream()
                 .collect(Collectors.groupingBy(
                         sub -> Optional.ofNullable(sub.getCategory()).orElse("Uncategorized"),
-                        Collectors.summingDouble(Subscription::getAmount)
+                        Collectors.summingLong(sub -> amount(sub).minorUnits())
                 ));
 
         return totals.entrySet().stream()
                 .map(entry -> {
                     Map<String, Object> breakdown = new HashMap<>();
                     breakdown.put("category", entry.getKey());
-                    breakdown.put("amount", round(entry.getValue()));
+                    breakdown.put("amount", Money.ofMinor(entry.getValue(), Money.STORAGE_SCALE).toDouble());
                     return breakdown;
                 })
                 .sorted(Comparator.comparingDouble(entry -> -((Double) entry.get("amount"))))
@@ -630,7 +733,18 @@ public class ReportService {
         return LocalDateTime.now();
     }
 
-    private double round(double value) {
-        return Math.round(value * 100.0) / 100.0;
+    private static Money amount(Subscription sub) {
+        return Money.of(sub.getAmount(), Money.STORAGE_SCALE);
+    }
+
+    /**
+     * Exact yearly cost of {@code subscriptions}, normalised with the shared {@link BillingCycle} table.
+     */
+    private static Money annualCost(List<Subscription> subscriptions) {
+        Money total = Money.zero(Money.STORAGE_SCALE);
+        for (Subscription sub : subscriptions) {
+            total = total.plus(amount(sub).times(BillingCycle.of(sub.getBillingCycle()).periodsPerYear()));
+        }
+        return total;
     }
 }
@@ -3,6 +3,8 @@ package com.subsentry.service;
 import com.subsentry.dao.ScheduledReportDAO;
 import com.subsentry.dao.SubscriptionDAO;
 import com.subsentry.dao.UserDAO;
+import com.subsentry.model.Money;
+import com.subsentry.model.Notification;
 import com.subsentry.model.ScheduledReport;
 import com.subsentry.model.Subscription;
 import com.subsentry.model.User;
@@ -13,6 +15,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -21,24 +24,28 @@ public class ScheduledTaskService {
 
     private static final Logger logger = LoggerFactory.getLogger(ScheduledTaskService.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMMM d, yyyy");
+    private static final int NOTIFICATION_FLUSH_SIZE = 5_000;
 
     private final EmailService emailService;
     private final UserDAO userDAO;
     private final SubscriptionDAO subscriptionDAO;
     private final ScheduledReportDAO scheduledReportDAO;
     private final ReportService reportService;
+    private final NotificationService notificationService;
 
     public ScheduledTaskService(
             EmailService emailService,
             UserDAO userDAO,
             SubscriptionDAO subscriptionDAO,
             ScheduledReportDAO scheduledReportDAO,
-            ReportService reportService) {
+            ReportService reportService,
+            NotificationService notificationService) {
         this.emailService = emailService;
         this.userDAO = userDAO;
         this.subscriptionDAO = subscriptionDAO;
         this.scheduledReportDAO = scheduledReportDAO;
         this.reportService = reportService;
+        this.notificationService = notificationService;
     }
 
     /**
@@ -51,15 +58,17 @@ public class ScheduledTaskService {
         try {
             List<User> users = userDAO.getAllUsers();
             int emailsSent = 0;
+            List<Notification> pendingNotifications = new ArrayList<>();
+            int notificationsCreated = 0;
 
             for (User user : users) {
                 logger.debug("Checking user: {} (email: {})", user.getId(), user.getEmail());
                 logger.debug("  - emailNotifications: {}", user.isEmailNotifications());
                 logger.debug("  - renewalReminders: {}", user.isRenewalReminders());
                 
-                // Skip if user has disabled renewal reminders or email notifications
-                if (!user.isEmailNotifications() || !user.isRenewalReminders()) {
-                    logger.debug("  - Skipping user {}: email notifications or renewal reminders disabled", user.getEmail());
+                // Skip if user has disabled renewal reminders
+                if (!user.isRenewalReminders()) {
+                    logger.debug("  - Skipping user {}: renewal reminders disabled", user.getEmail());
                     continue;
                 }
 
@@ -67,19 +76,29 @@ public class ScheduledTaskService {
                 List<Subscription> upcomingRenewals = subscriptionDAO.findUpcoming(user.getId(), 7);
                 logger.info("  - Found {} upcoming renewals for user {}", upcomingRenewals.size(), user.getEmail());
 
-                if (!upcomingRenewals.isEmpty()) {
+                if (upcomingRenewals.isEmpty()) {
+                    logger.debug("  - No upcoming renewals found for user {}", user.getEmail());
+                    continue;
+                }
+
+                pendingNotifications.add(buildRenewalNotification(user, upcomingRenewals));
+                if (pendingNotifications.size() >= NOTIFICATION_FLUSH_SIZE) {
+                    notificationsCreated += flushNotifications(pendingNotifications);
+                }
+
+                if (user.isEmailNotifications()) {
                     try {
                         sendRenewalReminderEmail(user, upcomingRenewals);
                         emailsSent++;
                     } catch (Exception e) {
                         logger.error("Failed to send renewal reminder to {}", user.getEmail(), e);
                     }
-                } else {
-                    logger.debug("  - No upcoming renewals found for user {}", user.getEmail());
                 }
             }
+            notificationsCreated += flushNotifications(pendingNotifications);
 
-            logger.info("Renewal reminder check completed. Sent {} email(s).", emailsSent);
+            logger.info("Renewal reminder check completed. Sent {} email(s), created {} notification(s).",
+                    emailsSent, notificationsCreated);
         } catch (Exception e) {
             logger.error("Error checking renewal reminders", e);
         }
@@ -120,7 +139,8 @@ public class ScheduledTaskService {
                     reportData.put("endDate", LocalDateTime.now().toString());
                     reportData.put("categories", categories);
 
-                    var generatedReport = reportService.generateReport(schedule.getUserId(), reportData);
+                    // Saves the report and advances next run together
+                    var generatedReport = reportService.generateScheduledReport(schedule, reportData);
 
                     // Send email if email delivery is enabled
                     if (schedule.isEmailDelivery()) {
@@ -131,10 +151,6 @@ public class ScheduledTaskService {
                         }
                     }
 
-                    // Update next run time
-                    schedule.setNextRun(reportService.calculateNextRun(schedule.getFrequency(), schedule.getDayOfPeriod()));
-                    scheduledReportDAO.update(schedule);
-
                     reportsProcessed++;
                     logger.info("Processed scheduled report {} for user {}", schedule.getId(), user.getEmail());
                 } catch (Exception e) {
@@ -158,6 +174,7 @@ public class ScheduledTaskService {
         try {
             List<User> users = userDAO.getAllUsers();
             int emailsSent = 0;
+            List<Notification> pendingNotifications = new ArrayList<>();
 
             for (User user : users) {
                 // Skip if user has disabled weekly summaries or email notifications
@@ -178,6 +195,11 @@ public class ScheduledTaskService {
                     reportData.put("endDate", LocalDateTime.now().toString());
 
                     var generatedReport = reportService.generateReport(user.getId(), reportData);
+                    pendingNotifications.add(buildNotification(user.getId(), "info", "Weekly summary ready",
+                            "Your weekly subscription summary is ready to view.", "/reports"));
+                    if (pendingNotifications.size() >= NOTIFICATION_FLUSH_SIZE) {
+                        flushNotifications(pendingNotifications);
+                    }
                     try {
                         sendWeeklySummaryEmail(user, generatedReport);
                         emailsSent++;
@@ -189,19 +211,57 @@ public class ScheduledTaskService {
                 }
             }
 
+            flushNotifications(pendingNotifications);
             logger.info("Weekly summary email sending completed. Sent {} email(s).", emailsSent);
         } catch (Exception e) {
             logger.error("Error sending weekly summaries", e);
         }
     }
 
+    private Notification buildRenewalNotification(User user, List<Subscription> renewals) {
+        String message = renewals.size() == 1
+                ? renewals.get(0).getName() + " renews within the next 7 days."
+                : renewals.size() + " subscriptions renew within the next 7 days.";
+        return buildNotification(user.getId(), "reminder", "Upcoming renewals", message, "/calendar");
+    }
+
+    private Notification buildNotification(String userId, String type, String title, String message, String actionLink) {
+        Notification notification = new Notification();
+        notification.setUserId(userId);
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setActionLink(actionLink);
+        notification.setRead(false);
+        return notification;
+    }
+
+    /**
+     * Writes the buffered in-app notifications with one bulk insert and clears the buffer.
+     */
+    private int flushNotifications(List<Notification> pending) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        int count = pending.size();
+        try {
+            notificationService.createAll(new ArrayList<>(pending));
+        } catch (Exception e) {
+            logger.error("Failed to write {} in-app notification(s)", count, e);
+            count = 0;
+        } finally {
+            pending.clear();
+        }
+        return count;
+    }
+
     private void sendRenewalReminderEmail(User user, List<Subscription> renewals) {
         try {
             StringBuilder body = new StringBuilder();
             body.append("Hello ").append(user.getName()).append(",\n\n");
             body.append("This is a reminder that you have subscription(s) renewing soon:\n\n");
 
-            double totalAmount = 0.0;
+            Money totalAmount = Money.zero(Money.STORAGE_SCALE);
             for (Subscription sub : renewals) {
                 long daysUntil = java.time.temporal.ChronoUnit.DAYS.between(
                         LocalDateTime.now(),
@@ -213,11 +273,11 @@ public class ScheduledTaskService {
                         sub.getCurrency(),
                         String.format("%.2f", sub.getAmount()),
                         daysText));
-                totalAmount += sub.getAmount();
+                totalAmount = totalAmount.plus(Money.of(sub.getAmount(), Money.STORAGE_SCALE));
             }
 
             body.append("\n");
-            body.append(String.format("Total amount: %s %.2f\n\n", renewals.get(0).getCurrency(), totalAmount));
+            body.append(String.format("Total amount: %s %s\n\n", renewals.get(0).getCurrency(), totalAmount));
             body.append("Please ensure your payment method is up to date.\n\n");
             body.append("Best regards,\nSubSentry Team");
 
@@ -2,6 +2,7 @@ package com.subsentry.service;
 
 import com.subsentry.dao.SubscriptionDAO;
 import com.subsentry.model.Subscription;
+import com.subsentry.model.SubscriptionColumns;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -23,6 +24,10 @@ public class SubscriptionService {
         return subscriptionDAO.findAll(userId, category, search);
     }
 
+    public SubscriptionColumns getSubscriptionColumns(String userId) {
+        return subscriptionDAO.findColumns(userId);
+    }
+
     public List<Subscription> getUpcomingSubscriptions(String userId, int days) {
         return subscriptionDAO.findUpcoming(userId, days);
     }
@@ -1,59 +1,79 @@
 package com.subsentry.util;
 
-import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
-import org.springframework.beans.factory.annotation.Value;
+import com.subsentry.jdbc.ReplicaRouter;
+import com.subsentry.jdbc.TransactionRunner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Static access to the application's pooled {@link DataSource} for the hand-written DAOs. Callers must
+ * close the connection, which hands it back to the pool.
+ *
+ * Read-only queries that can tolerate replication lag take {@link #getReadConnection} instead, and
+ * writes that those queries should see report {@link #recordWrite} for the user they belong to.
+ *
+ * Inside a {@link TransactionRunner} unit of work both methods return the unit's connection instead.
+ */
 @Component
 public class DatabaseConnection {
 
-    private static String url;
-    private static String username;
-    private static String password;
-    private static Connection connection;
-
-    public DatabaseConnection(
-            @Value("${spring.datasource.url}") String url,
-            @Value("${spring.datasource.username}") String username,
-            @Value("${spring.datasource.password}") String password) {
-        DatabaseConnection.url = url;
-        DatabaseConnection.username = username;
-        DatabaseConnection.password = password;
-    }
+    private static DataSource dataSource;
+    private static ReplicaRouter replicaRouter;
+    private static Timer acquireTimer;
 
-    @PostConstruct
-    public void init() {
-        // Ensures driver class is loaded once
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (ClassNotFoundException e) {
-            throw new IllegalStateException("MySQL JDBC Driver not found", e);
-        }
+    public DatabaseConnection(DataSource dataSource, ReplicaRouter replicaRouter, MeterRegistry meterRegistry) {
+        DatabaseConnection.dataSource = dataSource;
+        DatabaseConnection.replicaRouter = replicaRouter;
+        DatabaseConnection.acquireTimer = Timer.builder("subsentry.db.connection.acquire")
+                .description("Time for a DAO to obtain a connection from the pool")
+                .register(meterRegistry);
     }
 
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(url, username, password);
+        if (dataSource == null) {
+            throw new SQLException("DatabaseConnection is used before the DataSource was configured");
+        }
+        Connection bound = TransactionRunner.currentConnection();
+        if (bound != null) {
+            return bound;
+        }
+        long started = System.nanoTime();
+        try {
+            return dataSource.getConnection();
+        } finally {
+            acquireTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         }
-        return connection;
     }
 
-    @PreDestroy
-    public void onDestroy() {
-        closeConnection();
+    /**
+     * A connection for a read-only query on {@code userId}'s data: a current read replica, or the primary
+     * if none is configured or the user has just written.
+     */
+    public static Connection getReadConnection(String userId) throws SQLException {
+        if (replicaRouter == null || TransactionRunner.currentConnection() != null) {
+            return getConnection();
+        }
+        long started = System.nanoTime();
+        try {
+            return replicaRouter.readConnection(userId);
+        } finally {
+            acquireTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
     }
 
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-            } catch (SQLException ignored) {
-            }
+    /**
+     * Records that {@code userId}'s data changed, so their next reads see it. Inside a unit of work this
+     * takes effect when it commits.
+     */
+    public static void recordWrite(String userId) {
+        if (replicaRouter != null) {
+            TransactionRunner.afterCommit(() -> replicaRouter.recordWrite(userId));
         }
     }
 }
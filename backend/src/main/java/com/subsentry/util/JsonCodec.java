@@ -0,0 +1,149 @@
+package com.subsentry.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * The one JSON codec for stored JSON columns and outbound payloads. Holds a single configured
+ * {@link ObjectMapper} and pre-built readers and writers, which are immutable and thread-safe, so
+ * callers never build their own mapper or resolve serializers per call.
+ *
+ * All methods throw {@link IllegalStateException} on malformed input, matching the DAO layer.
+ */
+@Component
+public class JsonCodec {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper mapper;
+    private final ObjectReader mapReader;
+    private final ObjectWriter writer;
+    private final ObjectWriter prettyWriter;
+
+    public JsonCodec() {
+        this.mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.mapReader = mapper.readerFor(MAP_TYPE);
+        this.writer = mapper.writer();
+        this.prettyWriter = mapper.writerWithDefaultPrettyPrinter();
+    }
+
+    /**
+     * Reads a JSON object; null or blank input reads as an empty map.
+     */
+    public Map<String, Object> readMap(String json) {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return mapReader.readValue(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to parse JSON", e);
+        }
+    }
+
+    /**
+     * Reads a JSON object straight from a stream, without first copying it into a String. A null
+     * stream reads as an empty map.
+     */
+    public Map<String, Object> readMap(InputStream in) {
+        if (in == null) {
+            return Map.of();
+        }
+        try (in) {
+            return mapReader.readValue(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to parse JSON", e);
+        }
+    }
+
+    public Map<String, Object> toMap(JsonNode node) {
+        return mapper.convertValue(node, MAP_TYPE);
+    }
+
+    public JsonNode readTree(String json) {
+        try {
+            return mapper.readTree(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to parse JSON", e);
+        }
+    }
+
+    /**
+     * Returns one top-level scalar field of a JSON object as text, or null if it is absent or not a
+     * scalar. Streams through the document and skips every other value without building it, so it
+     * costs the same small amount of memory however large the document is.
+     */
+    public String readTopLevelField(InputStream in, String field) {
+        if (in == null) {
+            return null;
+        }
+        try (in; JsonParser parser = mapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (name.equals(field)) {
+                    return value.isScalarValue() && value != JsonToken.VALUE_NULL ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to parse JSON", e);
+        }
+    }
+
+    public String write(Object value) {
+        try {
+            return writer.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize JSON", e);
+        }
+    }
+
+    /**
+     * Serializes straight to UTF-8 bytes, skipping the intermediate String.
+     */
+    public byte[] writeBytes(Object value) {
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize JSON", e);
+        }
+    }
+
+    public String writePretty(Object value) {
+        try {
+            return prettyWriter.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize JSON", e);
+        }
+    }
+
+    public byte[] writePrettyBytes(Object value) {
+        try {
+            return prettyWriter.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize JSON", e);
+        }
+    }
+}
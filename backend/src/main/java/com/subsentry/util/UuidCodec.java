@@ -0,0 +1,55 @@
+package com.subsentry.util;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.UUID;
+
+/**
+ * Converts between the canonical string form of a UUID used by the API and models, and the
+ * {@code BINARY(16)} form stored in the database. DAOs bind and read every id column through here.
+ */
+public final class UuidCodec {
+
+    private UuidCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException when {@code uuid} is not a valid UUID string
+     */
+    public static byte[] toBytes(String uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        UUID value = UUID.fromString(uuid);
+        return ByteBuffer.allocate(16)
+                .putLong(value.getMostSignificantBits())
+                .putLong(value.getLeastSignificantBits())
+                .array();
+    }
+
+    public static String fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("Expected 16 bytes for a UUID but got " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+
+    public static void bind(PreparedStatement ps, int index, String uuid) throws SQLException {
+        if (uuid == null) {
+            ps.setNull(index, Types.BINARY);
+        } else {
+            ps.setBytes(index, toBytes(uuid));
+        }
+    }
+
+    public static String read(ResultSet rs, String column) throws SQLException {
+        return fromBytes(rs.getBytes(column));
+    }
+}
@@ -0,0 +1,120 @@
+-- Insert throughput and index size: CHAR(36) random UUIDv4 keys versus BINARY(16) UUIDv7 keys.
+--
+-- Run against a scratch server (it creates and drops the subsentry_bench schema):
+--   mysql -u root -p < uuid_key_benchmark.sql
+-- Both tables mirror the notifications table, with a secondary index on (user_id, created_at), so the
+-- results include the secondary-index cost of the primary key width. Raise the row count for a buffer
+-- pool-bound comparison; the gap widens once the random-key index no longer fits in memory.
+
+DROP DATABASE IF EXISTS subsentry_bench;
+CREATE DATABASE subsentry_bench CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
+USE subsentry_bench;
+
+CREATE TABLE keys_char36 (
+    id CHAR(36) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci PRIMARY KEY,
+    user_id CHAR(36) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL,
+    message VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    INDEX idx_user_created (user_id, created_at)
+) ENGINE=InnoDB;
+
+CREATE TABLE keys_binary16 (
+    id BINARY(16) PRIMARY KEY,
+    user_id BINARY(16) NOT NULL,
+    message VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    INDEX idx_user_created (user_id, created_at)
+) ENGINE=InnoDB;
+
+CREATE TABLE results (
+    variant VARCHAR(20) PRIMARY KEY,
+    rows_inserted INT,
+    seconds DECIMAL(10,3),
+    rows_per_second INT
+);
+
+DELIMITER //
+
+-- UUIDv7 as the application generates it: 48-bit millisecond timestamp, version 7, random tail.
+-- Random bits within the millisecond are enough here; the Java generator also keeps a counter.
+CREATE FUNCTION uuid_v7() RETURNS BINARY(16) NOT DETERMINISTIC NO SQL
+BEGIN
+    RETURN UNHEX(CONCAT(
+        LPAD(HEX(FLOOR(UNIX_TIMESTAMP(NOW(6)) * 1000)), 12, '0'),
+        '7', LPAD(HEX(FLOOR(RAND() * 4096)), 3, '0'),
+        HEX(8 + FLOOR(RAND() * 4)), LPAD(HEX(FLOOR(RAND() * 4096)), 3, '0'),
+        LPAD(HEX(FLOOR(RAND() * 281474976710656)), 12, '0')));
+END //
+
+-- MySQL's UUID() is version 1 (time-based, but with the low time bits first, so it does not sort by
+-- time); the application used java.util.UUID.randomUUID(), so emulate a random version 4 instead.
+CREATE FUNCTION uuid_v4_text() RETURNS CHAR(36) NOT DETERMINISTIC NO SQL
+BEGIN
+    DECLARE h CHAR(32) DEFAULT LOWER(CONCAT(
+        LPAD(HEX(FLOOR(RAND() * 4294967296)), 8, '0'),
+        LPAD(HEX(FLOOR(RAND() * 65536)), 4, '0'),
+        '4', LPAD(HEX(FLOOR(RAND() * 4096)), 3, '0'),
+        HEX(8 + FLOOR(RAND() * 4)), LPAD(HEX(FLOOR(RAND() * 4096)), 3, '0'),
+        LPAD(HEX(FLOOR(RAND() * 281474976710656)), 12, '0')));
+    RETURN CONCAT(SUBSTR(h, 1, 8), '-', SUBSTR(h, 9, 4), '-', SUBSTR(h, 13, 4), '-',
+                  SUBSTR(h, 17, 4), '-', SUBSTR(h, 21, 12));
+END //
+
+CREATE PROCEDURE run_uuid_key_benchmark(IN row_count INT, IN users INT)
+BEGIN
+    DECLARE i INT DEFAULT 0;
+    DECLARE started DATETIME(6);
+    DECLARE elapsed DECIMAL(10,3);
+
+    -- User ids are reused across rows like real foreign keys
+    DROP TEMPORARY TABLE IF EXISTS bench_users;
+    CREATE TEMPORARY TABLE bench_users (n INT PRIMARY KEY, id_text CHAR(36), id_bin BINARY(16));
+    WHILE i < users DO
+        INSERT INTO bench_users VALUES (i, UUID(), NULL);
+        SET i = i + 1;
+    END WHILE;
+    UPDATE bench_users SET id_bin = UUID_TO_BIN(id_text);
+
+    SET i = 0;
+    SET started = NOW(6);
+    START TRANSACTION;
+    WHILE i < row_count DO
+        INSERT INTO keys_char36
+        SELECT uuid_v4_text(), id_text, 'benchmark row', NOW(6) FROM bench_users WHERE n = i % users;
+        SET i = i + 1;
+        IF i % 1000 = 0 THEN COMMIT; START TRANSACTION; END IF;
+    END WHILE;
+    COMMIT;
+    SET elapsed = TIMESTAMPDIFF(MICROSECOND, started, NOW(6)) / 1000000;
+    INSERT INTO results VALUES ('char36_v4', row_count, elapsed, row_count / elapsed);
+
+    SET i = 0;
+    SET started = NOW(6);
+    START TRANSACTION;
+    WHILE i < row_count DO
+        INSERT INTO keys_binary16
+        SELECT uuid_v7(), id_bin, 'benchmark row', NOW(6) FROM bench_users WHERE n = i % users;
+        SET i = i + 1;
+        IF i % 1000 = 0 THEN COMMIT; START TRANSACTION; END IF;
+    END WHILE;
+    COMMIT;
+    SET elapsed = TIMESTAMPDIFF(MICROSECOND, started, NOW(6)) / 1000000;
+    INSERT INTO results VALUES ('binary16_v7', row_count, elapsed, row_count / elapsed);
+END //
+
+DELIMITER ;
+
+CALL run_uuid_key_benchmark(200000, 2000);
+
+ANALYZE TABLE keys_char36, keys_binary16;
+
+SELECT * FROM results;
+
+SELECT table_name,
+       table_rows,
+       ROUND(data_length / 1024 / 1024, 1)  AS clustered_mb,
+       ROUND(index_length / 1024 / 1024, 1) AS secondary_mb
+FROM information_schema.tables
+WHERE table_schema = 'subsentry_bench' AND table_name LIKE 'keys_%';
+
+DROP DATABASE subsentry_bench;
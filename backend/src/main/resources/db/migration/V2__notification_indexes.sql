@@ -0,0 +1,8 @@
+-- Adds the notification indexes to an existing database without blocking reads or writes.
+-- (user_id, read_flag, created_at) covers the unread count, (user_id, created_at) the paged
+-- listing and (created_at) the retention cleanup.
+ALTER TABLE notifications
+    ADD INDEX idx_notifications_user_read_created (user_id, read_flag, created_at),
+    ADD INDEX idx_notifications_user_created (user_id, created_at),
+    ADD INDEX idx_notifications_created (created_at),
+    ALGORITHM=INPLACE, LOCK=NONE;
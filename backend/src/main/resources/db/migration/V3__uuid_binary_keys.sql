@@ -0,0 +1,69 @@
+-- Converts every CHAR(36) UUID key and foreign key column to BINARY(16).
+--
+-- A CHAR(36) utf8mb4 key costs up to 144 bytes in the clustered index and again in every secondary
+-- index; BINARY(16) costs 16. Existing ids keep their value (only the storage changes), so URLs and
+-- clients holding old ids keep working. New rows get time-ordered UUIDv7 ids from the application.
+--
+-- Requires MySQL 8.0 (UUID_TO_BIN). Every table is rebuilt and the application does not serve
+-- requests until the migration finishes, so take a backup and expect startup to take a while on
+-- large databases.
+
+SET FOREIGN_KEY_CHECKS = 0;
+
+ALTER TABLE subscriptions DROP FOREIGN KEY fk_subscriptions_user;
+ALTER TABLE user_categories DROP FOREIGN KEY fk_user_categories_user;
+ALTER TABLE notifications DROP FOREIGN KEY fk_notifications_user;
+ALTER TABLE generated_reports DROP FOREIGN KEY fk_generated_reports_user;
+ALTER TABLE scheduled_reports DROP FOREIGN KEY fk_scheduled_reports_user,
+                              DROP FOREIGN KEY fk_scheduled_reports_report;
+ALTER TABLE analytics_snapshots DROP FOREIGN KEY fk_analytics_snapshots_user;
+
+-- Step 1: binary strings of the same text, so the UUID_TO_BIN rewrite below has somewhere to land
+ALTER TABLE users MODIFY id VARBINARY(36) NOT NULL;
+ALTER TABLE subscriptions MODIFY id VARBINARY(36) NOT NULL, MODIFY user_id VARBINARY(36) NOT NULL;
+ALTER TABLE user_categories MODIFY id VARBINARY(36) NOT NULL, MODIFY user_id VARBINARY(36) NOT NULL;
+ALTER TABLE notifications MODIFY id VARBINARY(36) NOT NULL, MODIFY user_id VARBINARY(36) NOT NULL;
+ALTER TABLE generated_reports MODIFY id VARBINARY(36) NOT NULL, MODIFY user_id VARBINARY(36) NOT NULL;
+ALTER TABLE scheduled_reports MODIFY id VARBINARY(36) NOT NULL, MODIFY user_id VARBINARY(36) NOT NULL,
+                              MODIFY report_id VARBINARY(36) NULL;
+ALTER TABLE analytics_snapshots MODIFY id VARBINARY(36) NOT NULL, MODIFY user_id VARBINARY(36) NOT NULL;
+
+-- Step 2: text to 16 raw bytes
+UPDATE users SET id = UUID_TO_BIN(id);
+UPDATE subscriptions SET id = UUID_TO_BIN(id), user_id = UUID_TO_BIN(user_id);
+UPDATE user_categories SET id = UUID_TO_BIN(id), user_id = UUID_TO_BIN(user_id);
+UPDATE notifications SET id = UUID_TO_BIN(id), user_id = UUID_TO_BIN(user_id);
+UPDATE generated_reports SET id = UUID_TO_BIN(id), user_id = UUID_TO_BIN(user_id);
+UPDATE scheduled_reports SET id = UUID_TO_BIN(id), user_id = UUID_TO_BIN(user_id),
+                             report_id = IF(report_id IS NULL, NULL, UUID_TO_BIN(report_id));
+UPDATE analytics_snapshots SET id = UUID_TO_BIN(id), user_id = UUID_TO_BIN(user_id);
+
+-- Step 3: fixed-width columns
+ALTER TABLE users MODIFY id BINARY(16) NOT NULL;
+ALTER TABLE subscriptions MODIFY id BINARY(16) NOT NULL, MODIFY user_id BINARY(16) NOT NULL;
+ALTER TABLE user_categories MODIFY id BINARY(16) NOT NULL, MODIFY user_id BINARY(16) NOT NULL;
+ALTER TABLE notifications MODIFY id BINARY(16) NOT NULL, MODIFY user_id BINARY(16) NOT NULL;
+ALTER TABLE generated_reports MODIFY id BINARY(16) NOT NULL, MODIFY user_id BINARY(16) NOT NULL;
+ALTER TABLE scheduled_reports MODIFY id BINARY(16) NOT NULL, MODIFY user_id BINARY(16) NOT NULL,
+                              MODIFY report_id BINARY(16) NULL;
+ALTER TABLE analytics_snapshots MODIFY id BINARY(16) NOT NULL, MODIFY user_id BINARY(16) NOT NULL;
+
+ALTER TABLE subscriptions
+    ADD CONSTRAINT fk_subscriptions_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE user_categories
+    ADD CONSTRAINT fk_user_categories_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE notifications
+    ADD CONSTRAINT fk_notifications_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE generated_reports
+    ADD CONSTRAINT fk_generated_reports_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE scheduled_reports
+    ADD CONSTRAINT fk_scheduled_reports_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    ADD CONSTRAINT fk_scheduled_reports_report FOREIGN KEY (report_id) REFERENCES generated_reports(id) ON DELETE SET NULL;
+ALTER TABLE analytics_snapshots
+    ADD CONSTRAINT fk_analytics_snapshots_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+
+SET FOREIGN_KEY_CHECKS = 1;
+
+-- Rebuild statistics and reclaim the space freed by the narrower keys
+OPTIMIZE TABLE users, subscriptions, user_categories, notifications, generated_reports,
+    scheduled_reports, analytics_snapshots;
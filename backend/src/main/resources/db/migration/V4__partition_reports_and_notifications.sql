@@ -0,0 +1,42 @@
+-- Range-partitions generated_reports and notifications by month of created_at, so retention drops
+-- whole partitions instead of deleting rows, and time-bounded queries read only the months they need.
+--
+-- MySQL does not allow foreign keys on partitioned tables, and every unique key must include the
+-- partitioning column. The user foreign keys are replaced by explicit deletes in the user repository;
+-- scheduled_reports.report_id is cleared by the partition maintenance job when its report expires.
+-- Rows created before the first day of next month (as of when this runs) land in p_history, so
+-- p_future starts out empty and PartitionMaintenanceService adds the monthly partitions ahead of time
+-- by splitting it without copying rows. The bound is computed here, so PARTITION BY is a prepared
+-- statement. Partitioning copies both tables once, blocking writes to them while it runs.
+
+ALTER TABLE notifications DROP FOREIGN KEY fk_notifications_user;
+ALTER TABLE generated_reports DROP FOREIGN KEY fk_generated_reports_user;
+ALTER TABLE scheduled_reports DROP FOREIGN KEY fk_scheduled_reports_report;
+
+ALTER TABLE notifications
+    MODIFY created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+SET @partition_bound = UNIX_TIMESTAMP(DATE_FORMAT(CURRENT_DATE + INTERVAL 1 MONTH, '%Y-%m-01'));
+
+SET @partition_sql = CONCAT('ALTER TABLE notifications PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (',
+    'PARTITION p_history VALUES LESS THAN (', @partition_bound, '), ',
+    'PARTITION p_future VALUES LESS THAN MAXVALUE)');
+PREPARE partition_notifications FROM @partition_sql;
+EXECUTE partition_notifications;
+DEALLOCATE PREPARE partition_notifications;
+
+ALTER TABLE generated_reports
+    MODIFY created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at),
+    DROP INDEX fk_generated_reports_user,
+    ADD INDEX idx_generated_reports_user_created (user_id, created_at);
+
+SET @partition_sql = CONCAT('ALTER TABLE generated_reports PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (',
+    'PARTITION p_history VALUES LESS THAN (', @partition_bound, '), ',
+    'PARTITION p_future VALUES LESS THAN MAXVALUE)');
+PREPARE partition_generated_reports FROM @partition_sql;
+EXECUTE partition_generated_reports;
+DEALLOCATE PREPARE partition_generated_reports;
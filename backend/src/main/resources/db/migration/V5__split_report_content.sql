@@ -0,0 +1,28 @@
+-- Moves report content out of generated_reports into generated_report_contents, so listing reports
+-- reads only small metadata rows however large the reports are. The application stores content as
+-- UTF-8 JSON, deflated above 1 KB (encoding column); copied rows start out as plain JSON.
+-- The side table is partitioned like generated_reports and expires with it. As in V4, p_history ends
+-- on the first day of the month after this runs, so the copied rows leave p_future empty.
+
+SET @partition_bound = UNIX_TIMESTAMP(DATE_FORMAT(CURRENT_DATE + INTERVAL 1 MONTH, '%Y-%m-01'));
+
+SET @create_sql = CONCAT('CREATE TABLE generated_report_contents (',
+    'report_id BINARY(16) NOT NULL, ',
+    'created_at TIMESTAMP NOT NULL, ',
+    'encoding VARCHAR(16) NOT NULL, ',
+    'content LONGBLOB NOT NULL, ',
+    'PRIMARY KEY (report_id, created_at)',
+    ') ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci ',
+    'PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (',
+    'PARTITION p_history VALUES LESS THAN (', @partition_bound, '), ',
+    'PARTITION p_future VALUES LESS THAN MAXVALUE)');
+PREPARE create_report_contents FROM @create_sql;
+EXECUTE create_report_contents;
+DEALLOCATE PREPARE create_report_contents;
+
+INSERT INTO generated_report_contents (report_id, created_at, encoding, content)
+SELECT id, created_at, 'json', CAST(CAST(content AS CHAR CHARACTER SET utf8mb4) AS BINARY)
+FROM generated_reports
+WHERE content IS NOT NULL;
+
+ALTER TABLE generated_reports DROP COLUMN content;
@@ -0,0 +1,5 @@
+-- Records which application instance queued a report job, so an instance that restarts fails only
+-- its own interrupted jobs and leaves jobs running on other instances alone. Rows written before this
+-- migration and reports rendered synchronously have no owner.
+ALTER TABLE generated_reports
+    ADD COLUMN owner_instance VARCHAR(64) NULL;
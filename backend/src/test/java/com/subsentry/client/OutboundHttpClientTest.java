@@ -0,0 +1,125 @@
+package com.subsentry.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundHttpClientTest {
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger slowArrivals = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> send(exchange, 200, "{}"));
+        server.createContext("/missing", exchange -> send(exchange, 404, "{}"));
+        server.createContext("/broken", exchange -> send(exchange, 503, "{}"));
+        server.createContext("/slow", exchange -> {
+            slowArrivals.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            send(exchange, 200, "{}");
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void returnsResponsesOfAnyStatus() {
+        OutboundHttpClient client = newClient(1000, 4, 3);
+
+        assertEquals(200, client.postJson(uri("/ok"), "{}").statusCode());
+        assertEquals(404, client.postJson(uri("/missing"), "{}").statusCode());
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState());
+    }
+
+    @Test
+    void slowResponseHitsDeadline() {
+        OutboundHttpClient client = newClient(200, 4, 3);
+
+        long start = System.nanoTime();
+        assertThrows(IllegalStateException.class, () -> client.postJson(uri("/slow"), "{}"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+    }
+
+    @Test
+    void serverErrorsOpenCircuitAndShortCircuitCalls() {
+        OutboundHttpClient client = newClient(1000, 4, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(503, client.postJson(uri("/broken"), "{}").statusCode());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+
+        int before = hits.get();
+        assertThrows(IllegalStateException.class, () -> client.postJson(uri("/ok"), "{}"));
+        assertEquals(before, hits.get());
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondLimit() throws Exception {
+        OutboundHttpClient client = newClient(5000, 1, 3);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        Future<?> occupying = caller.submit(() -> client.postJson(uri("/slow"), "{}"));
+        while (slowArrivals.get() == 0) {
+            Thread.sleep(10);
+        }
+
+        assertThrows(IllegalStateException.class, () -> client.postJson(uri("/ok"), "{}"));
+
+        release.countDown();
+        occupying.get(5, TimeUnit.SECONDS);
+        caller.shutdown();
+    }
+
+    private OutboundHttpClient newClient(long responseTimeoutMs, int maxConcurrent, int failureThreshold) {
+        return new OutboundHttpClient("test", 1000, responseTimeoutMs, responseTimeoutMs, maxConcurrent, 50,
+                new CircuitBreaker(failureThreshold, 60_000), new SimpleMeterRegistry(), Tracer.NOOP, false);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private void send(HttpExchange exchange, int status, String body) throws IOException {
+        hits.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
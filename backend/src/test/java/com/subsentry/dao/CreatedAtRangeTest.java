@@ -0,0 +1,40 @@
+package com.subsentry.dao;
+
+import com.subsentry.util.UuidV7;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CreatedAtRangeTest {
+
+    @Test
+    void version7IdBoundsTheWindowAroundItsCreationTime() {
+        LocalDateTime before = LocalDateTime.now();
+        CreatedAtRange range = CreatedAtRange.aroundId(UuidV7.generate());
+        LocalDateTime after = LocalDateTime.now();
+
+        assertTrue(range.from().isBefore(before));
+        assertTrue(range.from().isAfter(before.minusDays(2)));
+        assertTrue(range.to().isAfter(after));
+        assertTrue(range.to().isBefore(after.plusDays(2)));
+    }
+
+    @Test
+    void randomIdFallsBackToAnUnboundedWindow() {
+        CreatedAtRange range = CreatedAtRange.aroundId(UUID.randomUUID().toString());
+
+        assertTrue(range.from().getYear() == 1970);
+        assertTrue(range.to().getYear() >= 2038);
+    }
+
+    @Test
+    void partitionsAreNamedAfterTheirMonth() {
+        assertEquals("p202611", PartitionDAO.partitionName(YearMonth.of(2026, 11)));
+        assertEquals("p202701", PartitionDAO.partitionName(YearMonth.of(2027, 1)));
+    }
+}
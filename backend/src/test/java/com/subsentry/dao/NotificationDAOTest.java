@@ -0,0 +1,181 @@
+package com.subsentry.dao;
+
+import com.subsentry.model.Notification;
+import com.subsentry.util.DatabaseConnection;
+import com.subsentry.util.UuidCodec;
+import com.subsentry.util.UuidV7;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationDAOTest {
+
+    private static final String USER_ID = "0190a4c2-7d2e-7b3c-9f10-2a6b4c8d0e11";
+    private static final int RETENTION_DAYS = 90;
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+    private final NotificationDAO notificationDAO = new NotificationDAO(RETENTION_DAYS);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        new DatabaseConnection(dataSource, null, new SimpleMeterRegistry());
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new DatabaseConnection(null, null, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void firstPageBindsTheUserTheRetentionWindowAndTheLimit() throws SQLException {
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getBytes("id")).thenReturn(UuidCodec.toBytes(UuidV7.generate()));
+        when(resultSet.getBytes("user_id")).thenReturn(UuidCodec.toBytes(USER_ID));
+
+        assertEquals(1, notificationDAO.findPage(USER_ID, null, 20).size());
+
+        assertEquals(4, placeholders(preparedSql()));
+        verify(statement).setBytes(1, UuidCodec.toBytes(USER_ID));
+        assertRetentionStart(2);
+        verify(statement).setTimestamp(3, Timestamp.valueOf(CreatedAtRange.since(LocalDateTime.now()).to()));
+        verify(statement).setInt(4, 20);
+    }
+
+    @Test
+    void laterPagesBindTheCursorAheadOfTheUserAndEndTheWindowAtTheCursor() throws SQLException {
+        String cursor = UuidV7.generate();
+        CreatedAtRange cursorWindow = CreatedAtRange.aroundId(cursor);
+        when(resultSet.next()).thenReturn(false);
+
+        notificationDAO.findPage(USER_ID, cursor, 20);
+
+        String sql = preparedSql();
+        assertEquals(7, placeholders(sql));
+        assertTrue(sql.contains("n.created_at < cursor_row.created_at"));
+        assertTrue(sql.contains("n.id < cursor_row.id"));
+        verify(statement).setBytes(1, UuidCodec.toBytes(cursor));
+        verify(statement).setTimestamp(2, Timestamp.valueOf(cursorWindow.from()));
+        verify(statement).setTimestamp(3, Timestamp.valueOf(cursorWindow.to()));
+        verify(statement).setBytes(4, UuidCodec.toBytes(USER_ID));
+        assertRetentionStart(5);
+        verify(statement).setTimestamp(6, Timestamp.valueOf(cursorWindow.to()));
+        verify(statement).setInt(7, 20);
+    }
+
+    @Test
+    void countUnreadBindsTheUserAndTheRetentionWindow() throws SQLException {
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(3);
+
+        assertEquals(3, notificationDAO.countUnread(USER_ID));
+
+        String sql = preparedSql();
+        assertEquals(3, placeholders(sql));
+        assertTrue(sql.contains("read_flag = 0"));
+        verify(statement).setBytes(1, UuidCodec.toBytes(USER_ID));
+        assertRetentionStart(2);
+    }
+
+    @Test
+    void countUnreadIsZeroWithoutARow() throws SQLException {
+        when(resultSet.next()).thenReturn(false);
+
+        assertEquals(0, notificationDAO.countUnread(USER_ID));
+    }
+
+    @Test
+    void saveAllSendsOneBatchPerFiveHundredRowsInOneTransaction() throws SQLException {
+        when(connection.getAutoCommit()).thenReturn(true);
+
+        assertEquals(List.of(), notificationDAO.saveAll(List.of()));
+        verify(dataSource, never()).getConnection();
+
+        int[][] cases = {{1, 1}, {500, 1}, {501, 2}};
+        for (int[] rowsAndBatches : cases) {
+            clearInvocations(connection, statement);
+
+            List<Notification> saved = notificationDAO.saveAll(notifications(rowsAndBatches[0]));
+
+            assertEquals(rowsAndBatches[0], saved.size());
+            assertTrue(saved.stream().allMatch(n -> n.getId() != null && n.getCreatedAt() != null));
+            verify(statement, times(rowsAndBatches[0])).addBatch();
+            verify(statement, times(rowsAndBatches[1])).executeBatch();
+            verify(connection).setAutoCommit(false);
+            verify(connection).commit();
+            verify(connection).setAutoCommit(true);
+        }
+    }
+
+    @Test
+    void saveAllRollsBackWhenABatchFails() throws SQLException {
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(statement.executeBatch()).thenReturn(new int[500]).thenThrow(new SQLException("Deadlock found"));
+
+        assertThrows(IllegalStateException.class, () -> notificationDAO.saveAll(notifications(501)));
+
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).setAutoCommit(true);
+    }
+
+    private static List<Notification> notifications(int count) {
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Notification notification = new Notification();
+            notification.setUserId(USER_ID);
+            notification.setType("reminder");
+            notification.setTitle("Upcoming renewals");
+            notifications.add(notification);
+        }
+        return notifications;
+    }
+
+    private String preparedSql() throws SQLException {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture());
+        return sql.getValue();
+    }
+
+    private static long placeholders(String sql) {
+        return sql.chars().filter(c -> c == '?').count();
+    }
+
+    private void assertRetentionStart(int index) throws SQLException {
+        ArgumentCaptor<Timestamp> from = ArgumentCaptor.forClass(Timestamp.class);
+        verify(statement).setTimestamp(eq(index), from.capture());
+        LocalDateTime expected = LocalDateTime.now().minusDays(RETENTION_DAYS);
+        assertTrue(Duration.between(from.getValue().toLocalDateTime(), expected).abs().toMinutes() < 1,
+                () -> "retention window starts at " + from.getValue());
+    }
+}
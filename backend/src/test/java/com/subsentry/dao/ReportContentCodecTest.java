@@ -0,0 +1,55 @@
+package com.subsentry.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportContentCodecTest {
+
+    @Test
+    void keepsSmallContentAsPlainJson() throws IOException {
+        ReportContentCodec.Encoded encoded = ReportContentCodec.encode(utf8("{\"total\":12.5}"));
+
+        assertEquals(ReportContentCodec.PLAIN, encoded.encoding());
+        assertEquals("{\"total\":12.5}", read(encoded));
+    }
+
+    @Test
+    void deflatesLargeContentAndRoundTrips() throws IOException {
+        StringBuilder json = new StringBuilder("{\"subscriptions\":[");
+        for (int i = 0; i < 500; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"name\":\"Service ").append(i).append("\",\"amount\":9.99,\"category\":\"Streaming\"}");
+        }
+        json.append("]}");
+
+        ReportContentCodec.Encoded encoded = ReportContentCodec.encode(utf8(json.toString()));
+
+        assertEquals(ReportContentCodec.DEFLATE, encoded.encoding());
+        assertTrue(encoded.bytes().length * 4 < json.length(), "compressed to " + encoded.bytes().length);
+        assertEquals(json.toString(), read(encoded));
+    }
+
+    @Test
+    void opensMissingContentAsNullAndRejectsUnknownEncodings() {
+        assertNull(ReportContentCodec.open(null, null));
+        assertThrows(IllegalStateException.class, () -> ReportContentCodec.open("zstd", new byte[]{1}));
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(ReportContentCodec.Encoded encoded) throws IOException {
+        try (InputStream in = ReportContentCodec.open(encoded.encoding(), encoded.bytes())) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
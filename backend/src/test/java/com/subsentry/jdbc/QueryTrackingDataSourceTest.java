@@ -0,0 +1,90 @@
+package com.subsentry.jdbc;
+
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueryTrackingDataSourceTest {
+
+    private static final String SELECT = "SELECT * FROM subscriptions\n    WHERE id = ?";
+
+    @AfterEach
+    void endRequest() {
+        RequestQueries.end();
+    }
+
+    @Test
+    void countsStatementsAgainstTheCurrentRequest() throws SQLException {
+        DataSource tracked = new QueryTrackingDataSource(mockPool(), new QueryLog(60_000), Tracer.NOOP);
+        RequestQueries queries = RequestQueries.begin();
+
+        try (Connection conn = tracked.getConnection()) {
+            for (int i = 0; i < 3; i++) {
+                try (PreparedStatement ps = conn.prepareStatement(SELECT)) {
+                    ps.executeQuery();
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM notifications")) {
+                ps.executeUpdate();
+            }
+        }
+
+        assertEquals(4, queries.count());
+        Map.Entry<String, Integer> mostRepeated = queries.mostRepeated();
+        assertEquals(SELECT, mostRepeated.getKey());
+        assertEquals(3, mostRepeated.getValue());
+    }
+
+    @Test
+    void recordsSlowAndFailedStatements() throws SQLException {
+        QueryLog queryLog = new QueryLog(0);
+        DataSource pool = mockPool();
+        DataSource tracked = new QueryTrackingDataSource(pool, queryLog, Tracer.NOOP);
+        PreparedStatement failing = mock(PreparedStatement.class);
+        when(failing.executeUpdate()).thenThrow(new SQLException("deadlock"));
+        when(pool.getConnection().prepareStatement("UPDATE users SET name = ?")).thenReturn(failing);
+
+        try (Connection conn = tracked.getConnection()) {
+            conn.prepareStatement(SELECT).executeQuery();
+            PreparedStatement update = conn.prepareStatement("UPDATE users SET name = ?");
+            assertThrows(SQLException.class, update::executeUpdate);
+        }
+
+        var slow = queryLog.recentSlowStatements();
+        assertEquals(2, slow.size());
+        assertEquals("SELECT * FROM subscriptions WHERE id = ?", slow.get(0).sql());
+        assertTrue(slow.get(1).failed());
+    }
+
+    @Test
+    void ignoresStatementsOutsideARequest() throws SQLException {
+        DataSource tracked = new QueryTrackingDataSource(mockPool(), new QueryLog(60_000), Tracer.NOOP);
+
+        try (Connection conn = tracked.getConnection()) {
+            conn.prepareStatement(SELECT).executeQuery();
+        }
+
+        assertEquals(null, RequestQueries.current());
+    }
+
+    private static DataSource mockPool() throws SQLException {
+        DataSource pool = mock(DataSource.class);
+        Connection conn = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(conn);
+        when(conn.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        return pool;
+    }
+}
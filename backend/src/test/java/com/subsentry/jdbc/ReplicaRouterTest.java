@@ -0,0 +1,138 @@
+package com.subsentry.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRouterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+
+    @Test
+    void readsFromThePrimaryUntilTheReplicaHasBeenChecked() throws SQLException {
+        Connection replicaConnection = mock(Connection.class);
+        ReplicaRouter router = router(replicaWithLag(replicaConnection, 0L), 10_000);
+
+        assertSame(primaryConnection, router.readConnection("user-1"));
+        router.checkReplicas();
+        assertSame(replicaConnection, router.readConnection("user-1"));
+        assertEquals(0.0, registry.get("subsentry.db.replica.lag").gauge().value());
+    }
+
+    @Test
+    void keepsAUsersReadsOnThePrimaryAfterTheirWrite() throws SQLException {
+        Connection replicaConnection = mock(Connection.class);
+        ReplicaRouter router = router(replicaWithLag(replicaConnection, 1L), 10_000);
+        router.checkReplicas();
+
+        router.recordWrite("user-1");
+
+        assertSame(primaryConnection, router.readConnection("user-1"));
+        assertSame(replicaConnection, router.readConnection("user-2"));
+        assertEquals(1.0, registry.get("subsentry.db.reads").tags("target", "primary", "reason", "sticky")
+                .counter().count());
+    }
+
+    @Test
+    void stickinessExpires() throws SQLException {
+        Connection replicaConnection = mock(Connection.class);
+        ReplicaRouter router = router(replicaWithLag(replicaConnection, 0L), 0);
+        router.checkReplicas();
+
+        router.recordWrite("user-1");
+
+        assertSame(replicaConnection, router.readConnection("user-1"));
+    }
+
+    @Test
+    void skipsReplicasThatLagOrStoppedReplicating() throws SQLException {
+        ReplicaRouter lagging = router(replicaWithLag(mock(Connection.class), 30L), 10_000);
+        lagging.checkReplicas();
+        assertSame(primaryConnection, lagging.readConnection("user-1"));
+
+        ReplicaRouter stopped = router(replicaWithLag(mock(Connection.class), null), 10_000);
+        stopped.checkReplicas();
+        assertSame(primaryConnection, stopped.readConnection("user-1"));
+    }
+
+    @Test
+    void aServerThatIsNotReplicatingIsOnlyUsedWhenStandaloneIsAllowed() throws SQLException {
+        ReplicaRouter strict = router(standaloneReplica(mock(Connection.class)), 10_000, false);
+        strict.checkReplicas();
+        assertSame(primaryConnection, strict.readConnection("user-1"));
+
+        Connection replicaConnection = mock(Connection.class);
+        ReplicaRouter standalone = router(standaloneReplica(replicaConnection), 10_000, true);
+        standalone.checkReplicas();
+        assertSame(replicaConnection, standalone.readConnection("user-1"));
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenTheReplicaRefusesConnections() throws SQLException {
+        DataSource replica = replicaWithLag(mock(Connection.class), 0L);
+        ReplicaRouter router = router(replica, 10_000);
+        router.checkReplicas();
+
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertSame(primaryConnection, router.readConnection("user-1"));
+        assertEquals(Double.NaN, registry.get("subsentry.db.replica.lag").gauge().value());
+    }
+
+    private ReplicaRouter router(DataSource replica, long stickyMs) throws SQLException {
+        return router(replica, stickyMs, false);
+    }
+
+    private ReplicaRouter router(DataSource replica, long stickyMs, boolean allowStandalone) throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        return new ReplicaRouter(primary, List.of(replica), 5, allowStandalone, stickyMs, registry);
+    }
+
+    /**
+     * A plain server with no replication configured: its status query returns no row.
+     */
+    private DataSource standaloneReplica(Connection readConnection) throws SQLException {
+        Connection statusConnection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet status = mock(ResultSet.class);
+        when(statusConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(status);
+        when(status.next()).thenReturn(false);
+
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection()).thenReturn(statusConnection, readConnection);
+        return replica;
+    }
+
+    /**
+     * A replica whose first connection answers the lag check and whose later ones serve reads.
+     */
+    private DataSource replicaWithLag(Connection readConnection, Long lagSeconds) throws SQLException {
+        Connection statusConnection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet status = mock(ResultSet.class);
+        when(statusConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(status);
+        when(status.next()).thenReturn(true);
+        when(status.findColumn("Seconds_Behind_Source")).thenReturn(33);
+        when(status.getLong("Seconds_Behind_Source")).thenReturn(lagSeconds == null ? 0L : lagSeconds);
+        when(status.wasNull()).thenReturn(lagSeconds == null);
+
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection()).thenReturn(statusConnection, readConnection);
+        return replica;
+    }
+}
@@ -0,0 +1,117 @@
+package com.subsentry.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionRunnerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private TransactionRunner runner;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        runner = new TransactionRunner(dataSource, registry);
+    }
+
+    @Test
+    void runsNestedDaoTransactionsOnOneConnectionAndCommitsOnce() throws SQLException {
+        String result = runner.inTransaction(() -> {
+            daoStyleWrite();
+            runner.inTransaction(this::daoStyleWrite);
+            return "done";
+        });
+
+        assertEquals("done", result);
+        verify(dataSource, times(1)).getConnection();
+        InOrder order = inOrder(connection);
+        order.verify(connection).setAutoCommit(false);
+        order.verify(connection).commit();
+        order.verify(connection).setAutoCommit(true);
+        order.verify(connection).close();
+        verify(connection, never()).rollback();
+        assertNull(TransactionRunner.currentConnection());
+        assertEquals(1, registry.get("subsentry.db.transaction").tag("outcome", "commit").timer().count());
+    }
+
+    @Test
+    void rollsBackWhenTheWorkThrowsAndSkipsAfterCommitActions() throws SQLException {
+        List<String> recorded = new ArrayList<>();
+
+        assertThrows(IllegalArgumentException.class, () -> runner.inTransaction(() -> {
+            TransactionRunner.afterCommit(() -> recorded.add("user-1"));
+            throw new IllegalArgumentException("bad input");
+        }));
+
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).close();
+        assertTrue(recorded.isEmpty());
+        assertEquals(1, registry.get("subsentry.db.transaction").tag("outcome", "rollback").timer().count());
+    }
+
+    @Test
+    void aRollbackInsideTheUnitRollsBackTheWholeUnit() throws SQLException {
+        assertThrows(IllegalStateException.class, () -> runner.inTransaction(() -> {
+            try {
+                TransactionRunner.currentConnection().rollback();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+
+        verify(connection, times(1)).rollback();
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    void runsAfterCommitActionsOnceCommitted() {
+        List<String> recorded = new ArrayList<>();
+
+        runner.inTransaction(() -> {
+            TransactionRunner.afterCommit(() -> recorded.add("user-1"));
+            assertTrue(recorded.isEmpty());
+        });
+        TransactionRunner.afterCommit(() -> recorded.add("user-2"));
+
+        assertEquals(List.of("user-1", "user-2"), recorded);
+    }
+
+    /**
+     * What the DAOs do for their own multi-statement writes.
+     */
+    private void daoStyleWrite() {
+        try (Connection conn = TransactionRunner.currentConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.subsentry.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RepositoryMetricsAspectTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void timesCallsAndRecordsReturnedRows() {
+        SampleDAO dao = proxy();
+
+        dao.findAll();
+        dao.findAll();
+        dao.findOne(false);
+
+        assertEquals(2, registry.get("subsentry.db.operations")
+                .tags("dao", "SampleDAO", "method", "findAll", "outcome", "success").timer().count());
+        assertEquals(6.0, registry.get("subsentry.db.rows")
+                .tags("dao", "SampleDAO", "method", "findAll").summary().totalAmount());
+        assertEquals(0.0, registry.get("subsentry.db.rows")
+                .tags("dao", "SampleDAO", "method", "findOne").summary().totalAmount());
+    }
+
+    @Test
+    void recordsFailuresSeparately() {
+        SampleDAO dao = proxy();
+
+        assertThrows(IllegalStateException.class, dao::fail);
+
+        assertEquals(1, registry.get("subsentry.db.operations")
+                .tags("dao", "SampleDAO", "method", "fail", "outcome", "error").timer().count());
+    }
+
+    private SampleDAO proxy() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleDAO());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new RepositoryMetricsAspect(registry));
+        return factory.getProxy();
+    }
+
+    @Repository
+    static class SampleDAO {
+
+        public List<String> findAll() {
+            return List.of("a", "b", "c");
+        }
+
+        public Optional<String> findOne(boolean present) {
+            return present ? Optional.of("a") : Optional.empty();
+        }
+
+        public void fail() {
+            throw new IllegalStateException("Database unavailable");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.subsentry.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MigrationScriptTest {
+
+    @Test
+    void parsesVersionAndDescriptionFromFileName() {
+        MigrationScript script = MigrationScript.of("V12__add_report_indexes.sql", "SELECT 1;");
+
+        assertEquals(12, script.version());
+        assertEquals("add report indexes", script.description());
+    }
+
+    @Test
+    void rejectsFileNamesOutsideTheScheme() {
+        assertThrows(IllegalArgumentException.class, () -> MigrationScript.of("add_indexes.sql", ""));
+        assertThrows(IllegalArgumentException.class, () -> MigrationScript.of("V1_add_indexes.sql", ""));
+    }
+
+    @Test
+    void splitsOnSemicolonsOutsideStringsAndComments() {
+        MigrationScript script = MigrationScript.of("V1__test.sql", """
+                -- header; not a statement
+                CREATE TABLE t (id INT, note VARCHAR(20) DEFAULT 'a;b'); # trailing; comment
+                /* block; comment */
+                INSERT INTO t VALUES (1, 'it''s; fine'), (2, "x\\";y");
+                ALTER TABLE t ADD INDEX `idx;odd` (id), ALGORITHM=INPLACE, LOCK=NONE
+                """);
+
+        List<String> statements = script.statements();
+
+        assertEquals(3, statements.size());
+        assertEquals("CREATE TABLE t (id INT, note VARCHAR(20) DEFAULT 'a;b')", statements.get(0));
+        assertEquals("INSERT INTO t VALUES (1, 'it''s; fine'), (2, \"x\\\";y\")", statements.get(1));
+        assertEquals("ALTER TABLE t ADD INDEX `idx;odd` (id), ALGORITHM=INPLACE, LOCK=NONE", statements.get(2));
+    }
+
+    @Test
+    void checksumIgnoresLineEndingsButNotContent() {
+        MigrationScript unix = MigrationScript.of("V1__test.sql", "SELECT 1;\nSELECT 2;\n");
+        MigrationScript windows = MigrationScript.of("V1__test.sql", "SELECT 1;\r\nSELECT 2;\r\n");
+        MigrationScript edited = MigrationScript.of("V1__test.sql", "SELECT 1;\nSELECT 3;\n");
+
+        assertEquals(unix.checksum(), windows.checksum());
+        assertNotEquals(unix.checksum(), edited.checksum());
+    }
+
+    @Test
+    void partitionBoundsAreComputedWhenTheScriptRuns() {
+        SchemaMigrator migrator = new SchemaMigrator(null, null, null, true,
+                "classpath*:db/migration/V*__*.sql", 0, 10, 300);
+
+        List<MigrationScript> partitioning = migrator.loadScripts().stream()
+                .filter(script -> script.statements().stream().anyMatch(statement -> statement.contains("PARTITION BY")))
+                .toList();
+
+        assertEquals(List.of(4, 5), partitioning.stream().map(MigrationScript::version).toList());
+        for (MigrationScript script : partitioning) {
+            for (String statement : script.statements()) {
+                // A literal date would put every row created after it into p_future
+                assertFalse(statement.contains("LESS THAN (UNIX_TIMESTAMP('"), statement);
+            }
+            assertTrue(script.statements().stream().anyMatch(statement -> statement.startsWith("EXECUTE ")));
+        }
+    }
+
+    @Test
+    void bundledScriptsAreOrderedAndParse() {
+        SchemaMigrator migrator = new SchemaMigrator(null, null, null, true,
+                "classpath*:db/migration/V*__*.sql", 0, 10, 300);
+
+        List<MigrationScript> scripts = migrator.loadScripts();
+
+        assertFalse(scripts.isEmpty());
+        for (int i = 0; i < scripts.size(); i++) {
+            assertEquals(i + 1, scripts.get(i).version());
+            assertFalse(scripts.get(i).statements().isEmpty());
+        }
+    }
+}
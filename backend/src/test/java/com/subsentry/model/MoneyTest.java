@@ -0,0 +1,88 @@
+package com.subsentry.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    // Properties are checked against BigDecimal on seeded random inputs, so failures reproduce
+    private static final int CASES = 20_000;
+
+    @Test
+    void readsDoublesAsTheDecimalTheyDenote() {
+        Random random = new Random(7);
+        for (int i = 0; i < CASES; i++) {
+            int scale = random.nextInt(4);
+            double amount = i % 2 == 0
+                    // a DECIMAL(10,2) value as the driver hands it over
+                    ? BigDecimal.valueOf(random.nextLong(-10_000_000_000L, 10_000_000_000L), 2).doubleValue()
+                    : random.nextDouble(-1e6, 1e6);
+
+            BigDecimal expected = BigDecimal.valueOf(amount).setScale(scale, RoundingMode.HALF_UP);
+
+            assertEquals(expected, Money.of(amount, scale).toBigDecimal(), () -> amount + " at scale " + scale);
+        }
+        assertEquals(1999, Money.of(19.99, 2).minorUnits());
+        assertEquals(13, Money.of(0.125, 2).minorUnits());
+        assertEquals(-13, Money.of(-0.125, 2).minorUnits());
+    }
+
+    @Test
+    void divisionRoundsTheExactQuotientOnceHalfAwayFromZero() {
+        Random random = new Random(11);
+        for (int i = 0; i < CASES; i++) {
+            long minorUnits = random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L);
+            long divisor = random.nextBoolean() ? random.nextLong(1, 1_000) : -random.nextLong(1, 1_000);
+            int scale = random.nextInt(4);
+            int targetScale = random.nextInt(4);
+
+            BigDecimal expected = BigDecimal.valueOf(minorUnits, scale)
+                    .divide(BigDecimal.valueOf(divisor), targetScale, RoundingMode.HALF_UP);
+
+            assertEquals(expected, Money.ofMinor(minorUnits, scale).dividedBy(divisor, targetScale).toBigDecimal(),
+                    () -> minorUnits + "e-" + scale + " / " + divisor + " to scale " + targetScale);
+        }
+    }
+
+    @Test
+    void sumsAndMultiplesAreExact() {
+        Random random = new Random(13);
+        for (int i = 0; i < CASES; i++) {
+            Money total = Money.zero(2);
+            BigDecimal expected = BigDecimal.ZERO.setScale(2);
+            for (int row = 0; row < 20; row++) {
+                long cents = random.nextLong(0, 10_000_000_000L);
+                int periods = BillingCycle.values()[random.nextInt(BillingCycle.values().length)].periodsPerYear();
+                total = total.plus(Money.ofMinor(cents, 2).times(periods));
+                expected = expected.add(BigDecimal.valueOf(cents, 2).multiply(BigDecimal.valueOf(periods)));
+            }
+            assertEquals(expected, total.toBigDecimal());
+            assertEquals(expected.doubleValue(), total.toDouble());
+        }
+    }
+
+    @Test
+    void rejectsOverflowAndMixedScales() {
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, 2).plus(Money.ofMinor(1, 2)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE / 2, 2).times(3));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(1, 2).plus(Money.ofMinor(1, 0)));
+    }
+
+    @Test
+    void usesTheCurrencyMinorUnitAndOneCycleTable() {
+        assertEquals(0, Money.scaleOf("JPY"));
+        assertEquals(3, Money.scaleOf("BHD"));
+        assertEquals(2, Money.scaleOf("USD"));
+        assertEquals(2, Money.scaleOf("not-a-currency"));
+
+        assertEquals(BillingCycle.ANNUAL, BillingCycle.of("Yearly"));
+        assertEquals(BillingCycle.MONTHLY, BillingCycle.of(null));
+        assertEquals("weekly=52,monthly=12,quarterly=4,semi-annual=2,annual=1,yearly=1", BillingCycle.table());
+    }
+}
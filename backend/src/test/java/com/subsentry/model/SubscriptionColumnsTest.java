@@ -0,0 +1,72 @@
+package com.subsentry.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SubscriptionColumnsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 15, 12, 0, 0);
+
+    @Test
+    void encodesAmountsDatesAndRepeatedValues() {
+        SubscriptionColumns columns = SubscriptionColumns.of(List.of(
+                subscription("Music", 9.99, "Streaming", NOW.minusDays(10), NOW.plusDays(3)),
+                subscription("Video", 15.49, "Streaming", null, null),
+                subscription("Backup", 120, null, NOW.minusDays(400), NOW.plusDays(90))));
+
+        assertEquals(3, columns.size());
+        assertEquals(999, columns.amountCents(0));
+        assertEquals(1549, columns.amountCents(1));
+        assertEquals(columns.categoryCode(0), columns.categoryCode(1));
+        assertEquals(2, columns.categories().size());
+        assertNull(columns.categories().get(columns.categoryCode(2)));
+        assertEquals(NOW.minusDays(10).toLocalDate().toEpochDay(), columns.startDay(0));
+        assertEquals(SubscriptionColumns.NO_DAY, columns.startDay(1));
+        assertEquals(SubscriptionColumns.NO_TIME, columns.renewalTime(1));
+    }
+
+    @Test
+    void selectsRowsByStartDateAndKeepsTheDictionaries() {
+        SubscriptionColumns columns = SubscriptionColumns.of(List.of(
+                subscription("Recent", 5, "News", NOW.minusDays(10), null),
+                subscription("Undated", 6, "News", null, null),
+                subscription("Old", 7, "Games", NOW.minusDays(400), null)));
+
+        SubscriptionColumns recent = columns.startedBetween(LocalDate.from(NOW.minusMonths(1)), LocalDate.from(NOW));
+
+        assertEquals(1, recent.size());
+        assertEquals("Recent", recent.name(0));
+        assertEquals("News", recent.categories().get(recent.categoryCode(0)));
+        assertEquals(columns.categories(), recent.categories());
+    }
+
+    @Test
+    void countsRenewalsInsideTheWindowToTheSecond() {
+        SubscriptionColumns columns = SubscriptionColumns.of(List.of(
+                subscription("Start", 1, null, null, NOW),
+                subscription("End", 1, null, null, NOW.plusDays(7)),
+                subscription("After", 1, null, null, NOW.plusDays(7).plusSeconds(1))));
+
+        assertEquals(2, columns.countRenewingBetween(NOW, NOW.plusDays(7)));
+        // a renewal stored at 12:00:00 is already past at 12:00:00.5
+        assertEquals(1, columns.countRenewingBetween(NOW.plusNanos(500_000_000), NOW.plusDays(7).plusNanos(500_000_000)));
+    }
+
+    private Subscription subscription(String name, double amount, String category,
+                                      LocalDateTime start, LocalDateTime nextRenewal) {
+        Subscription subscription = new Subscription();
+        subscription.setName(name);
+        subscription.setAmount(amount);
+        subscription.setCategory(category);
+        subscription.setBillingCycle("monthly");
+        subscription.setStartDate(start);
+        subscription.setNextRenewalDate(nextRenewal);
+        return subscription;
+    }
+}
@@ -0,0 +1,89 @@
+package com.subsentry.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitFilterTest {
+
+    // Two analytics requests per caller, refilled far too slowly to matter; global limits out of reach
+    private final RateLimitFilter filter = new RateLimitFilter(true, 600_000,
+            5, 0.1, 50, 2,
+            2, 0.001, 1000, 200,
+            120, 20, 2000, 500,
+            new SimpleMeterRegistry());
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rotatingTheUserIdParameterDoesNotEscapeTheLimit() throws Exception {
+        assertEquals(200, analyticsCall("user-a"));
+        assertEquals(200, analyticsCall("user-b"));
+        assertEquals(429, analyticsCall("user-c"));
+    }
+
+    @Test
+    void keysAuthenticatedCallersOnTheirPrincipalAndAnonymousOnesOnTheAddress() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/analytics/overview");
+        request.setRemoteAddr("203.0.113.7");
+
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        assertEquals("ip:203.0.113.7", filter.resolveCaller(request));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user-1", null, List.of()));
+        assertEquals("principal:user-1", filter.resolveCaller(request));
+    }
+
+    @Test
+    void globalRejectionsDoNotUseUpTheCallersOwnLimit() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Two analytics requests per caller, one across all callers; neither refills during the test
+        RateLimitFilter overloaded = new RateLimitFilter(true, 600_000,
+                5, 0.1, 50, 2,
+                2, 0.001, 1, 0.001,
+                120, 20, 2000, 500,
+                registry);
+
+        for (int i = 0; i < 5; i++) {
+            analyticsCall(overloaded, "user-a");
+        }
+
+        assertEquals(1.0, outcomes(registry, "allowed"));
+        assertEquals(4.0, outcomes(registry, "rejected_global"));
+        assertEquals(0.0, outcomes(registry, "rejected_user"));
+    }
+
+    private static double outcomes(SimpleMeterRegistry registry, String outcome) {
+        return registry.get("subsentry.ratelimit.requests").tags("class", "analytics", "outcome", outcome)
+                .counter().count();
+    }
+
+    private int analyticsCall(String userId) throws Exception {
+        return analyticsCall(filter, userId);
+    }
+
+    private static int analyticsCall(RateLimitFilter filter, String userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/analytics/overview");
+        request.setParameter("userId", userId);
+        request.setRemoteAddr("203.0.113.7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
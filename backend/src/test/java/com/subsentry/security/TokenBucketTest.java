@@ -0,0 +1,72 @@
+package com.subsentry.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void grantsBurstThenReportsWaitUntilRefill() {
+        TokenBucket bucket = new TokenBucket(3, 1.0, 0L);
+
+        assertEquals(0L, bucket.tryConsume(0L));
+        assertEquals(0L, bucket.tryConsume(0L));
+        assertEquals(0L, bucket.tryConsume(0L));
+
+        long wait = bucket.tryConsume(0L);
+        assertEquals(SECOND, wait);
+
+        assertEquals(0L, bucket.tryConsume(SECOND));
+        assertTrue(bucket.tryConsume(SECOND) > 0);
+    }
+
+    @Test
+    void refundedTokensCanBeTakenAgainUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(1, 0.001, 0L);
+
+        assertEquals(0L, bucket.tryConsume(0L));
+        bucket.refund(0L);
+        assertEquals(0L, bucket.tryConsume(0L));
+
+        bucket.refund(0L);
+        bucket.refund(0L);
+        assertEquals(1.0, bucket.availableTokens(0L));
+    }
+
+    @Test
+    void refillNeverExceedsCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 10.0, 0L);
+        assertEquals(2.0, bucket.availableTokens(100 * SECOND));
+    }
+
+    @Test
+    void concurrentCallersNeverOverdraw() throws Exception {
+        TokenBucket bucket = new TokenBucket(1000, 0.001, 0L);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryConsume(0L) == 0L) {
+                        granted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(1000, granted.get());
+    }
+}
@@ -0,0 +1,97 @@
+package com.subsentry.service;
+
+import com.subsentry.model.Subscription;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnalyticsServiceTest {
+
+    private final AnalyticsService analyticsService = new AnalyticsService(null, new SimpleMeterRegistry());
+
+    @Test
+    void upcomingKeepsRenewalsInsideWindowSoonestFirst() {
+        LocalDateTime now = LocalDateTime.now();
+        Subscription later = subscription("Later", 10, now.plusDays(20));
+        Subscription sooner = subscription("Sooner", 10, now.plusDays(2));
+        Subscription past = subscription("Past", 10, now.minusDays(1));
+        Subscription outside = subscription("Outside", 10, now.plusDays(40));
+        Subscription none = subscription("None", 10, null);
+
+        List<Subscription> upcoming = analyticsService.upcoming(List.of(later, past, sooner, outside, none), 30);
+
+        assertEquals(List.of("Sooner", "Later"), upcoming.stream().map(Subscription::getName).toList());
+    }
+
+    @Test
+    void overviewIsComputedFromSnapshot() {
+        LocalDateTime now = LocalDateTime.now();
+        Subscription monthly = subscription("Music", 10, now.plusDays(3));
+        Subscription annual = subscription("Storage", 120, now.plusDays(90));
+        annual.setBillingCycle("annual");
+
+        Map<String, Object> overview = analyticsService.overview(List.of(monthly, annual), "all");
+
+        assertEquals(2, overview.get("totalSubscriptions"));
+        assertEquals(20.0, overview.get("averageMonthlySpending"));
+        assertEquals(240.0, overview.get("annualProjection"));
+        assertEquals(1, overview.get("upcomingRenewals"));
+    }
+
+    @Test
+    void overviewNormalisesEveryCycleExactly() {
+        Subscription weekly = subscription("Meal kit", 10, null);
+        weekly.setBillingCycle("weekly");
+        Subscription quarterly = subscription("Magazine", 0.10, null);
+        quarterly.setBillingCycle("quarterly");
+        Subscription monthly = subscription("Music", 0.20, null);
+
+        Map<String, Object> overview = analyticsService.overview(List.of(weekly, quarterly, monthly), "all");
+
+        // (520.00 + 0.40 + 2.40) / 12 = 43.5666..., rounded once
+        assertEquals(522.8, overview.get("annualProjection"));
+        assertEquals(43.57, overview.get("averageMonthlySpending"));
+        assertEquals(1.45, overview.get("costPerDay"));
+    }
+
+    @Test
+    void categoryBreakdownCountsMissingCategoriesAsUncategorized() {
+        Subscription none = subscription("None", 5, null);
+        Subscription labelled = subscription("Labelled", 7.5, null);
+        labelled.setCategory("Uncategorized");
+        Subscription music = subscription("Music", 10, null);
+        music.setCategory("Music");
+
+        Map<String, Object> breakdown = analyticsService.categoryBreakdown(List.of(none, labelled, music), "all");
+
+        assertEquals(List.of(Map.of("name", "Uncategorized", "value", 12.5), Map.of("name", "Music", "value", 10.0)),
+                breakdown.get("categories"));
+    }
+
+    @Test
+    void topSubscriptionsKeepLoadOrderForEqualAmounts() {
+        List<Subscription> subscriptions = List.of(
+                subscription("A", 5, null), subscription("B", 20, null), subscription("C", 5, null),
+                subscription("D", 30, null), subscription("E", 5, null), subscription("F", 5, null));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> top = (List<Map<String, Object>>) analyticsService
+                .topSubscriptions(subscriptions, "all").get("subscriptions");
+
+        assertEquals(List.of("D", "B", "A", "C", "E"), top.stream().map(item -> item.get("name")).toList());
+    }
+
+    private Subscription subscription(String name, double amount, LocalDateTime nextRenewal) {
+        Subscription subscription = new Subscription();
+        subscription.setName(name);
+        subscription.setAmount(amount);
+        subscription.setBillingCycle("monthly");
+        subscription.setNextRenewalDate(nextRenewal);
+        return subscription;
+    }
+}
@@ -0,0 +1,180 @@
+package com.subsentry.service;
+
+import com.subsentry.client.CircuitBreaker;
+import com.subsentry.client.OutboundHttpClient;
+import com.subsentry.util.JsonCodec;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeminiServiceTest {
+
+    private static final String AVAILABLE_MODEL = "/v1/models/gemini-2.0-flash:generateContent";
+    private static final String AVAILABLE_STREAM = "/v1/models/gemini-2.0-flash:streamGenerateContent";
+    private static final String RESPONSE = "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"narrative\"}]}}]}";
+
+    private HttpServer server;
+    private final List<String> requestedPaths = Collections.synchronizedList(new ArrayList<>());
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void repeatedPromptIsServedFromCache() {
+        GeminiService service = newService(60);
+
+        assertEquals("narrative", service.generateReportSummary(payload("Monthly")));
+        int callsAfterFirst = requestedPaths.size();
+        assertEquals("narrative", service.generateReportSummary(payload("Monthly")));
+
+        assertEquals(callsAfterFirst, requestedPaths.size());
+    }
+
+    @Test
+    void generationTimestampDoesNotDefeatCache() {
+        GeminiService service = newService(60);
+        Map<String, Object> first = payload("Monthly");
+        first.put("analyticsContext", Map.of("overview", Map.of("total", 10), "generatedAt", "2024-01-01T00:00"));
+        Map<String, Object> second = payload("Monthly");
+        second.put("analyticsContext", Map.of("overview", Map.of("total", 10), "generatedAt", "2024-01-01T00:05"));
+
+        service.generateReportSummary(first);
+        int callsAfterFirst = requestedPaths.size();
+        service.generateReportSummary(second);
+
+        assertEquals(callsAfterFirst, requestedPaths.size());
+    }
+
+    @Test
+    void identicalConcurrentRequestsShareOneCall() throws Exception {
+        GeminiService service = newService(60);
+        service.generateReportSummary(payload("Warm-up"));
+        requestedPaths.clear();
+        release = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> service.generateReportSummary(payload("Quarterly"))));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("narrative", result.get(5, TimeUnit.SECONDS));
+        }
+        callers.shutdown();
+        assertEquals(List.of(AVAILABLE_MODEL), requestedPaths);
+    }
+
+    @Test
+    void rememberedModelIsTriedFirst() {
+        GeminiService service = newService(0);
+
+        service.generateReportSummary(payload("First"));
+        assertTrue(requestedPaths.size() > 1);
+        requestedPaths.clear();
+
+        service.generateReportSummary(payload("Second"));
+        assertEquals(List.of(AVAILABLE_MODEL), requestedPaths);
+    }
+
+    @Test
+    void streamsFragmentsAndCachesFullText() {
+        GeminiService service = newService(60);
+        List<String> chunks = new ArrayList<>();
+
+        String text = service.streamReportSummary(payload("Streamed"), chunks::add);
+
+        assertEquals("Hello world", text);
+        assertEquals(List.of("Hello ", "world"), chunks);
+
+        List<String> replayed = new ArrayList<>();
+        requestedPaths.clear();
+        assertEquals("Hello world", service.streamReportSummary(payload("Streamed"), replayed::add));
+        assertEquals(List.of("Hello world"), replayed);
+        assertTrue(requestedPaths.isEmpty());
+    }
+
+    private GeminiService newService(long ttlSeconds) {
+        OutboundHttpClient client = new OutboundHttpClient("gemini", 1000, 5000, 5000, 16, 1000,
+                new CircuitBreaker(5, 30_000), new SimpleMeterRegistry(), Tracer.NOOP, false);
+        return new GeminiService(client, new JsonCodec(), new SimpleMeterRegistry(), "test-key",
+                "http://127.0.0.1:" + server.getAddress().getPort(), ttlSeconds, 10);
+    }
+
+    private Map<String, Object> payload(String name) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", "summary");
+        payload.put("name", name);
+        payload.put("startDate", "2024-01-01");
+        payload.put("endDate", "2024-01-31");
+        return payload;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requestedPaths.add(path);
+        exchange.getRequestBody().readAllBytes();
+        if (AVAILABLE_STREAM.equals(path)) {
+            send(exchange, 200, sseChunk("Hello ") + sseChunk("world"));
+            return;
+        }
+        if (!AVAILABLE_MODEL.equals(path)) {
+            send(exchange, 404, "{\"error\":\"not found\"}");
+            return;
+        }
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        send(exchange, 200, RESPONSE);
+    }
+
+    private String sseChunk(String text) {
+        return "data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + text + "\"}]}}]}\r\n\r\n";
+    }
+
+    private void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.subsentry.service;
+
+import com.subsentry.dao.NotificationDAO;
+import com.subsentry.model.Notification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationStreamServiceTest {
+
+    private final NotificationDAO notificationDAO = mock(NotificationDAO.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @Test
+    void replaysWhatTheClientMissedAfterLastEventId() {
+        when(notificationDAO.findCreatedSince("user-1", "n-1", 10))
+                .thenReturn(List.of(notification("n-2"), notification("n-3")));
+        NotificationStreamService service = service(Runnable::run, 10);
+
+        service.subscribe("user-1", "n-1");
+        service.publish(notification("n-4"));
+
+        List<String> sent = emitters.get(0).sent;
+        assertEquals(4, sent.size());
+        assertTrue(sent.get(0).contains(":connected"));
+        assertTrue(sent.get(1).contains("id:n-2"));
+        assertTrue(sent.get(2).contains("id:n-3"));
+        assertTrue(sent.get(3).contains("id:n-4"));
+    }
+
+    @Test
+    void moreMissedThanTheBufferHoldsAsksTheClientToReload() {
+        List<Notification> missed = new ArrayList<>();
+        for (int i = 2; i <= 4; i++) {
+            missed.add(notification("n-" + i));
+        }
+        when(notificationDAO.findCreatedSince("user-1", "n-1", 3)).thenReturn(missed);
+        NotificationStreamService service = service(Runnable::run, 3);
+
+        service.subscribe("user-1", "n-1");
+
+        List<String> sent = emitters.get(0).sent;
+        assertEquals(1, sent.size());
+        assertTrue(sent.get(0).contains("event:resync"));
+        assertFalse(sent.get(0).contains("id:n-"));
+        assertFalse(emitters.get(0).completed);
+    }
+
+    @Test
+    void aFreshConnectionReplaysNothing() {
+        NotificationStreamService service = service(Runnable::run, 10);
+
+        service.subscribe("user-1", null);
+
+        verify(notificationDAO, never()).findCreatedSince(any(), any(), anyInt());
+        assertEquals(1, emitters.get(0).sent.size());
+    }
+
+    @Test
+    void aClientWhoseBufferOverflowsIsDisconnected() {
+        NotificationStreamService service = service(queued::add, 2);
+        service.subscribe("user-1", null);
+
+        // The drain never runs, so "connected" and n-1 fill the buffer and n-2 overflows it
+        service.publish(notification("n-1"));
+        assertFalse(emitters.get(0).completed);
+        service.publish(notification("n-2"));
+
+        assertTrue(emitters.get(0).completed);
+        assertEquals(0.0, registry.get("subsentry.notifications.stream.connections").gauge().value());
+        queued.forEach(Runnable::run);
+        assertEquals(List.of(), emitters.get(0).sent);
+    }
+
+    @Test
+    void oneDrainCarriesEverythingQueuedBeforeItRunsAndTheNextEventSchedulesAnother() {
+        NotificationStreamService service = service(queued::add, 10);
+        service.subscribe("user-1", null);
+        service.publish(notification("n-1"));
+        service.publish(notification("n-2"));
+        assertEquals(1, queued.size());
+
+        queued.remove(0).run();
+        assertEquals(3, emitters.get(0).sent.size());
+
+        service.publish(notification("n-3"));
+        assertEquals(1, queued.size());
+        queued.remove(0).run();
+        assertTrue(emitters.get(0).sent.get(3).contains("id:n-3"));
+    }
+
+    @Test
+    void aRejectedDrainClosesTheStream() {
+        NotificationStreamService service = service(task -> {
+            throw new RejectedExecutionException("pool saturated");
+        }, 10);
+
+        service.subscribe("user-1", null);
+
+        assertTrue(emitters.get(0).completed);
+        assertEquals(0.0, registry.get("subsentry.notifications.stream.connections").gauge().value());
+    }
+
+    @Test
+    void aClientStuckInASendIsDisconnectedAtTheNextHeartbeat() {
+        NotificationStreamService service = service(queued::add, 10, 1);
+        service.subscribe("user-1", null);
+        service.publish(notification("n-1"));
+        RecordingEmitter emitter = emitters.get(0);
+
+        service.sendHeartbeats();
+        assertFalse(emitter.completed);
+
+        emitter.duringSend = () -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            service.sendHeartbeats();
+        };
+        queued.remove(0).run();
+
+        assertTrue(emitter.completed);
+        // The send in progress finishes; nothing queued behind it is sent
+        assertEquals(1, emitter.sent.size());
+        assertEquals(0.0, registry.get("subsentry.notifications.stream.connections").gauge().value());
+    }
+
+    private NotificationStreamService service(TaskExecutor executor, int bufferSize) {
+        return service(executor, bufferSize, 10_000);
+    }
+
+    private NotificationStreamService service(TaskExecutor executor, int bufferSize, long sendTimeoutMs) {
+        return new NotificationStreamService(notificationDAO, executor, 60_000, 3000, bufferSize, sendTimeoutMs,
+                registry) {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private Notification notification(String id) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setUserId("user-1");
+        notification.setTitle("Renewal");
+        return notification;
+    }
+
+    /**
+     * Keeps the text of every event sent; the notification payload itself is left out.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new ArrayList<>();
+        private boolean completed;
+        private Runnable duringSend = () -> { };
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            duringSend.run();
+            sent.add(builder.build().stream()
+                    .map(part -> part.getData() instanceof String text ? text : "")
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+}
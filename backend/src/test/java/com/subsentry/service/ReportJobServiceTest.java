@@ -0,0 +1,108 @@
+package com.subsentry.service;
+
+import com.subsentry.dao.ReportDAO;
+import com.subsentry.model.GeneratedReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportJobServiceTest {
+
+    private final ReportService reportService = mock(ReportService.class);
+    private final ReportDAO reportDAO = mock(ReportDAO.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(reportService.createPendingReport(eq("user-1"), anyMap())).thenAnswer(invocation -> {
+            GeneratedReport report = new GeneratedReport();
+            report.setUserId("user-1");
+            report.setName("Monthly");
+            report.setStatus("pending");
+            report.setContent(Map.of());
+            return report;
+        });
+        when(reportDAO.save(any(GeneratedReport.class), eq("node-a"))).thenAnswer(invocation -> {
+            GeneratedReport report = invocation.getArgument(0);
+            report.setId("report-1");
+            return report;
+        });
+    }
+
+    @Test
+    void returnsASnapshotThatTheWorkerNeverChanges() {
+        ReportJobService service = service(queued::add);
+
+        GeneratedReport submitted = service.submit("user-1", Map.of("type", "summary"));
+        queued.forEach(Runnable::run);
+
+        assertEquals("pending", submitted.getStatus());
+        ArgumentCaptor<GeneratedReport> rendered = ArgumentCaptor.forClass(GeneratedReport.class);
+        verify(reportService).renderReport(rendered.capture(), anyMap());
+        assertNotSame(submitted, rendered.getValue());
+        assertEquals("report-1", rendered.getValue().getId());
+        assertEquals("completed", rendered.getValue().getStatus());
+        verify(reportDAO).updateStatus("user-1", "report-1", "running");
+    }
+
+    @Test
+    void aFullQueueFailsTheJobAndAsksTheClientToRetry() {
+        ReportJobService service = service(task -> {
+            throw new RejectedExecutionException("queue full");
+        });
+
+        ReportJobService.QueueFullException e = assertThrows(ReportJobService.QueueFullException.class,
+                () -> service.submit("user-1", Map.of()));
+
+        assertEquals(30, e.getRetryAfterSeconds());
+        ArgumentCaptor<GeneratedReport> failed = ArgumentCaptor.forClass(GeneratedReport.class);
+        verify(reportDAO).update(failed.capture());
+        assertEquals("failed", failed.getValue().getStatus());
+        assertEquals(Map.of("error", "Report queue is full"), failed.getValue().getContent());
+        verify(reportService, never()).renderReport(any(), anyMap());
+    }
+
+    @Test
+    void statusPollReportsFailuresAndUnknownIds() {
+        when(reportDAO.findStatus("user-1", "report-1")).thenReturn(Optional.of("failed"));
+        when(reportDAO.findContentField("user-1", "report-1", "error")).thenReturn(Optional.of("Renderer crashed"));
+        when(reportDAO.findStatus("user-1", "missing")).thenReturn(Optional.empty());
+        ReportJobService service = service(queued::add);
+
+        assertEquals(Map.of("id", "report-1", "status", "failed", "error", "Renderer crashed"),
+                service.getStatus("user-1", "report-1"));
+        assertEquals(Map.of("id", "missing", "status", "not_found"), service.getStatus("user-1", "missing"));
+    }
+
+    @Test
+    void restartFailsOnlyThisInstancesJobs() {
+        ReportJobService service = service(queued::add);
+
+        service.failInterruptedJobs();
+
+        verify(reportDAO).failInterruptedJobs("node-a");
+    }
+
+    private ReportJobService service(TaskExecutor executor) {
+        return new ReportJobService(reportService, reportDAO, notificationService, executor, "node-a", 30);
+    }
+}
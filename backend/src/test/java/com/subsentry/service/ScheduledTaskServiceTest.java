@@ -0,0 +1,86 @@
+package com.subsentry.service;
+
+import com.subsentry.dao.ScheduledReportDAO;
+import com.subsentry.dao.SubscriptionDAO;
+import com.subsentry.dao.UserDAO;
+import com.subsentry.model.Notification;
+import com.subsentry.model.Subscription;
+import com.subsentry.model.User;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ScheduledTaskServiceTest {
+
+    private final UserDAO userDAO = mock(UserDAO.class);
+    private final SubscriptionDAO subscriptionDAO = mock(SubscriptionDAO.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final ScheduledTaskService service = new ScheduledTaskService(mock(EmailService.class), userDAO,
+            subscriptionDAO, mock(ScheduledReportDAO.class), mock(ReportService.class), notificationService);
+
+    @Test
+    void renewalNotificationsAreWrittenFiveThousandAtATimeThenTheRemainder() {
+        givenUsersWithRenewals(5_001);
+
+        service.checkRenewalReminders();
+
+        assertEquals(List.of(5_000, 1), flushedSizes(2));
+    }
+
+    @Test
+    void aFailedFlushDoesNotStopTheRun() {
+        givenUsersWithRenewals(5_001);
+        when(notificationService.createAll(anyList()))
+                .thenThrow(new IllegalStateException("Failed to save notifications"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.checkRenewalReminders();
+
+        assertEquals(List.of(5_000, 1), flushedSizes(2));
+    }
+
+    @Test
+    void nothingIsWrittenWithoutRenewals() {
+        givenUsersWithRenewals(0);
+
+        service.checkRenewalReminders();
+
+        verify(notificationService, never()).createAll(any());
+    }
+
+    private void givenUsersWithRenewals(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId("user-" + i);
+            user.setEmail("user-" + i + "@example.com");
+            user.setRenewalReminders(true);
+            user.setEmailNotifications(false);
+            users.add(user);
+        }
+        Subscription renewal = new Subscription();
+        renewal.setName("Music");
+        when(userDAO.getAllUsers()).thenReturn(users);
+        when(subscriptionDAO.findUpcoming(anyString(), anyInt())).thenReturn(List.of(renewal));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> flushedSizes(int flushes) {
+        ArgumentCaptor<List<Notification>> flushed = ArgumentCaptor.forClass(List.class);
+        verify(notificationService, times(flushes)).createAll(flushed.capture());
+        return flushed.getAllValues().stream().map(List::size).toList();
+    }
+}
@@ -0,0 +1,69 @@
+package com.subsentry.tracing;
+
+import com.subsentry.util.JsonCodec;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileSpanExporterTest {
+
+    private final JsonCodec jsonCodec = new JsonCodec();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesOneLinePerSpanWithParentLinks() throws Exception {
+        Path file = dir.resolve("traces.jsonl");
+        try (SdkTracerProvider provider = provider(new FileSpanExporter(file, 1024 * 1024, jsonCodec))) {
+            Tracer tracer = provider.get("test");
+            Span parent = tracer.spanBuilder("ReportController.generate").startSpan();
+            try (Scope ignored = parent.makeCurrent()) {
+                tracer.spanBuilder("jdbc select").setAttribute("db.system", "mysql").startSpan().end();
+            }
+            parent.end();
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        Map<String, Object> child = jsonCodec.readMap(lines.get(0));
+        Map<String, Object> root = jsonCodec.readMap(lines.get(1));
+        assertEquals("jdbc select", child.get("name"));
+        assertEquals(root.get("spanId"), child.get("parentSpanId"));
+        assertEquals(root.get("traceId"), child.get("traceId"));
+        assertEquals(Map.of("db.system", "mysql"), child.get("attributes"));
+        assertFalse(root.containsKey("parentSpanId"));
+    }
+
+    @Test
+    void rotatesWhenTheFileOutgrowsItsLimit() throws Exception {
+        Path file = dir.resolve("traces.jsonl");
+        try (SdkTracerProvider provider = provider(new FileSpanExporter(file, 10, jsonCodec))) {
+            Tracer tracer = provider.get("test");
+            tracer.spanBuilder("first").startSpan().end();
+            tracer.spanBuilder("second").startSpan().end();
+        }
+
+        assertTrue(Files.readString(dir.resolve("traces.jsonl.1")).contains("\"second\""));
+        assertFalse(Files.exists(file));
+    }
+
+    private SdkTracerProvider provider(FileSpanExporter exporter) {
+        return SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+    }
+}
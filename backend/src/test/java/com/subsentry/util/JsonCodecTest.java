@@ -0,0 +1,49 @@
+package com.subsentry.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonCodecTest {
+
+    private final JsonCodec codec = new JsonCodec();
+
+    @Test
+    void readsTopLevelFieldWithoutTouchingNestedValues() {
+        String json = "{\"data\":{\"error\":\"nested\",\"rows\":[1,2,3]},\"error\":\"Gemini timed out\",\"total\":4}";
+
+        assertEquals("Gemini timed out", codec.readTopLevelField(stream(json), "error"));
+        assertEquals("4", codec.readTopLevelField(stream(json), "total"));
+        assertNull(codec.readTopLevelField(stream(json), "data"));
+        assertNull(codec.readTopLevelField(stream(json), "missing"));
+        assertNull(codec.readTopLevelField(null, "error"));
+    }
+
+    @Test
+    void readsBlankInputAsEmptyMap() {
+        assertTrue(codec.readMap((String) null).isEmpty());
+        assertTrue(codec.readMap("  ").isEmpty());
+        assertEquals(Map.of("a", 1), codec.readMap(stream("{\"a\":1}")));
+        assertThrows(IllegalStateException.class, () -> codec.readMap("{not json"));
+    }
+
+    @Test
+    void writesDatesAsIsoText() {
+        String json = codec.write(Map.of("createdAt", LocalDateTime.of(2026, 3, 1, 9, 30)));
+
+        assertEquals("{\"createdAt\":\"2026-03-01T09:30:00\"}", json);
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
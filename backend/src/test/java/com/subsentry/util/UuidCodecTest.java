@@ -0,0 +1,44 @@
+package com.subsentry.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UuidCodecTest {
+
+    @Test
+    void roundTripsThroughSixteenBytes() {
+        String id = UUID.randomUUID().toString();
+
+        byte[] bytes = UuidCodec.toBytes(id);
+
+        assertEquals(16, bytes.length);
+        assertEquals(id, UuidCodec.fromBytes(bytes));
+    }
+
+    @Test
+    void matchesMysqlUuidToBinByteOrder() {
+        byte[] expected = {
+                0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xab, (byte) 0xcd, (byte) 0xef,
+                0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xab, (byte) 0xcd, (byte) 0xef};
+
+        assertArrayEquals(expected, UuidCodec.toBytes("01234567-89ab-cdef-0123-456789abcdef"));
+    }
+
+    @Test
+    void passesNullThrough() {
+        assertNull(UuidCodec.toBytes(null));
+        assertNull(UuidCodec.fromBytes(null));
+    }
+
+    @Test
+    void rejectsMalformedValues() {
+        assertThrows(IllegalArgumentException.class, () -> UuidCodec.toBytes("not-a-uuid"));
+        assertThrows(IllegalArgumentException.class, () -> UuidCodec.fromBytes(new byte[36]));
+    }
+}
@@ -0,0 +1,50 @@
+package com.subsentry.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidV7Test {
+
+    @Test
+    void setsVersionAndVariant() {
+        UUID id = UuidV7.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void embedsMillisecondTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= after + 1, "timestamp " + millis);
+    }
+
+    @Test
+    void readsTimestampBackFromVersion7Only() {
+        UUID id = UuidV7.build(1_700_000_000_123L, 5, 42L);
+
+        assertEquals(1_700_000_000_123L, UuidV7.timestampOf(id.toString()).getAsLong());
+        assertTrue(UuidV7.timestampOf(UUID.randomUUID().toString()).isEmpty());
+        assertTrue(UuidV7.timestampOf("not-a-uuid").isEmpty());
+    }
+
+    @Test
+    void binaryFormIncreasesStrictly() {
+        // Compare as BINARY(16) does: unsigned bytes, left to right
+        byte[] previous = UuidCodec.toBytes(UuidV7.generate());
+        for (int i = 0; i < 100_000; i++) {
+            byte[] current = UuidCodec.toBytes(UuidV7.generate());
+            assertTrue(Arrays.compareUnsigned(previous, current) < 0, "id " + i + " did not sort after its predecessor");
+            previous = current;
+        }
+    }
+}
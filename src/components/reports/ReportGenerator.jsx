@@ -7,6 +7,9 @@ import LoadingSpinner from "../common/LoadingSpinner";
 import DatePicker from "react-datepicker";
 import "react-datepicker/dist/react-datepicker.css";
 
+const REPORT_POLL_INTERVAL_MS = 1500;
+const REPORT_POLL_TIMEOUT_MS = 120000;
+
 const ReportGenerator = ({ isOpen, onClose, template, onSuccess, userId }) => {
   const [currentStep, setCurrentStep] = useState(1);
   const [isGenerating, setIsGenerating] = useState(false);
@@ -126,6 +129,22 @@ const ReportGenerator = ({ isOpen, onClose, template, onSuccess, userId }) => {
     return Number.isNaN(date.getTime()) ? null : date.toISOString();
   };
 
+  const waitForReport = async (reportId) => {
+    const deadline = Date.now() + REPORT_POLL_TIMEOUT_MS;
+    while (Date.now() < deadline) {
+      const response = await reportAPI.getReportStatus(reportId, { userId });
+      const job = response?.data?.data ?? response?.data;
+      if (job?.status === "completed") {
+        return job;
+      }
+      if (job?.status === "failed" || job?.status === "not_found") {
+        throw new Error(job?.error || "Report generation failed");
+      }
+      await new Promise((resolve) => setTimeout(resolve, REPORT_POLL_INTERVAL_MS));
+    }
+    throw new Error("Report is still generating. It will appear in your reports when ready.");
+  };
+
   const onSubmit = async (data) => {
     // Only allow submission on step 2
     console.log("onSubmit called, currentStep:", currentStep);
@@ -163,6 +182,10 @@ const ReportGenerator = ({ isOpen, onClose, template, onSuccess, userId }) => {
         throw new Error("Report generation did not return an identifier");
       }
 
+      if (generatedReport.status !== "completed") {
+        await waitForReport(generatedReport.id);
+      }
+
       toast.success("Report generated successfully!");
       onSuccess();
     } catch (error) {
@@ -1,4 +1,4 @@
-import { createContext, useContext, useState, useEffect, useCallback } from "react";
+import { createContext, useContext, useState, useEffect, useCallback, useRef } from "react";
 import { useAuth } from "./AuthContext";
 import { notificationAPI } from "../services/api";
 
@@ -8,6 +8,7 @@ export const NotificationProvider = ({ children }) => {
   const [notifications, setNotifications] = useState([]);
   const [unreadCount, setUnreadCount] = useState(0);
   const [isOpen, setIsOpen] = useState(false);
+  const knownIdsRef = useRef(new Set());
   const { isAuthenticated, user } = useAuth();
   const userId = user?.id;
 
@@ -21,7 +22,10 @@ export const NotificationProvider = ({ children }) => {
   const fetchNotifications = useCallback(async () => {
     try {
       if (!userId) return;
-      const response = await notificationAPI.getNotifications({ userId });
+      const [response, countResponse] = await Promise.all([
+        notificationAPI.getNotifications({ userId }),
+        notificationAPI.getUnreadCount({ userId }),
+      ]);
       // Handle backend response format: { data: { data: [...] } }
       let notificationsArray = [];
       if (response?.data?.data) {
@@ -29,31 +33,51 @@ export const NotificationProvider = ({ children }) => {
       } else if (response?.data && Array.isArray(response.data)) {
         notificationsArray = response.data;
       }
+      knownIdsRef.current = new Set(notificationsArray.map(n => n.id));
       setNotifications(notificationsArray);
-      setUnreadCount(notificationsArray.filter(n => !n.read).length);
+      // The list is only the newest page, so the unread total comes from the server
+      setUnreadCount(countResponse?.data?.data?.count ?? notificationsArray.filter(n => !n.read).length);
     } catch (error) {
       console.error("Failed to fetch notifications:", error);
     }
   }, [userId]);
 
-  // Fetch notifications when user is authenticated
+  // Load notifications once, then receive new ones over the server push channel.
+  // EventSource reconnects on its own and sends Last-Event-ID so missed items are replayed;
+  // when too many were missed the server sends "resync" and the list is reloaded instead.
   useEffect(() => {
-    if (isAuthenticated && userId) {
-      fetchNotifications();
+    if (!isAuthenticated || !userId) return;
+    fetchNotifications();
+
+    if (typeof EventSource === "undefined") {
       const interval = setInterval(fetchNotifications, 30000);
       return () => clearInterval(interval);
     }
+
+    const source = new EventSource(notificationAPI.streamUrl({ userId }));
+    source.addEventListener("notification", (event) => {
+      try {
+        addNotificationRef.current(JSON.parse(event.data));
+      } catch (error) {
+        console.error("Failed to parse pushed notification:", error);
+      }
+    });
+    source.addEventListener("resync", () => fetchNotifications());
+    return () => source.close();
   }, [isAuthenticated, userId, fetchNotifications]);
 
   const markAsRead = async (notificationId) => {
     try {
       if (!userId) return;
       await notificationAPI.markAsRead(notificationId, { userId });
+      const target = notifications.find(n => n.id === notificationId);
       setNotifications(prev => 
         prev.map(n => n.id === notificationId ? { ...n, read: true } : n)
       );
-      setUnreadCount(prev => Math.max(0, prev - 1));
-      
+      if (target && !target.read) {
+        setUnreadCount(prev => Math.max(0, prev - 1));
+      }
+
       // Re-fetch notifications to ensure consistency
       setTimeout(() => {
         fetchNotifications();
@@ -69,7 +93,7 @@ export const NotificationProvider = ({ children }) => {
       await notificationAPI.markAllAsRead({ userId });
       setNotifications(prev => prev.map(n => ({ ...n, read: true })));
       setUnreadCount(0);
-      
+
       // Re-fetch notifications to ensure consistency
       setTimeout(() => {
         fetchNotifications();
@@ -83,8 +107,8 @@ export const NotificationProvider = ({ children }) => {
     try {
       if (!userId) return;
       await notificationAPI.deleteNotification(notificationId, { userId });
-      setNotifications(prev => prev.filter(n => n.id !== notificationId));
       const deletedNotification = notifications.find(n => n.id === notificationId);
+      setNotifications(prev => prev.filter(n => n.id !== notificationId));
       if (deletedNotification && !deletedNotification.read) {
         setUnreadCount(prev => Math.max(0, prev - 1));
       }
@@ -104,15 +128,12 @@ export const NotificationProvider = ({ children }) => {
   };
 
   const addNotification = (notification) => {
-    setNotifications(prev => {
-      // Check if notification with same ID already exists
-      const exists = prev.some(n => n.id === notification.id);
-      if (exists) {
-        return prev; // Don't add duplicate
-      }
-      return [notification, ...prev];
-    });
-    
+    // Stream reconnects replay recent notifications, so skip ones we already have
+    if (knownIdsRef.current.has(notification.id)) {
+      return;
+    }
+    knownIdsRef.current.add(notification.id);
+    setNotifications(prev => [notification, ...prev]);
     if (!notification.read) {
       setUnreadCount(prev => prev + 1);
     }
@@ -126,6 +147,9 @@ export const NotificationProvider = ({ children }) => {
     }
   };
 
+  const addNotificationRef = useRef(addNotification);
+  addNotificationRef.current = addNotification;
+
   const value = {
     notifications,
     unreadCount,
@@ -158,8 +158,54 @@ export const reportAPI = {
       ...userConfig(params),
       timeout: AI_TIMEOUT,
     }),
+  // Streams the AI narrative as it is written. EventSource cannot POST, so the
+  // event stream is read from fetch; resolves with the stored report.
+  streamAi: async (reportData, { onChunk } = {}, params = {}) => {
+    const query = new URLSearchParams(withUserParams(params)).toString();
+    const token = sessionStorage.getItem("token");
+    const response = await fetch(`${API_BASE_URL}/reports/ai/stream?${query}`, {
+      method: "POST",
+      headers: {
+        "Content-Type": "application/json",
+        Accept: "text/event-stream",
+        ...(token ? { Authorization: `Bearer ${token}` } : {}),
+      },
+      body: JSON.stringify(reportData),
+    });
+    if (!response.ok || !response.body) {
+      throw new Error(`AI report stream failed with status ${response.status}`);
+    }
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = "";
+    for (;;) {
+      const { value, done } = await reader.read();
+      if (done) break;
+      buffer += decoder.decode(value, { stream: true });
+      let boundary;
+      while ((boundary = buffer.indexOf("\n\n")) !== -1) {
+        const block = buffer.slice(0, boundary);
+        buffer = buffer.slice(boundary + 2);
+        let event = "message";
+        let data = "";
+        for (const line of block.split("\n")) {
+          if (line.startsWith("event:")) event = line.slice(6).trim();
+          else if (line.startsWith("data:")) data += line.slice(5);
+        }
+        if (!data) continue;
+        const payload = JSON.parse(data);
+        if (event === "chunk") onChunk?.(payload.text);
+        else if (event === "complete") return payload.data;
+        else if (event === "error") throw new Error(payload.error);
+      }
+    }
+    throw new Error("AI report stream ended unexpectedly");
+  },
   getReport: (id, params = {}) =>
     api.get(`/reports/${id}`, { params: withUserParams(params) }),
+  getReportStatus: (id, params = {}) =>
+    api.get(`/reports/${id}/status`, { params: withUserParams(params) }),
   getReports: (params = {}) =>
     api.get("/reports", { params: withUserParams(params) }),
   deleteReport: (id, params = {}) =>
@@ -181,8 +227,14 @@ export const reportAPI = {
 
 // Notification API
 export const notificationAPI = {
+  streamUrl: (params = {}) => {
+    const query = new URLSearchParams(withUserParams(params)).toString();
+    return `${API_BASE_URL}/notifications/stream?${query}`;
+  },
   getNotifications: (params = {}) =>
     api.get("/notifications", { params: withUserParams(params) }),
+  getUnreadCount: (params = {}) =>
+    api.get("/notifications/unread-count", { params: withUserParams(params) }),
   markAsRead: (id, params = {}) =>
     api.put(`/notifications/${id}/read`, null, userConfig(params)),
   markAllAsRead: (params = {}) =>